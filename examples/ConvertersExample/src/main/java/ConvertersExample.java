@@ -0,0 +1,107 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+import io.pmem.pmemkv.Converter;
+import io.pmem.pmemkv.Database;
+import io.pmem.pmemkv.converters.LongConverter;
+import io.pmem.pmemkv.converters.StringConverter;
+import io.pmem.pmemkv.converters.TupleConverter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/* The usual, naive Converter - it allocates a new array and buffer per call */
+class NaiveStringConverter implements Converter<String> {
+	public ByteBuffer toByteBuffer(String entry) {
+		return ByteBuffer.wrap(entry.getBytes());
+	}
+
+	public String fromByteBuffer(ByteBuffer entry) {
+		byte[] bytes;
+		bytes = new byte[entry.capacity()];
+		entry.get(bytes);
+		return new String(bytes);
+	}
+}
+
+/*
+ * Example of the converters from io.pmem.pmemkv.converters package: a benchmark
+ * of the built-in StringConverter (which encodes keys and values directly into
+ * direct buffers of the Database) against a naive one, and range queries over
+ * composite keys, encoded by TupleConverter. Number of records may be passed as
+ * the first argument (1000000 by default).
+ */
+public class ConvertersExample {
+	static <V> Database<String, V> startDB(Converter<String> keyConverter, Converter<V> valueConverter) {
+		return new Database.Builder<String, V>("vsmap")
+				.setSize(1073741824)
+				.setPath("/dev/shm")
+				.setKeyConverter(keyConverter)
+				.setValueConverter(valueConverter)
+				.build();
+	}
+
+	/* Puts and reads back the given number of records, returns ops/s */
+	static double benchmark(Database<String, String> db, int records) {
+		long start = System.nanoTime();
+		for (int i = 0; i < records; i++) {
+			db.put("key" + i, "value" + i);
+		}
+		for (int i = 0; i < records; i++) {
+			db.get("key" + i, (String v) -> {
+			});
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return 2 * records / seconds;
+	}
+
+	public static void main(String[] args) {
+		int RECORDS = (args.length > 0 ? Integer.parseInt(args[0]) : 1000000);
+
+		System.out.println("Benchmarking converters, " + RECORDS + " records");
+		/* the first run warms up the JVM */
+		for (int run = 0; run < 2; run++) {
+			Database<String, String> naive = startDB(new NaiveStringConverter(), new NaiveStringConverter());
+			double naiveOps = benchmark(naive, RECORDS);
+			naive.stop();
+
+			Database<String, String> builtIn = startDB(new StringConverter(), new StringConverter());
+			double builtInOps = benchmark(builtIn, RECORDS);
+			builtIn.stop();
+			System.out.printf("  naive: %.0f ops/s, built-in: %.0f ops/s%n", naiveOps, builtInOps);
+		}
+
+		/*
+		 * Keys are tuples (user, time). Their byte order is the order of users, then
+		 * times - so events of a user in a time range are read by getBetween().
+		 */
+		System.out.println("Storing events of users");
+		Database<List<Object>, Long> events = new Database.Builder<List<Object>, Long>("vsmap")
+				.setSize(1073741824)
+				.setPath("/dev/shm")
+				.setKeyConverter(new TupleConverter())
+				.setValueConverter(new LongConverter())
+				.build();
+		for (long time = -50; time < 50; time++) {
+			for (String user : new String[]{"alice", "bob", "bobby"}) {
+				events.put(Arrays.<Object>asList(user, time), time * time);
+			}
+		}
+
+		/* bounds of getBetween() and countBetween() are exclusive */
+		List<Object> from = Arrays.<Object>asList("bob", -3L);
+		List<Object> to = Arrays.<Object>asList("bob", 3L);
+		System.out.println("Events of bob between -3 and 3: " + events.countBetween(from, to));
+		assert events.countBetween(from, to) == 5;
+		events.getBetween(from, to, (k, v) -> System.out.println("  " + k + ": " + v));
+
+		/* all events of bob - and none of bobby, as strings in tuples are terminated */
+		long count = events.countBetween(Arrays.<Object>asList("bob", Long.MIN_VALUE),
+				Arrays.<Object>asList("bob", Long.MAX_VALUE));
+		System.out.println("All events of bob: " + count);
+		assert count == 100;
+
+		events.stop();
+	}
+}
@@ -1,8 +1,9 @@
 // SPDX-License-Identifier: BSD-3-Clause
-/* Copyright 2021, Intel Corporation */
+/* Copyright 2021-2022, Intel Corporation */
 
 import io.pmem.pmemkv.Converter;
 import io.pmem.pmemkv.Database;
+import io.pmem.pmemkv.RecordBatch;
 
 import java.nio.ByteBuffer;
 
@@ -74,6 +75,22 @@ public class IteratorExample {
 				System.out.println("Key: " + key + " and its value: " + value);
 			}
 
+			/*
+			 * Reading records one by one costs a few JNI calls per record, nextBatch()
+			 * packs many of them into a single buffer, in one call.
+			 */
+			System.out.println("Read all records again, in batches of 2");
+			it.seekToFirst();
+			int count;
+			do {
+				count = it.nextBatch(2, (RecordBatch<String, String> batch) -> {
+					while (batch.next()) {
+						System.out.println("Key: " + batch.key() + " and its value: " + batch.value());
+					}
+				});
+				System.out.println("Batch of " + count + " records");
+			} while (count > 0);
+
 			/* No need to close the iterator manually, it implements AutoCloseable */
 		}
 
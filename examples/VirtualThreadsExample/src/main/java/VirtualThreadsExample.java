@@ -0,0 +1,115 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+import io.pmem.pmemkv.Database;
+import io.pmem.pmemkv.Converter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Implementation of Converter interface to allow
+ * storing (in Database) keys and values as Strings.
+ */
+class StringConverter implements Converter<String> {
+	public ByteBuffer toByteBuffer(String entry) {
+		return ByteBuffer.wrap(entry.getBytes());
+	}
+
+	public String fromByteBuffer(ByteBuffer entry) {
+		byte[] bytes;
+		bytes = new byte[entry.capacity()];
+		entry.get(bytes);
+		return new String(bytes);
+	}
+}
+
+/*
+ * Benchmark of many concurrent clients, each one running in its own virtual
+ * thread (it requires Java 21). Number of clients may be passed as the first
+ * argument (100000 by default), number of operations per client as the second.
+ */
+public class VirtualThreadsExample {
+	interface Client {
+		void run(int client, int op);
+	}
+
+	/*
+	 * Runs ops operations in each of clients virtual threads; returns ops/s. If any
+	 * client fails, its exception is thrown (wrapped in ExecutionException).
+	 */
+	static double runClients(int clients, int ops, Client client) throws InterruptedException, ExecutionException {
+		long start = System.nanoTime();
+		List<Future<?>> results = new ArrayList<>(clients);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < clients; c++) {
+				int id = c;
+				results.add(executor.submit(() -> {
+					for (int op = 0; op < ops; op++) {
+						client.run(id, op);
+					}
+				}));
+			}
+		}
+		for (Future<?> result : results) {
+			result.get();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return clients * (double) ops / seconds;
+	}
+
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+		int CLIENTS = (args.length > 0 ? Integer.parseInt(args[0]) : 100000);
+		int OPS = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+		/* csmap is a concurrent, sorted engine, so scans may be read in chunks */
+		String ENGINE = "csmap";
+		String path = System.getenv().getOrDefault("PmemkvPath", "/dev/shm/pmemkv_vt");
+
+		System.out.println("Starting engine");
+		Database<String, String> db = new Database.Builder<String, String>(ENGINE)
+				.setSize(1073741824)
+				.setPath(path)
+				.setForceCreate(true)
+				.setKeyConverter(new StringConverter())
+				.setValueConverter(new StringConverter())
+				.setChunkedScansOnVirtualThreads(true)
+				.build();
+
+		System.out.println("Running " + CLIENTS + " clients, " + OPS + " operations each");
+		double puts = runClients(CLIENTS, OPS, (c, op) -> db.put("key" + c + "_" + op, "value" + op));
+		System.out.printf("  put: %.0f ops/s%n", puts);
+
+		AtomicLong found = new AtomicLong();
+		double gets = runClients(CLIENTS, OPS, (c, op) -> {
+			if (db.getCopy("key" + c + "_" + op) != null) {
+				found.incrementAndGet();
+			}
+		});
+		System.out.printf("  get: %.0f ops/s%n", gets);
+		assert found.get() == (long) CLIENTS * OPS;
+
+		/*
+		 * Every client scans its records and blocks in the callback (as if it sent them
+		 * over network). Scans are read in chunks, so blocked callbacks don't pin
+		 * carrier threads.
+		 */
+		AtomicLong visited = new AtomicLong();
+		double scans = runClients(CLIENTS, 1, (c, op) -> db.getBetween("key" + c + "_", "key" + c + "_~", (k, v) -> {
+			visited.incrementAndGet();
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		System.out.printf("  scan: %.0f scans/s, %d records visited%n", scans, visited.get());
+
+		System.out.println("Stopping engine");
+		db.stop();
+	}
+}
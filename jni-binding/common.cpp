@@ -15,3 +15,105 @@ std::unordered_map<pmem::kv::status, const char*> PmemkvJavaException::PmemkvSta
        { pmem::kv::status::WRONG_ENGINE_NAME, "io/pmem/pmemkv/WrongEngineNameException"},
        { pmem::kv::status::TRANSACTION_SCOPE_ERROR, "io/pmem/pmemkv/TransactionScopeException"}
 };
+
+std::unordered_map<pmem::kv::status, jclass> PmemkvJavaException::PmemkvStatusClasses;
+jclass PmemkvJavaException::DatabaseExceptionClass = NULL;
+
+static jclass find_global_class(JNIEnv* env, const char* name) {
+    jclass cls = env->FindClass(name);
+    if (cls == NULL)
+        return NULL;
+    jclass global = reinterpret_cast<jclass>(env->NewGlobalRef(cls));
+    env->DeleteLocalRef(cls);
+    return global;
+}
+
+bool PmemkvJavaException::Init(JNIEnv* env) {
+    for (auto& entry : PmemkvStatusDispatcher) {
+        jclass cls = find_global_class(env, entry.second);
+        if (cls == NULL)
+            return false;
+        PmemkvStatusClasses[entry.first] = cls;
+    }
+    DatabaseExceptionClass = find_global_class(env, DatabaseException);
+    return DatabaseExceptionClass != NULL;
+}
+
+void PmemkvJavaException::Release(JNIEnv* env) {
+    for (auto& entry : PmemkvStatusClasses)
+        env->DeleteGlobalRef(entry.second);
+    PmemkvStatusClasses.clear();
+    env->DeleteGlobalRef(DatabaseExceptionClass);
+    DatabaseExceptionClass = NULL;
+}
+
+jclass DatabaseClass = NULL;
+jmethodID keyCallbackID = NULL;
+jmethodID valueCallbackID = NULL;
+jmethodID keyValueCallbackID = NULL;
+jmethodID viewCallbackID = NULL;
+jmethodID batchCallbackID = NULL;
+jmethodID longCallbackID = NULL;
+jfieldID reuseCallbackBuffersField = NULL;
+jfieldID bufferAddressField = NULL;
+jfieldID bufferCapacityField = NULL;
+
+extern "C" JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if (vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_8) != JNI_OK)
+        return JNI_ERR;
+
+    DatabaseClass = find_global_class(env, "io/pmem/pmemkv/Database");
+    if (DatabaseClass == NULL || !PmemkvJavaException::Init(env))
+        return JNI_ERR;
+
+    keyCallbackID = env->GetStaticMethodID(DatabaseClass, KEY_CALLBACK_NAME, KEY_CALLBACK_SIG);
+    valueCallbackID = env->GetStaticMethodID(DatabaseClass, VALUE_CALLBACK_NAME, VALUE_CALLBACK_SIG);
+    keyValueCallbackID = env->GetStaticMethodID(DatabaseClass, KEY_VALUE_CALLBACK_NAME, KEY_VALUE_CALLBACK_SIG);
+    viewCallbackID = env->GetStaticMethodID(DatabaseClass, VIEW_CALLBACK_NAME, VIEW_CALLBACK_SIG);
+    batchCallbackID = env->GetStaticMethodID(DatabaseClass, BATCH_CALLBACK_NAME, BATCH_CALLBACK_SIG);
+    if (keyCallbackID == NULL || valueCallbackID == NULL || keyValueCallbackID == NULL || viewCallbackID == NULL ||
+        batchCallbackID == NULL)
+        return JNI_ERR;
+
+    /* Interface method, called directly on the user's callback - no java wrapper is needed for primitives */
+    jclass long_callback_cls = env->FindClass(LONG_CALLBACK_CLASS);
+    if (long_callback_cls == NULL)
+        return JNI_ERR;
+    longCallbackID = env->GetMethodID(long_callback_cls, LONG_CALLBACK_NAME, LONG_CALLBACK_SIG);
+    env->DeleteLocalRef(long_callback_cls);
+    if (longCallbackID == NULL)
+        return JNI_ERR;
+
+    reuseCallbackBuffersField = env->GetFieldID(DatabaseClass, "reuseCallbackBuffers", "Z");
+    if (reuseCallbackBuffersField == NULL)
+        return JNI_ERR;
+
+    /*
+     * Private fields of java.nio.Buffer allow repointing an existing direct buffer
+     * to another memory region. If they are not available in this JVM, callback
+     * buffers are never reused.
+     */
+    jclass buffer_cls = env->FindClass("java/nio/Buffer");
+    if (buffer_cls != NULL) {
+        bufferAddressField = env->GetFieldID(buffer_cls, "address", "J");
+        bufferCapacityField = env->GetFieldID(buffer_cls, "capacity", "I");
+        env->DeleteLocalRef(buffer_cls);
+    }
+    if (env->ExceptionCheck() == JNI_TRUE || bufferAddressField == NULL || bufferCapacityField == NULL) {
+        env->ExceptionClear();
+        bufferAddressField = NULL;
+        bufferCapacityField = NULL;
+    }
+
+    return JNI_VERSION_1_8;
+}
+
+extern "C" JNIEXPORT void JNICALL JNI_OnUnload(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if (vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_8) != JNI_OK)
+        return;
+    PmemkvJavaException::Release(env);
+    env->DeleteGlobalRef(DatabaseClass);
+    DatabaseClass = NULL;
+}
@@ -5,12 +5,45 @@
 #define HEADER_COMMON_H
 
 #include <jni.h>
+#include <cstring>
 #include <libpmemkv.hpp>
 #include <unordered_map>
 
+#define KEY_CALLBACK_NAME "keyCallbackWrapper"
+#define VALUE_CALLBACK_NAME "valueCallbackWrapper"
+#define KEY_VALUE_CALLBACK_NAME "keyValueCallbackWrapper"
+#define KEY_CALLBACK_SIG "(Lio/pmem/pmemkv/Database;Lio/pmem/pmemkv/StoppableKeyCallback;ILjava/nio/ByteBuffer;)Z"
+#define VALUE_CALLBACK_SIG "(Lio/pmem/pmemkv/Database;Lio/pmem/pmemkv/ValueCallback;ILjava/nio/ByteBuffer;)V"
+#define KEY_VALUE_CALLBACK_SIG "(Lio/pmem/pmemkv/Database;Lio/pmem/pmemkv/StoppableKeyValueCallback;ILjava/nio/ByteBuffer;ILjava/nio/ByteBuffer;)Z"
+#define VIEW_CALLBACK_NAME "viewCallbackWrapper"
+#define VIEW_CALLBACK_SIG "(Lio/pmem/pmemkv/Database;Lio/pmem/pmemkv/Database$ViewCallback;ILjava/nio/ByteBuffer;ILjava/nio/ByteBuffer;)Z"
+#define BATCH_CALLBACK_NAME "batchCallbackWrapper"
+#define BATCH_CALLBACK_SIG "(Lio/pmem/pmemkv/BatchCallback;Lio/pmem/pmemkv/RecordBatch;ILjava/nio/ByteBuffer;)V"
+#define LONG_CALLBACK_CLASS "io/pmem/pmemkv/LongKeyValueCallback"
+#define LONG_CALLBACK_NAME "process"
+#define LONG_CALLBACK_SIG "(JJ)V"
+
+/*
+ * Classes and method IDs used by the JNI layer. They are resolved only once,
+ * in JNI_OnLoad, so they are never written while any Database is in use.
+ */
+extern jclass DatabaseClass;
+extern jmethodID keyCallbackID;
+extern jmethodID valueCallbackID;
+extern jmethodID keyValueCallbackID;
+extern jmethodID viewCallbackID;
+extern jmethodID batchCallbackID;
+extern jmethodID longCallbackID;
+extern jfieldID reuseCallbackBuffersField;
+extern jfieldID bufferAddressField;
+extern jfieldID bufferCapacityField;
+
 class PmemkvJavaException {
 private:
     static std::unordered_map<pmem::kv::status, const char*> PmemkvStatusDispatcher;
+    /* Global references to exception classes, cached by Init() */
+    static std::unordered_map<pmem::kv::status, jclass> PmemkvStatusClasses;
+    static jclass DatabaseExceptionClass;
     JNIEnv* env;
 
 public:
@@ -21,9 +54,19 @@ public:
         env = env_;
     }
 
+    /* Looks up all exception classes, so no class lookup is needed when throwing */
+    static bool Init(JNIEnv* env);
+    static void Release(JNIEnv* env);
+
     void ThrowException(pmem::kv::status status, const char* msg =  pmemkv_errormsg()){
-        jclass exception_class;
-        exception_class = env->FindClass(PmemkvStatusDispatcher[status]);
+        jclass exception_class = NULL;
+        auto cached = PmemkvStatusClasses.find(status);
+        if(cached != PmemkvStatusClasses.end()) {
+            exception_class = cached->second;
+        }
+        if(exception_class == NULL) {
+            exception_class = env->FindClass(PmemkvStatusDispatcher[status]);
+        }
         if(exception_class == NULL) {
             exception_class = env->FindClass(DatabaseException);
         }
@@ -34,8 +77,13 @@ public:
     }
 
     void ThrowException(const char* signature, const char* msg=""){
-        jclass exception_class;
-        exception_class = env->FindClass(signature);
+        jclass exception_class = NULL;
+        if(strcmp(signature, DatabaseException) == 0) {
+            exception_class = DatabaseExceptionClass;
+        }
+        if(exception_class == NULL) {
+            exception_class = env->FindClass(signature);
+        }
         if(exception_class == NULL) {
             exception_class = env->FindClass(GeneralException);
         }
@@ -2,29 +2,85 @@
 /* Copyright 2017-2022, Intel Corporation */
 
 #include <common.h>
-
-#define KEY_CALLBACK_NAME "keyCallbackWrapper"
-#define VALUE_CALLBACK_NAME "valueCallbackWrapper"
-#define KEY_VALUE_CALLBACK_NAME "keyValueCallbackWrapper"
-#define KEY_CALLBACK_SIG "(Lio/pmem/pmemkv/Database;Lio/pmem/pmemkv/KeyCallback;ILjava/nio/ByteBuffer;)V"
-#define VALUE_CALLBACK_SIG "(Lio/pmem/pmemkv/Database;Lio/pmem/pmemkv/ValueCallback;ILjava/nio/ByteBuffer;)V"
-#define KEY_VALUE_CALLBACK_SIG "(Lio/pmem/pmemkv/Database;Lio/pmem/pmemkv/KeyValueCallback;ILjava/nio/ByteBuffer;ILjava/nio/ByteBuffer;)V"
-
-jmethodID keyCallbackID = NULL;
-jmethodID valueCallbackID = NULL;
-jmethodID keyValueCallbackID = NULL;
+#include <record_batch.h>
+#include <write_batch.h>
+#include <algorithm>
+#include <cstdint>
+#include <climits>
+#include <cstring>
+#include <vector>
+
+/* Ranges of keys, which can be scanned natively (as defined in Database.java) */
+#define SCAN_ALL 0
+#define SCAN_ABOVE 1
+#define SCAN_BELOW 2
+#define SCAN_BETWEEN 3
+#define SCAN_PREFIX 4
 
 struct Context {
     JNIEnv* env;
     jobject db;
+    jclass cls;
     jobject callback;
     jmethodID mid;
+    bool reuse;
+    bool stopped;
+    jlong left;
+    jobject keyView;
+    jobject valueView;
 
-    Context(JNIEnv* env_, jobject db_, jobject callback_, jmethodID mid_) {
+    Context(JNIEnv* env_, jobject db_, jobject callback_, jmethodID mid_, jlong limit = LLONG_MAX) {
         env = env_;
         db = db_;
+        cls = DatabaseClass;
         callback = callback_;
         mid = mid_;
+        reuse = bufferAddressField != NULL && env->GetBooleanField(db, reuseCallbackBuffersField) == JNI_TRUE;
+        stopped = false;
+        left = limit;
+        keyView = NULL;
+        valueView = NULL;
+    }
+
+    /*
+     * Marks the scan as stopped, if the callback returned false or the limit of
+     * records is reached, and returns non-zero to end it
+     */
+    int proceed(jboolean result) {
+        if (env->ExceptionCheck() == JNI_TRUE)
+            return 1;
+        stopped = (result == JNI_FALSE || --left == 0);
+        return stopped ? 1 : 0;
+    }
+
+    /* A scan stopped by the callback's false return or by the limit is not an error */
+    pmem::kv::status scan_status(pmem::kv::status status) {
+        if (status == pmem::kv::status::STOPPED_BY_CB && stopped)
+            return pmem::kv::status::OK;
+        return status;
+    }
+
+    /*
+     * Returns direct ByteBuffer pointing to the given data. If buffers are reused,
+     * the view created for the first record is repointed to the data of every next
+     * record (and stays valid until the end of the scan), otherwise a new local
+     * reference is returned, which has to be released with release_buffer().
+     */
+    jobject buffer(jobject& view, const char* data, size_t size) {
+        if (view != NULL) {
+            env->SetLongField(view, bufferAddressField, reinterpret_cast<jlong>(data));
+            env->SetIntField(view, bufferCapacityField, static_cast<jint>(size));
+            return view;
+        }
+        jobject buf = env->NewDirectByteBuffer(const_cast<char*>(data), size);
+        if (reuse)
+            view = buf;
+        return buf;
+    }
+
+    void release_buffer(jobject buf) {
+        if (!reuse)
+            env->DeleteLocalRef(buf);
     }
 };
 
@@ -48,32 +104,131 @@ void callback_get_byte_array(const char* v, size_t vb, void *arg) {
     }
 }
 
+struct ContextGetInto {
+    JNIEnv* env;
+    char* dst_buffer;
+    jbyteArray dst_array;
+    jint offset;
+    jint capacity;
+    size_t length;
+
+    ContextGetInto(JNIEnv* env_, char* dst_buffer_, jbyteArray dst_array_, jint offset_, jint capacity_) {
+        env = env_;
+        dst_buffer = dst_buffer_;
+        dst_array = dst_array_;
+        offset = offset_;
+        capacity = capacity_;
+        length = 0;
+    }
+};
+
+void callback_get_into(const char* v, size_t vb, void *arg) {
+    const auto c = reinterpret_cast<ContextGetInto*>(arg);
+    c->length = vb;
+    if (vb > static_cast<size_t>(c->capacity))
+        return;
+    if (c->dst_buffer)
+        memcpy(c->dst_buffer + c->offset, v, vb);
+    else
+        c->env->SetByteArrayRegion(c->dst_array, c->offset, vb, reinterpret_cast<const jbyte*>(v));
+}
+
 int Callback_get_all_buffer(const char* k, size_t kb, const char* v, size_t vb, void *arg) {
     const auto c = static_cast<Context*>(arg);
 
-    jobject keybuf = c->env->NewDirectByteBuffer(const_cast<char*>(k), kb);
-    jobject valuebuf = c->env->NewDirectByteBuffer(const_cast<char*>(v), vb);
+    jobject keybuf = c->buffer(c->keyView, k, kb);
+    jobject valuebuf = c->buffer(c->valueView, v, vb);
+    jboolean result = JNI_TRUE;
     if (keybuf && valuebuf) {
-        c->env->CallStaticVoidMethod(c->env->GetObjectClass(c->db), c->mid,
-                                     c->db, c->callback, kb, keybuf, vb, valuebuf);
-        c->env->DeleteLocalRef(keybuf);
-        c->env->DeleteLocalRef(valuebuf);
+        result = c->env->CallStaticBooleanMethod(c->cls, c->mid, c->db, c->callback, kb, keybuf, vb, valuebuf);
+        c->release_buffer(keybuf);
+        c->release_buffer(valuebuf);
     }
-    if (c->env->ExceptionOccurred()) {
+    return c->proceed(result);
+}
+
+/* Records (packed as described in record_batch.h), which are passed to java in batches */
+struct BatchContext {
+    JNIEnv* env;
+    jclass cls;
+    jobject callback;
+    jobject batch;
+    jobject buffer;
+    char* data;
+    size_t capacity;
+    size_t used;
+    jint count;
+
+    BatchContext(JNIEnv* env_, jobject callback_, jobject batch_, jobject buffer_) {
+        env = env_;
+        cls = DatabaseClass;
+        callback = callback_;
+        batch = batch_;
+        buffer = buffer_;
+        data = reinterpret_cast<char*>(env->GetDirectBufferAddress(buffer));
+        capacity = static_cast<size_t>(env->GetDirectBufferCapacity(buffer));
+        used = 0;
+        count = 0;
+    }
+};
+
+/* Passes all packed records to java and empties the batch */
+static int flush_batch(BatchContext* c, jobject buffer) {
+    c->env->CallStaticVoidMethod(c->cls, batchCallbackID, c->callback, c->batch, c->count, buffer);
+    c->count = 0;
+    c->used = 0;
+    return c->env->ExceptionCheck() == JNI_TRUE ? 1 : 0;
+}
+
+int Callback_get_batched(const char* k, size_t kb, const char* v, size_t vb, void *arg) {
+    const auto c = static_cast<BatchContext*>(arg);
+    size_t record_size = packed_size(kb, vb);
+
+    if (c->used + record_size > c->capacity && c->count > 0 && flush_batch(c, c->buffer))
         return 1;
+
+    if (record_size > c->capacity) {
+        /* Record doesn't fit even into an empty buffer - pass it alone, in a temporary one */
+        std::vector<char> tmp(record_size);
+        pack_record(tmp.data(), k, kb, v, vb);
+        jobject tmpbuf = c->env->NewDirectByteBuffer(tmp.data(), record_size);
+        if (tmpbuf == NULL)
+            return 1;
+        c->count = 1;
+        int ret = flush_batch(c, tmpbuf);
+        c->env->DeleteLocalRef(tmpbuf);
+        return ret;
     }
+
+    pack_record(c->data + c->used, k, kb, v, vb);
+    c->used += record_size;
+    c->count++;
     return 0;
 }
 
+struct MultiGetContext {
+    BatchContext* batch;
+    const char* key;
+    size_t keybytes;
+    int ret;
+
+    MultiGetContext(BatchContext* batch_) {
+        batch = batch_;
+        key = nullptr;
+        keybytes = 0;
+        ret = 0;
+    }
+};
+
+void callback_get_multi(const char* v, size_t vb, void *arg) {
+    const auto c = static_cast<MultiGetContext*>(arg);
+    c->ret = Callback_get_batched(c->key, c->keybytes, v, vb, c->batch);
+}
+
 extern "C" JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_database_1start
         (JNIEnv* env, jobject obj, jstring engine, jlong config) {
     const char* cengine = env->GetStringUTFChars(engine, NULL);
 
-    keyCallbackID = env->GetStaticMethodID(env->GetObjectClass(obj), KEY_CALLBACK_NAME, KEY_CALLBACK_SIG);
-    valueCallbackID = env->GetStaticMethodID(env->GetObjectClass(obj), VALUE_CALLBACK_NAME, VALUE_CALLBACK_SIG);
-    keyValueCallbackID = env->GetStaticMethodID(env->GetObjectClass(obj),
-                                                KEY_VALUE_CALLBACK_NAME, KEY_VALUE_CALLBACK_SIG);
-
     pmem::kv::db *db = new pmem::kv::db();
     auto cfg = reinterpret_cast<pmemkv_config*>(config);
     pmem::kv::status status = db->open(cengine, pmem::kv::config(cfg));
@@ -91,67 +246,135 @@ extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1stop
     engine->close();
 }
 
+/* Releases a read iterator, which was pooled after ReadIterator.close() */
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1delete_1read_1iterator
+        (JNIEnv* env, jobject obj, jlong iterator_pointer) {
+    auto r_it = reinterpret_cast<pmem::kv::db::read_iterator*>(iterator_pointer);
+    delete r_it;
+}
+
 void Callback_get_value_buffer(const char* v, size_t vb, void *arg) {
     const auto c = static_cast<Context*>(arg);
     // OutOfMemoryError may occur
-    if (jobject valuebuf = c->env->NewDirectByteBuffer(const_cast<char*>(v), vb)) {
-        c->env->CallStaticVoidMethod(c->env->GetObjectClass(c->db), c->mid, c->db, c->callback, vb, valuebuf);
-        c->env->DeleteLocalRef(valuebuf);
+    if (jobject valuebuf = c->buffer(c->valueView, v, vb)) {
+        c->env->CallStaticVoidMethod(c->cls, c->mid, c->db, c->callback, vb, valuebuf);
+        c->release_buffer(valuebuf);
     }
 }
 
 int Callback_get_keys_buffer(const char* k, size_t kb, const char* v, size_t vb, void *arg) {
     const auto c = static_cast<Context*>(arg);
-    Callback_get_value_buffer(k, kb, arg);
-    if (c->env->ExceptionCheck() == JNI_TRUE) {
+    jboolean result = JNI_TRUE;
+    // OutOfMemoryError may occur
+    if (jobject keybuf = c->buffer(c->keyView, k, kb)) {
+        result = c->env->CallStaticBooleanMethod(c->cls, c->mid, c->db, c->callback, kb, keybuf);
+        c->release_buffer(keybuf);
+    }
+    return c->proceed(result);
+}
+
+/*
+ * Records with keys beginning with a prefix. Sorted engines are scanned from the
+ * prefix (by get_equal_above) and the scan is stopped at the first key, which
+ * doesn't begin with it. Other engines are scanned whole and non-matching records
+ * are skipped, without calling java.
+ */
+struct PrefixContext {
+    pmem::kv::string_view prefix;
+    pmem::kv::get_kv_callback* callback;
+    void* arg;
+    bool sorted;
+    bool reached_end;
+    size_t count;
+
+    PrefixContext(pmem::kv::string_view prefix_, pmem::kv::get_kv_callback* callback_, void* arg_) {
+        prefix = prefix_;
+        callback = callback_;
+        arg = arg_;
+        sorted = true;
+        reached_end = false;
+        count = 0;
+    }
+};
+
+int Callback_get_prefix(const char* k, size_t kb, const char* v, size_t vb, void *arg) {
+    const auto c = static_cast<PrefixContext*>(arg);
+    if (kb < c->prefix.size() || memcmp(k, c->prefix.data(), c->prefix.size()) != 0) {
+        if (!c->sorted)
+            return 0;
+        c->reached_end = true;
         return 1;
     }
-    return 0;
+    c->count++;
+    return c->callback ? c->callback(k, kb, v, vb, c->arg) : 0;
 }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1keys_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jobject callback) {
-    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    auto ctx = Context(env, obj, callback, keyCallbackID);
-    auto status = engine->get_all(Callback_get_keys_buffer, &ctx);
-    if (env->ExceptionCheck() == JNI_TRUE) return;
-    if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
+static pmem::kv::status scan_prefix(pmem::kv::db* engine, PrefixContext* cxt) {
+    auto status = engine->get_equal_above(cxt->prefix, Callback_get_prefix, cxt);
+    if (status == pmem::kv::status::NOT_SUPPORTED) {
+        cxt->sorted = false;
+        status = engine->get_all(Callback_get_prefix, cxt);
+    }
+    if (status == pmem::kv::status::STOPPED_BY_CB && cxt->reached_end)
+        return pmem::kv::status::OK;
+    return status;
 }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1keys_1above_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key, jobject callback) {
+static pmem::kv::status scan_range(pmem::kv::db* engine, jint range, pmem::kv::string_view key1,
+                                   pmem::kv::string_view key2, pmem::kv::get_kv_callback* callback, void* arg) {
+    switch (range) {
+    case SCAN_PREFIX: {
+        auto prefix_cxt = PrefixContext(key1, callback, arg);
+        return scan_prefix(engine, &prefix_cxt);
+    }
+    case SCAN_ABOVE:
+        return engine->get_above(key1, callback, arg);
+    case SCAN_BELOW:
+        return engine->get_below(key1, callback, arg);
+    case SCAN_BETWEEN:
+        return engine->get_between(key1, key2, callback, arg);
+    default:
+        return engine->get_all(callback, arg);
+    }
+}
+
+static pmem::kv::string_view direct_key(JNIEnv* env, jobject key, jint keybytes) {
+    if (key == NULL)
+        return pmem::kv::string_view();
+    return pmem::kv::string_view(reinterpret_cast<char*>(env->GetDirectBufferAddress(key)), keybytes);
+}
+
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1keys
+        (JNIEnv* env, jobject obj, jlong pointer, jint range, jint keybytes1, jobject key1, jint keybytes2,
+         jobject key2, jlong limit, jobject callback) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
-    pmem::kv::string_view cppkey(ckey, keybytes);
-    auto cxt = Context(env, obj, callback, keyCallbackID);
-    auto status = engine->get_above(cppkey, Callback_get_keys_buffer, &cxt);
-    if (env->ExceptionCheck() == JNI_TRUE) return;
+    auto cxt = Context(env, obj, callback, keyCallbackID, limit);
+    auto status = cxt.scan_status(scan_range(engine, range, direct_key(env, key1, keybytes1),
+                                             direct_key(env, key2, keybytes2), Callback_get_keys_buffer, &cxt));
+    if (env->ExceptionCheck() == JNI_TRUE)
+        return;  // Propagate exception
     if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
 }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1keys_1below_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key, jobject callback) {
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1records
+        (JNIEnv* env, jobject obj, jlong pointer, jint range, jint keybytes1, jobject key1, jint keybytes2,
+         jobject key2, jlong limit, jobject callback) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
-    pmem::kv::string_view cppkey(ckey, keybytes);
-    auto cxt = Context(env, obj, callback, keyCallbackID);
-    auto status = engine->get_below(cppkey, Callback_get_keys_buffer, &cxt);
-    if (env->ExceptionCheck() == JNI_TRUE) return;
+    auto cxt = Context(env, obj, callback, keyValueCallbackID, limit);
+    auto status = cxt.scan_status(scan_range(engine, range, direct_key(env, key1, keybytes1),
+                                             direct_key(env, key2, keybytes2), Callback_get_all_buffer, &cxt));
+    if (env->ExceptionCheck() == JNI_TRUE)
+        return;  // Propagate exception
     if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
 }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1keys_1between_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes1, jobject key1, jint keybytes2,
-         jobject key2, jobject callback) {
+extern "C" JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_database_1count_1prefix_1buffer
+        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    const char* ckey1 = reinterpret_cast<char*>(env->GetDirectBufferAddress(key1));
-    const char* ckey2 = reinterpret_cast<char*>(env->GetDirectBufferAddress(key2));
-    pmem::kv::string_view cppkey1(ckey1, keybytes1);
-    pmem::kv::string_view cppkey2(ckey2, keybytes2);
-    auto cxt = Context(env, obj, callback, keyCallbackID);
-    auto status = engine->get_between(cppkey1, cppkey2, Callback_get_keys_buffer, &cxt);
-    if (env->ExceptionCheck() == JNI_TRUE) return;
+    auto prefix_cxt = PrefixContext(direct_key(env, key, keybytes), nullptr, nullptr);
+    auto status = scan_prefix(engine, &prefix_cxt);
     if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
+    return prefix_cxt.count;
 }
 
 extern "C" JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_database_1count_1all
@@ -200,53 +423,79 @@ extern "C" JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_database_1count_
     return count;
 }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1all_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jobject callback) {
+/* Records are passed to viewCallbackWrapper, which converts only keys */
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1views
+        (JNIEnv* env, jobject obj, jlong pointer, jint range, jint keybytes1, jobject key1, jint keybytes2,
+         jobject key2, jlong limit, jobject callback) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    auto cxt = Context(env, obj, callback, keyValueCallbackID);
-    auto status = engine->get_all(Callback_get_all_buffer, &cxt);
+    auto cxt = Context(env, obj, callback, viewCallbackID, limit);
+    auto status = cxt.scan_status(scan_range(engine, range, direct_key(env, key1, keybytes1),
+                                             direct_key(env, key2, keybytes2), Callback_get_all_buffer, &cxt));
     if (env->ExceptionCheck() == JNI_TRUE)
         return;  // Propagate exception
     if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
 }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1above_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key, jobject callback) {
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1batched
+        (JNIEnv* env, jobject obj, jlong pointer, jint range, jint keybytes1, jobject key1, jint keybytes2,
+         jobject key2, jobject buffer, jobject batch, jobject callback) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
-    pmem::kv::string_view cppkey(ckey, keybytes);
-    auto cxt = Context(env, obj, callback, keyValueCallbackID);
-    auto status = engine->get_above(cppkey, Callback_get_all_buffer, &cxt);
+    auto cxt = BatchContext(env, callback, batch, buffer);
+    auto status = scan_range(engine, range, direct_key(env, key1, keybytes1), direct_key(env, key2, keybytes2),
+                             Callback_get_batched, &cxt);
     if (env->ExceptionCheck() == JNI_TRUE)
         return;  // Propagate exception
-    if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
+    if (status != pmem::kv::status::OK) {
+        PmemkvJavaException(env).ThrowException(status);
+        return;
+    }
+    if (cxt.count > 0)
+        flush_batch(&cxt, buffer);
 }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1below_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key, jobject callback) {
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1multi
+        (JNIEnv* env, jobject obj, jlong pointer, jobject keys_buffer, jbyteArray keys_array, jint offset,
+         jint length, jobject buffer, jobject batch, jobject callback) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
-    pmem::kv::string_view cppkey(ckey, keybytes);
-    auto cxt = Context(env, obj, callback, keyValueCallbackID);
-    auto status = engine->get_below(cppkey, Callback_get_all_buffer, &cxt);
-    if (env->ExceptionCheck() == JNI_TRUE)
-        return;  // Propagate exception
-    if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
-}
+    /* Keys from a java array are copied, as the array can't be pinned while calling callbacks */
+    std::vector<char> keys_copy;
+    const char* keys;
+    if (keys_buffer) {
+        keys = reinterpret_cast<char*>(env->GetDirectBufferAddress(keys_buffer)) + offset;
+    } else {
+        keys_copy.resize(length);
+        env->GetByteArrayRegion(keys_array, offset, length, reinterpret_cast<jbyte*>(keys_copy.data()));
+        if (env->ExceptionCheck() == JNI_TRUE)
+            return;
+        keys = keys_copy.data();
+    }
 
-extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1between_1buffer
-        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes1, jobject key1, jint keybytes2,
-         jobject key2, jobject callback) {
-    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
-    const char* ckey1 = reinterpret_cast<char*>(env->GetDirectBufferAddress(key1));
-    const char* ckey2 = reinterpret_cast<char*>(env->GetDirectBufferAddress(key2));
-    pmem::kv::string_view cppkey1(ckey1, keybytes1);
-    pmem::kv::string_view cppkey2(ckey2, keybytes2);
-    auto cxt = Context(env, obj, callback, keyValueCallbackID);
-    auto status = engine->get_between(cppkey1, cppkey2, Callback_get_all_buffer, &cxt);
-    if (env->ExceptionCheck() == JNI_TRUE)
-        return;  // Propagate exception
-    if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
+    auto cxt = BatchContext(env, callback, batch, buffer);
+    auto multi_cxt = MultiGetContext(&cxt);
+    size_t pos = 0;
+    while (pos + sizeof(uint32_t) <= static_cast<size_t>(length)) {
+        uint32_t keybytes;
+        memcpy(&keybytes, keys + pos, sizeof(keybytes));
+        pos += sizeof(keybytes);
+        if (pos + keybytes > static_cast<size_t>(length)) {
+            PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException,
+                                                    "Malformed packed keys");
+            return;
+        }
+        multi_cxt.key = keys + pos;
+        multi_cxt.keybytes = keybytes;
+        pos += keybytes;
+
+        auto status = engine->get(pmem::kv::string_view(multi_cxt.key, keybytes), callback_get_multi, &multi_cxt);
+        if (env->ExceptionCheck() == JNI_TRUE || multi_cxt.ret != 0)
+            return;  // Propagate exception
+        if (status != pmem::kv::status::OK && status != pmem::kv::status::NOT_FOUND) {
+            PmemkvJavaException(env).ThrowException(status);
+            return;
+        }
+    }
+    if (cxt.count > 0)
+        flush_batch(&cxt, buffer);
 }
 
 extern "C" JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_database_1exists_1buffer
@@ -271,6 +520,70 @@ extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1bu
     if (status != pmem::kv::status::OK) PmemkvJavaException(env).ThrowException(status);
 }
 
+/* Passes only the requested range of a value to the value callback */
+struct ContextGetRange {
+    Context* cxt;
+    size_t pos;
+    size_t n;
+    bool invalid;
+
+    ContextGetRange(Context* cxt_, size_t pos_, size_t n_) {
+        cxt = cxt_;
+        pos = pos_;
+        n = n_;
+        invalid = false;
+    }
+};
+
+void callback_get_range(const char* v, size_t vb, void *arg) {
+    const auto c = reinterpret_cast<ContextGetRange*>(arg);
+    if (c->pos > vb) {
+        c->invalid = true;
+        return;
+    }
+    Callback_get_value_buffer(v + c->pos, std::min(c->n, vb - c->pos), c->cxt);
+}
+
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1range
+        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key, jlong pos, jlong n, jobject callback) {
+    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
+    const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
+    pmem::kv::string_view cppkey(ckey, keybytes);
+    auto cxt = Context(env, obj, callback, valueCallbackID);
+
+    /* Iterator reads only the requested range, even if the value is stored in parts */
+    auto res = engine->new_read_iterator();
+    if (res.is_ok()) {
+        auto &r_it = res.get_value();
+        auto status = r_it.seek(cppkey);
+        if (status != pmem::kv::status::OK) {
+            PmemkvJavaException(env).ThrowException(status);
+            return;
+        }
+        auto range = r_it.read_range(static_cast<size_t>(pos), static_cast<size_t>(n));
+        if (!range.is_ok()) {
+            PmemkvJavaException(env).ThrowException(range.get_status());
+            return;
+        }
+        auto &value = range.get_value();
+        Callback_get_value_buffer(value.data(), value.size(), &cxt);
+        return;  // Exception from callback (if any) is propagated
+    }
+    if (res.get_status() != pmem::kv::status::NOT_SUPPORTED) {
+        PmemkvJavaException(env).ThrowException(res.get_status());
+        return;
+    }
+
+    /* Engine without iterators - range is cut out of the whole value */
+    auto range_cxt = ContextGetRange(&cxt, static_cast<size_t>(pos), static_cast<size_t>(n));
+    auto status = engine->get(cppkey, callback_get_range, &range_cxt);
+    if (env->ExceptionCheck() == JNI_TRUE) return;  // Propagate exception
+    if (status != pmem::kv::status::OK)
+        PmemkvJavaException(env).ThrowException(status);
+    else if (range_cxt.invalid)
+        PmemkvJavaException(env).ThrowException(pmem::kv::status::INVALID_ARGUMENT, "Range position exceeds the value");
+}
+
 extern "C" JNIEXPORT jbyteArray JNICALL Java_io_pmem_pmemkv_Database_database_1get_1bytes
         (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
@@ -279,11 +592,38 @@ extern "C" JNIEXPORT jbyteArray JNICALL Java_io_pmem_pmemkv_Database_database_1g
     ContextGetByteArray cxt = ContextGetByteArray(env);
     auto status = engine->get(cppkey, callback_get_byte_array, &cxt);
     if (env->ExceptionCheck() == JNI_TRUE) return nullptr;  // Propagate exception
+    if (status == pmem::kv::status::NOT_FOUND)
+        return nullptr;  // No exception for a missing key, it is an expected status
     if (status != pmem::kv::status::OK)
         PmemkvJavaException(env).ThrowException(status);
     return cxt.result;
 }
 
+extern "C" JNIEXPORT jint JNICALL Java_io_pmem_pmemkv_Database_database_1get_1into
+        (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key, jobject dst_buffer,
+         jbyteArray dst_array, jint offset, jint capacity) {
+    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
+    const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
+    pmem::kv::string_view cppkey(ckey, keybytes);
+    char* cdst = dst_buffer ? reinterpret_cast<char*>(env->GetDirectBufferAddress(dst_buffer)) : nullptr;
+    ContextGetInto cxt = ContextGetInto(env, cdst, dst_array, offset, capacity);
+    auto status = engine->get(cppkey, callback_get_into, &cxt);
+    if (env->ExceptionCheck() == JNI_TRUE) return 0;  // Propagate exception
+    if (status == pmem::kv::status::NOT_FOUND)
+        return INT_MIN;  // Database.NOT_FOUND
+    if (status != pmem::kv::status::OK) {
+        PmemkvJavaException(env).ThrowException(status);
+        return 0;
+    }
+    if (cxt.length > INT_MAX) {
+        PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException,
+                                                "Value is too big to fit into ByteBuffer");
+        return 0;
+    }
+    jint length = static_cast<jint>(cxt.length);
+    return length > capacity ? -length : length;
+}
+
 extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1put_1buffer
         (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key, jint valuebytes, jobject value) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
@@ -296,6 +636,19 @@ extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1put_1bu
         PmemkvJavaException(env).ThrowException(result);
 }
 
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1write
+        (JNIEnv* env, jobject obj, jlong pointer, jobject batch, jint length) {
+    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
+    const char* cbatch = reinterpret_cast<char*>(env->GetDirectBufferAddress(batch));
+    pmem::kv::status status;
+    if (!apply_write_batch(engine, cbatch, length, status)) {
+        PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException, "Malformed write batch");
+        return;
+    }
+    if (status != pmem::kv::status::OK)
+        PmemkvJavaException(env).ThrowException(status);
+}
+
 extern "C" JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_database_1remove_1buffer
         (JNIEnv* env, jobject obj, jlong pointer, jint keybytes, jobject key) {
     auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
@@ -306,3 +659,142 @@ extern "C" JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_database_1rem
          PmemkvJavaException(env).ThrowException(result);
     return result == pmem::kv::status::OK;
 }
+
+/*
+ * Long keys are stored as 8 bytes, big-endian, with the sign bit flipped - so
+ * their byte order matches the numeric order. Long values are stored as plain
+ * big-endian 8 bytes (as written by ByteBuffer.putLong()).
+ */
+static void encode_long(jlong number, uint64_t flip, char* out) {
+    uint64_t u = static_cast<uint64_t>(number) ^ flip;
+    for (int i = 7; i >= 0; i--) {
+        out[i] = static_cast<char>(u & 0xff);
+        u >>= 8;
+    }
+}
+
+static jlong decode_long(const char* in, uint64_t flip) {
+    uint64_t u = 0;
+    for (int i = 0; i < 8; i++)
+        u = (u << 8) | static_cast<unsigned char>(in[i]);
+    return static_cast<jlong>(u ^ flip);
+}
+
+#define LONG_KEY_FLIP (static_cast<uint64_t>(1) << 63)
+#define LONG_VALUE_FLIP 0
+
+struct ContextGetLong {
+    jlong value;
+    bool invalid;
+
+    ContextGetLong(jlong default_value) {
+        value = default_value;
+        invalid = false;
+    }
+};
+
+void callback_get_long(const char* v, size_t vb, void *arg) {
+    const auto c = static_cast<ContextGetLong*>(arg);
+    if (vb != sizeof(jlong)) {
+        c->invalid = true;
+        return;
+    }
+    c->value = decode_long(v, LONG_VALUE_FLIP);
+}
+
+struct ContextLongRange {
+    JNIEnv* env;
+    jobject callback;
+    bool invalid;
+
+    ContextLongRange(JNIEnv* env_, jobject callback_) {
+        env = env_;
+        callback = callback_;
+        invalid = false;
+    }
+};
+
+int Callback_get_long_range(const char* k, size_t kb, const char* v, size_t vb, void *arg) {
+    const auto c = static_cast<ContextLongRange*>(arg);
+    /* Longer keys, which only begin with a long key, are not long keys */
+    if (kb != sizeof(jlong))
+        return 0;
+    if (vb != sizeof(jlong)) {
+        c->invalid = true;
+        return 1;
+    }
+    c->env->CallVoidMethod(c->callback, longCallbackID, decode_long(k, LONG_KEY_FLIP),
+                           decode_long(v, LONG_VALUE_FLIP));
+    return c->env->ExceptionCheck() == JNI_TRUE ? 1 : 0;
+}
+
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1put_1long
+        (JNIEnv* env, jobject obj, jlong pointer, jlong key, jlong value) {
+    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
+    char ckey[sizeof(jlong)];
+    char cvalue[sizeof(jlong)];
+    encode_long(key, LONG_KEY_FLIP, ckey);
+    encode_long(value, LONG_VALUE_FLIP, cvalue);
+    const auto result = engine->put(pmem::kv::string_view(ckey, sizeof(ckey)),
+                                    pmem::kv::string_view(cvalue, sizeof(cvalue)));
+    if (result != pmem::kv::status::OK)
+        PmemkvJavaException(env).ThrowException(result);
+}
+
+extern "C" JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_database_1get_1long
+        (JNIEnv* env, jobject obj, jlong pointer, jlong key, jlong default_value) {
+    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
+    char ckey[sizeof(jlong)];
+    encode_long(key, LONG_KEY_FLIP, ckey);
+    auto cxt = ContextGetLong(default_value);
+    auto status = engine->get(pmem::kv::string_view(ckey, sizeof(ckey)), callback_get_long, &cxt);
+    if (status == pmem::kv::status::NOT_FOUND)
+        return default_value;
+    if (status != pmem::kv::status::OK)
+        PmemkvJavaException(env).ThrowException(status);
+    else if (cxt.invalid)
+        PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException, "Value is not a long");
+    return cxt.value;
+}
+
+extern "C" JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_database_1remove_1long
+        (JNIEnv* env, jobject obj, jlong pointer, jlong key) {
+    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
+    char ckey[sizeof(jlong)];
+    encode_long(key, LONG_KEY_FLIP, ckey);
+    const auto result = engine->remove(pmem::kv::string_view(ckey, sizeof(ckey)));
+    if (result != pmem::kv::status::OK && result != pmem::kv::status::NOT_FOUND)
+        PmemkvJavaException(env).ThrowException(result);
+    return result == pmem::kv::status::OK;
+}
+
+/* Scans long keys from the range [from, to] - the caller ensures from <= to */
+extern "C" JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_database_1get_1long_1range
+        (JNIEnv* env, jobject obj, jlong pointer, jlong from, jlong to, jobject callback) {
+    auto engine = reinterpret_cast<pmem::kv::db*>(pointer);
+    /* Bounds of pmemkv's scans are exclusive, so they are moved by one */
+    char clower[sizeof(jlong)];
+    char cupper[sizeof(jlong)];
+    if (from != LLONG_MIN)
+        encode_long(from - 1, LONG_KEY_FLIP, clower);
+    if (to != LLONG_MAX)
+        encode_long(to + 1, LONG_KEY_FLIP, cupper);
+    pmem::kv::string_view lower(clower, sizeof(clower));
+    pmem::kv::string_view upper(cupper, sizeof(cupper));
+    auto cxt = ContextLongRange(env, callback);
+    pmem::kv::status status;
+    if (from == LLONG_MIN && to == LLONG_MAX)
+        status = engine->get_all(Callback_get_long_range, &cxt);
+    else if (from == LLONG_MIN)
+        status = engine->get_below(upper, Callback_get_long_range, &cxt);
+    else if (to == LLONG_MAX)
+        status = engine->get_above(lower, Callback_get_long_range, &cxt);
+    else
+        status = engine->get_between(lower, upper, Callback_get_long_range, &cxt);
+    if (env->ExceptionCheck() == JNI_TRUE)
+        return;  // Propagate exception
+    if (cxt.invalid)
+        PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException, "Value is not a long");
+    else if (status != pmem::kv::status::OK)
+        PmemkvJavaException(env).ThrowException(status);
+}
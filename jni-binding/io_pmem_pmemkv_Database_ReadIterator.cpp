@@ -1,38 +1,62 @@
 // SPDX-License-Identifier: BSD-3-Clause
-/* Copyright 2021, Intel Corporation */
+/* Copyright 2021-2022, Intel Corporation */
 
 #include <common.h>
+#include <iterator.h>
+#include <record_batch.h>
+#include <climits>
 
-/* Helper function for seek methods */
-template <typename Function>
-jboolean boilerplate_seek(JNIEnv *env, jlong ptr, Function &&func, jobject key = nullptr) {
-  auto r_it = reinterpret_cast<pmem::kv::db::read_iterator*>(ptr);
-  const char* ckey = (key ? reinterpret_cast<char*>(env->GetDirectBufferAddress(key)) : nullptr);
-  pmem::kv::status status = func(r_it, ckey);
-
-  if (status == pmem::kv::status::OK || status == pmem::kv::status::NOT_FOUND) {
-    return status == pmem::kv::status::OK;
-  }
-  PmemkvJavaException(env).ThrowException(status);
-  return false;
-}
+/* Set in the value returned by iterator_next/prev_batch, if there are no more records (as defined in Database.java) */
+#define NEXT_BATCH_END (1LL << 32)
 
-/* Helper function for key() and value() methods */
-template <typename Function>
-jobject boilerplate_access(JNIEnv *env, jlong ptr, Function &&func) {
+/*
+ * Packs up to n records, starting from the current one, into the buffer and moves
+ * the iterator past them - forward, or backward if reverse is set. Returns number
+ * of packed records (with NEXT_BATCH_END set, if the first or the last record was
+ * reached) or, if the current record doesn't fit into the empty buffer, its negated
+ * size.
+ */
+static jlong read_batch(JNIEnv *env, jlong ptr, jint n, jobject buffer, bool reverse) {
   auto r_it = reinterpret_cast<pmem::kv::db::read_iterator*>(ptr);
-  pmem::kv::result<pmem::kv::string_view> res = func(r_it);
+  char* data = reinterpret_cast<char*>(env->GetDirectBufferAddress(buffer));
+  size_t capacity = static_cast<size_t>(env->GetDirectBufferCapacity(buffer));
+  size_t used = 0;
+  jlong count = 0;
 
-  if (res.is_ok()) {
-    auto &key = res.get_value();
-    auto key_jbuffer = env->NewDirectByteBuffer(const_cast<char*>(key.data()), key.size());
-    if (env->ExceptionCheck() == JNI_TRUE)
-        return nullptr;  // Propagate exception
-    return key_jbuffer;
-  }
+  while (count < n) {
+    auto key = r_it->key();
+    if (key.get_status() == pmem::kv::status::NOT_FOUND)
+      return count | NEXT_BATCH_END;
+    auto value = r_it->read_range();
+    if (!key.is_ok() || !value.is_ok()) {
+      PmemkvJavaException(env).ThrowException(key.is_ok() ? value.get_status() : key.get_status());
+      return 0;
+    }
+    auto &k = key.get_value();
+    auto &v = value.get_value();
+    size_t record_size = packed_size(k.size(), v.size());
+    if (used + record_size > capacity) {
+      if (count > 0)
+        return count;
+      if (record_size > INT_MAX) {
+        PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException, "Record is too large for a batch");
+        return 0;
+      }
+      return -static_cast<jlong>(record_size);
+    }
+    pack_record(data + used, k.data(), k.size(), v.data(), v.size());
+    used += record_size;
+    count++;
 
-  PmemkvJavaException(env).ThrowException(res.get_status());
-  return nullptr;
+    pmem::kv::status status = reverse ? r_it->prev() : r_it->next();
+    if (status == pmem::kv::status::NOT_FOUND)
+      return count | NEXT_BATCH_END;
+    if (status != pmem::kv::status::OK) {
+      PmemkvJavaException(env).ThrowException(status);
+      return 0;
+    }
+  }
+  return count;
 }
 
 #ifdef __cplusplus
@@ -61,61 +85,61 @@ Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1new_1read_1iterator(JNI
 /*
  * Class:     io_pmem_pmemkv_Database_ReadIterator
  * Method:    iterator_seek
- * Signature: (JLjava/nio/ByteBuffer;)Z
+ * Signature: (JILjava/nio/ByteBuffer;)Z
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1seek
-  (JNIEnv *env, jobject, jlong ptr, jobject key) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
 	  return r_it->seek(ckey);
-  }, key);
+  }, keybytes, key);
 }
 
 /*
  * Class:     io_pmem_pmemkv_Database_ReadIterator
  * Method:    iterator_seek_lower
- * Signature: (JLjava/nio/ByteBuffer;)Z
+ * Signature: (JILjava/nio/ByteBuffer;)Z
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1seek_1lower
-  (JNIEnv *env, jobject, jlong ptr, jobject key) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
 	  return r_it->seek_lower(ckey);
-  }, key);
+  }, keybytes, key);
 }
 
 /*
  * Class:     io_pmem_pmemkv_Database_ReadIterator
  * Method:    iterator_seek_lower_eq
- * Signature: (JLjava/nio/ByteBuffer;)Z
+ * Signature: (JILjava/nio/ByteBuffer;)Z
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1seek_1lower_1eq
-  (JNIEnv *env, jobject, jlong ptr, jobject key) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
 	  return r_it->seek_lower_eq(ckey);
-  }, key);
+  }, keybytes, key);
 }
 
 /*
  * Class:     io_pmem_pmemkv_Database_ReadIterator
  * Method:    iterator_seek_higher
- * Signature: (JLjava/nio/ByteBuffer;)Z
+ * Signature: (JILjava/nio/ByteBuffer;)Z
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1seek_1higher
-  (JNIEnv *env, jobject, jlong ptr, jobject key) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
 	  return r_it->seek_higher(ckey);
-  }, key);
+  }, keybytes, key);
 }
 
 /*
  * Class:     io_pmem_pmemkv_Database_ReadIterator
  * Method:    iterator_seek_higher_eq
- * Signature: (JLjava/nio/ByteBuffer;)Z
+ * Signature: (JILjava/nio/ByteBuffer;)Z
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1seek_1higher_1eq
-  (JNIEnv *env, jobject, jlong ptr, jobject key) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
 	  return r_it->seek_higher_eq(ckey);
-  }, key);
+  }, keybytes, key);
 }
 
 /*
@@ -125,7 +149,7 @@ JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterat
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1seek_1to_1first
   (JNIEnv *env, jobject, jlong ptr) {
-    return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+    return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
       return r_it->seek_to_first();
     });
 }
@@ -137,7 +161,7 @@ JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterat
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1seek_1to_1last
   (JNIEnv *env, jobject, jlong ptr) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
     return r_it->seek_to_last();
   });
 }
@@ -149,7 +173,7 @@ JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterat
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1is_1next
   (JNIEnv *env, jobject, jlong ptr) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
     return r_it->is_next();
   });
 }
@@ -161,7 +185,7 @@ JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterat
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1next
   (JNIEnv *env, jobject, jlong ptr) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
     return r_it->next();
   });
 }
@@ -173,7 +197,7 @@ JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterat
  */
 JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1prev
   (JNIEnv *env, jobject, jlong ptr) {
-  return boilerplate_seek(env, ptr, [](pmem::kv::db::read_iterator *r_it, const char* ckey) {
+  return boilerplate_seek<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it, pmem::kv::string_view ckey) {
     return r_it->prev();
   });
 }
@@ -185,7 +209,7 @@ JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterat
  */
 JNIEXPORT jobject JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1key
   (JNIEnv *env, jobject, jlong ptr) {
-  return boilerplate_access(env, ptr, [](pmem::kv::db::read_iterator *r_it) {
+  return boilerplate_access<pmem::kv::db::read_iterator>(env, ptr, [](pmem::kv::db::read_iterator *r_it) {
     return r_it->key();
   });
 }
@@ -193,15 +217,35 @@ JNIEXPORT jobject JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterato
 /*
  * Class:     io_pmem_pmemkv_Database_ReadIterator
  * Method:    iterator_value
- * Signature: (J)Ljava/nio/ByteBuffer;
+ * Signature: (JJJ)Ljava/nio/ByteBuffer;
  */
 JNIEXPORT jobject JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1value
-  (JNIEnv *env, jobject, jlong ptr) {
-  return boilerplate_access(env, ptr, [](pmem::kv::db::read_iterator *r_it) {
-    return r_it->read_range();
+  (JNIEnv *env, jobject, jlong ptr, jlong pos, jlong n) {
+  return boilerplate_access<pmem::kv::db::read_iterator>(env, ptr, [pos, n](pmem::kv::db::read_iterator *r_it) {
+    return r_it->read_range(static_cast<size_t>(pos), static_cast<size_t>(n));
   });
 }
 
+/*
+ * Class:     io_pmem_pmemkv_Database_ReadIterator
+ * Method:    iterator_next_batch
+ * Signature: (JILjava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1next_1batch
+  (JNIEnv *env, jobject, jlong ptr, jint n, jobject buffer) {
+  return read_batch(env, ptr, n, buffer, false);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_ReadIterator
+ * Method:    iterator_prev_batch
+ * Signature: (JILjava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_00024ReadIterator_iterator_1prev_1batch
+  (JNIEnv *env, jobject, jlong ptr, jint n, jobject buffer) {
+  return read_batch(env, ptr, n, buffer, true);
+}
+
 /*
  * Class:     io_pmem_pmemkv_Database_ReadIterator
  * Method:    iterator_close
@@ -0,0 +1,215 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+#include <common.h>
+#include <write_batch.h>
+
+#include <chrono>
+#include <condition_variable>
+#include <deque>
+#include <mutex>
+#include <string>
+#include <system_error>
+#include <thread>
+#include <vector>
+
+/*
+ * Requests are packed by RequestRing (in Database.java) as: operation (1 byte),
+ * request id (8 bytes), key length, key and - for puts only - value length and
+ * value. Put and remove are encoded as in WriteBatch.
+ */
+#define RING_GET 3
+
+/*
+ * Completions are packed as: request id (8 bytes), operation (1 byte), status
+ * (4 bytes), data length and data - the value of a successful get or the error
+ * message of a failed request. Numbers are stored in native byte order.
+ */
+#define COMPLETION_HEADER_SIZE (sizeof(uint64_t) + 1 + sizeof(int32_t) + sizeof(uint32_t))
+
+struct RequestRing {
+    pmem::kv::db *engine;
+    std::mutex lock;
+    /* Workers wait for submissions, pollers wait for completions */
+    std::condition_variable submitted;
+    std::condition_variable completed;
+    std::deque<std::string> submissions;
+    std::string completions;
+    bool stopping = false;
+    std::vector<std::thread> workers;
+};
+
+static void append_completion(std::string& out, uint64_t id, char op, pmem::kv::status status,
+                              const char* data, size_t size) {
+    int32_t cstatus = static_cast<int32_t>(status);
+    uint32_t length = static_cast<uint32_t>(size);
+    out.append(reinterpret_cast<const char*>(&id), sizeof(id));
+    out.push_back(op);
+    out.append(reinterpret_cast<const char*>(&cstatus), sizeof(cstatus));
+    out.append(reinterpret_cast<const char*>(&length), sizeof(length));
+    out.append(data, size);
+}
+
+/* Runs all requests of a submission, appending their completions to out */
+static void run_requests(pmem::kv::db* engine, const std::string& requests, std::string& out) {
+    const char* batch = requests.data();
+    size_t length = requests.size();
+    size_t pos = 0;
+    /* Submissions are packed by RequestRing, so they are never malformed */
+    while (pos + 1 + sizeof(uint64_t) <= length) {
+        char op = batch[pos++];
+        uint64_t id;
+        memcpy(&id, batch + pos, sizeof(id));
+        pos += sizeof(id);
+        pmem::kv::string_view key, value;
+        if (!unpack_bytes(batch, length, pos, key))
+            return;
+
+        pmem::kv::status status;
+        if (op == WRITE_PUT) {
+            if (!unpack_bytes(batch, length, pos, value))
+                return;
+            status = engine->put(key, value);
+        } else if (op == WRITE_REMOVE) {
+            status = engine->remove(key);
+            if (status == pmem::kv::status::NOT_FOUND)
+                status = pmem::kv::status::OK;
+        } else if (op == RING_GET) {
+            status = engine->get(key, [&](pmem::kv::string_view v) {
+                append_completion(out, id, op, pmem::kv::status::OK, v.data(), v.size());
+            });
+            if (status == pmem::kv::status::OK)
+                continue;
+        } else {
+            status = pmem::kv::status::INVALID_ARGUMENT;
+        }
+
+        if (status == pmem::kv::status::OK || status == pmem::kv::status::NOT_FOUND) {
+            append_completion(out, id, op, status, nullptr, 0);
+        } else {
+            const char* msg = pmemkv_errormsg();
+            append_completion(out, id, op, status, msg, strlen(msg));
+        }
+    }
+}
+
+static void run_worker(RequestRing* ring) {
+    std::string out;
+    std::unique_lock<std::mutex> guard(ring->lock);
+    while (true) {
+        ring->submitted.wait(guard, [ring] { return ring->stopping || !ring->submissions.empty(); });
+        /* Requests submitted before close are always run */
+        if (ring->submissions.empty())
+            return;
+        std::string requests = std::move(ring->submissions.front());
+        ring->submissions.pop_front();
+        guard.unlock();
+
+        out.clear();
+        run_requests(ring->engine, requests, out);
+
+        guard.lock();
+        ring->completions.append(out);
+        ring->completed.notify_all();
+    }
+}
+
+static void stop_workers(RequestRing* ring) {
+    {
+        std::lock_guard<std::mutex> guard(ring->lock);
+        ring->stopping = true;
+    }
+    ring->submitted.notify_all();
+    for (auto& worker : ring->workers)
+        worker.join();
+}
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_pmem_pmemkv_Database_RequestRing
+ * Method:    ring_new
+ * Signature: (JI)J
+ */
+JNIEXPORT jlong JNICALL Java_io_pmem_pmemkv_Database_00024RequestRing_ring_1new
+  (JNIEnv *env, jobject, jlong db_pointer, jint workers) {
+  auto ring = new RequestRing();
+  ring->engine = reinterpret_cast<pmem::kv::db *>(db_pointer);
+  try {
+    for (jint i = 0; i < workers; i++)
+      ring->workers.emplace_back(run_worker, ring);
+  } catch (std::system_error &e) {
+    stop_workers(ring);
+    delete ring;
+    PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException, e.what());
+    return 0;
+  }
+  return reinterpret_cast<jlong>(ring);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_RequestRing
+ * Method:    ring_submit
+ * Signature: (JLjava/nio/ByteBuffer;I)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024RequestRing_ring_1submit
+  (JNIEnv *env, jobject, jlong ptr, jobject buffer, jint length) {
+  auto ring = reinterpret_cast<RequestRing *>(ptr);
+  const char* requests = reinterpret_cast<char*>(env->GetDirectBufferAddress(buffer));
+  {
+    std::lock_guard<std::mutex> guard(ring->lock);
+    ring->submissions.emplace_back(requests, length);
+  }
+  ring->submitted.notify_one();
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_RequestRing
+ * Method:    ring_poll
+ * Signature: (JLjava/nio/ByteBuffer;IJ)I
+ */
+JNIEXPORT jint JNICALL Java_io_pmem_pmemkv_Database_00024RequestRing_ring_1poll
+  (JNIEnv *env, jobject, jlong ptr, jobject buffer, jint capacity, jlong timeout_millis) {
+  auto ring = reinterpret_cast<RequestRing *>(ptr);
+  char* cbuffer = reinterpret_cast<char*>(env->GetDirectBufferAddress(buffer));
+  std::unique_lock<std::mutex> guard(ring->lock);
+  if (timeout_millis > 0) {
+    ring->completed.wait_for(guard, std::chrono::milliseconds(timeout_millis),
+                             [ring] { return !ring->completions.empty(); });
+  }
+
+  /* Only whole completions are passed; if the first one doesn't fit, its size is returned negated */
+  const std::string& completions = ring->completions;
+  size_t pos = 0;
+  while (pos < completions.size()) {
+    uint32_t length;
+    memcpy(&length, completions.data() + pos + COMPLETION_HEADER_SIZE - sizeof(length), sizeof(length));
+    size_t size = COMPLETION_HEADER_SIZE + length;
+    if (pos + size > static_cast<size_t>(capacity)) {
+      if (pos == 0)
+        return -static_cast<jint>(size);
+      break;
+    }
+    pos += size;
+  }
+  memcpy(cbuffer, completions.data(), pos);
+  ring->completions.erase(0, pos);
+  return static_cast<jint>(pos);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_RequestRing
+ * Method:    ring_close
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024RequestRing_ring_1close
+  (JNIEnv *, jobject, jlong ptr) {
+  auto ring = reinterpret_cast<RequestRing *>(ptr);
+  stop_workers(ring);
+  delete ring;
+}
+
+#ifdef __cplusplus
+}
+#endif
@@ -0,0 +1,116 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+#include <common.h>
+#include <write_batch.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_pmem_pmemkv_Database_Transaction
+ * Method:    transaction_begin
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL
+Java_io_pmem_pmemkv_Database_00024Transaction_transaction_1begin(JNIEnv *env, jobject, jlong db_pointer) {
+  auto engine = reinterpret_cast<pmem::kv::db *>(db_pointer);
+  pmem::kv::result<pmem::kv::tx> res = engine->tx_begin();
+
+  if (res.is_ok()) {
+    pmem::kv::tx *ptr = new pmem::kv::tx(std::move(res.get_value()));
+    return reinterpret_cast<jlong>(ptr);
+  } else {
+    PmemkvJavaException(env).ThrowException(res.get_status());
+  }
+  return 0;
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_Transaction
+ * Method:    transaction_put
+ * Signature: (JILjava/nio/ByteBuffer;ILjava/nio/ByteBuffer;)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024Transaction_transaction_1put
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key, jint valuebytes, jobject value) {
+  auto tx = reinterpret_cast<pmem::kv::tx*>(ptr);
+  const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
+  const char* cvalue = reinterpret_cast<char*>(env->GetDirectBufferAddress(value));
+  pmem::kv::status status = tx->put(pmem::kv::string_view(ckey, keybytes),
+                                    pmem::kv::string_view(cvalue, valuebytes));
+  if (status != pmem::kv::status::OK)
+    PmemkvJavaException(env).ThrowException(status);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_Transaction
+ * Method:    transaction_remove
+ * Signature: (JILjava/nio/ByteBuffer;)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024Transaction_transaction_1remove
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  auto tx = reinterpret_cast<pmem::kv::tx*>(ptr);
+  const char* ckey = reinterpret_cast<char*>(env->GetDirectBufferAddress(key));
+  pmem::kv::status status = tx->remove(pmem::kv::string_view(ckey, keybytes));
+  /* Removal of a missing key is not an error, as in WriteBatch */
+  if (status != pmem::kv::status::OK && status != pmem::kv::status::NOT_FOUND)
+    PmemkvJavaException(env).ThrowException(status);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_Transaction
+ * Method:    transaction_write
+ * Signature: (JLjava/nio/ByteBuffer;I)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024Transaction_transaction_1write
+  (JNIEnv *env, jobject, jlong ptr, jobject batch, jint length) {
+  auto tx = reinterpret_cast<pmem::kv::tx*>(ptr);
+  const char* cbatch = reinterpret_cast<char*>(env->GetDirectBufferAddress(batch));
+  pmem::kv::status status;
+  if (!apply_write_batch(tx, cbatch, length, status)) {
+    PmemkvJavaException(env).ThrowException(PmemkvJavaException::DatabaseException, "Malformed write batch");
+    return;
+  }
+  if (status != pmem::kv::status::OK)
+    PmemkvJavaException(env).ThrowException(status);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_Transaction
+ * Method:    transaction_commit
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024Transaction_transaction_1commit
+  (JNIEnv *env, jobject, jlong ptr) {
+  auto tx = reinterpret_cast<pmem::kv::tx*>(ptr);
+  pmem::kv::status status = tx->commit();
+  if (status != pmem::kv::status::OK)
+    PmemkvJavaException(env).ThrowException(status);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_Transaction
+ * Method:    transaction_abort
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024Transaction_transaction_1abort
+  (JNIEnv *, jobject, jlong ptr) {
+  auto tx = reinterpret_cast<pmem::kv::tx*>(ptr);
+  tx->abort();
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_Transaction
+ * Method:    transaction_close
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024Transaction_transaction_1close
+  (JNIEnv *, jobject, jlong ptr) {
+  /* Uncommitted changes are discarded by the destructor */
+  auto tx = reinterpret_cast<pmem::kv::tx*>(ptr);
+  delete tx;
+}
+
+#ifdef __cplusplus
+}
+#endif
@@ -0,0 +1,230 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+#include <common.h>
+#include <iterator.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_new_write_iterator
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL
+Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1new_1write_1iterator(JNIEnv *env, jobject, jlong db_pointer) {
+  auto engine = reinterpret_cast<pmem::kv::db *>(db_pointer);
+  pmem::kv::result<pmem::kv::db::write_iterator> res = engine->new_write_iterator();
+
+  if (res.is_ok()) {
+    pmem::kv::db::write_iterator &w_it = res.get_value();
+    pmem::kv::db::write_iterator *ptr = new pmem::kv::db::write_iterator(std::move(w_it));
+    return reinterpret_cast<jlong>(ptr);
+  } else {
+    PmemkvJavaException(env).ThrowException(res.get_status());
+  }
+  return 0;
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_seek
+ * Signature: (JILjava/nio/ByteBuffer;)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1seek
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+	  return w_it->seek(ckey);
+  }, keybytes, key);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_seek_lower
+ * Signature: (JILjava/nio/ByteBuffer;)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1seek_1lower
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+	  return w_it->seek_lower(ckey);
+  }, keybytes, key);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_seek_lower_eq
+ * Signature: (JILjava/nio/ByteBuffer;)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1seek_1lower_1eq
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+	  return w_it->seek_lower_eq(ckey);
+  }, keybytes, key);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_seek_higher
+ * Signature: (JILjava/nio/ByteBuffer;)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1seek_1higher
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+	  return w_it->seek_higher(ckey);
+  }, keybytes, key);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_seek_higher_eq
+ * Signature: (JILjava/nio/ByteBuffer;)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1seek_1higher_1eq
+  (JNIEnv *env, jobject, jlong ptr, jint keybytes, jobject key) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+	  return w_it->seek_higher_eq(ckey);
+  }, keybytes, key);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_seek_to_first
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1seek_1to_1first
+  (JNIEnv *env, jobject, jlong ptr) {
+    return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+      return w_it->seek_to_first();
+    });
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_seek_to_last
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1seek_1to_1last
+  (JNIEnv *env, jobject, jlong ptr) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+    return w_it->seek_to_last();
+  });
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_is_next
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1is_1next
+  (JNIEnv *env, jobject, jlong ptr) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+    return w_it->is_next();
+  });
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_next
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1next
+  (JNIEnv *env, jobject, jlong ptr) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+    return w_it->next();
+  });
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_prev
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1prev
+  (JNIEnv *env, jobject, jlong ptr) {
+  return boilerplate_seek<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it, pmem::kv::string_view ckey) {
+    return w_it->prev();
+  });
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_key
+ * Signature: (J)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1key
+  (JNIEnv *env, jobject, jlong ptr) {
+  return boilerplate_access<pmem::kv::db::write_iterator>(env, ptr, [](pmem::kv::db::write_iterator *w_it) {
+    return w_it->key();
+  });
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_value
+ * Signature: (JJJ)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1value
+  (JNIEnv *env, jobject, jlong ptr, jlong pos, jlong n) {
+  return boilerplate_access<pmem::kv::db::write_iterator>(env, ptr, [pos, n](pmem::kv::db::write_iterator *w_it) {
+    return w_it->read_range(static_cast<size_t>(pos), static_cast<size_t>(n));
+  });
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_write_range
+ * Signature: (JJJ)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1write_1range
+  (JNIEnv *env, jobject, jlong ptr, jlong pos, jlong n) {
+  auto w_it = reinterpret_cast<pmem::kv::db::write_iterator*>(ptr);
+  auto res = w_it->write_range(static_cast<size_t>(pos), static_cast<size_t>(n));
+
+  if (res.is_ok()) {
+    auto &range = res.get_value();
+    /* Buffer points directly to the iterator's modification buffer, no copy is made */
+    return env->NewDirectByteBuffer(range.begin(), range.size());
+  }
+  PmemkvJavaException(env).ThrowException(res.get_status());
+  return nullptr;
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_commit
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1commit
+  (JNIEnv *env, jobject, jlong ptr) {
+  auto w_it = reinterpret_cast<pmem::kv::db::write_iterator*>(ptr);
+  pmem::kv::status status = w_it->commit();
+  if (status != pmem::kv::status::OK)
+    PmemkvJavaException(env).ThrowException(status);
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_abort
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1abort
+  (JNIEnv *, jobject, jlong ptr) {
+  auto w_it = reinterpret_cast<pmem::kv::db::write_iterator*>(ptr);
+  w_it->abort();
+}
+
+/*
+ * Class:     io_pmem_pmemkv_Database_WriteIterator
+ * Method:    iterator_close
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_pmem_pmemkv_Database_00024WriteIterator_iterator_1close
+  (JNIEnv *, jobject, jlong ptr) {
+    auto w_it = reinterpret_cast<pmem::kv::db::write_iterator*>(ptr);
+    delete w_it;
+}
+
+#ifdef __cplusplus
+}
+#endif
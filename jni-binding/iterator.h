@@ -0,0 +1,49 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2021-2022, Intel Corporation */
+
+#ifndef HEADER_ITERATOR_H
+#define HEADER_ITERATOR_H
+
+#include <common.h>
+
+/*
+ * Helpers shared by read and write iterators, Iterator is one of
+ * pmem::kv::db::read_iterator or pmem::kv::db::write_iterator.
+ */
+
+/* Helper function for seek methods */
+template <typename Iterator, typename Function>
+jboolean boilerplate_seek(JNIEnv *env, jlong ptr, Function &&func, jint keybytes = 0, jobject key = nullptr) {
+  auto it = reinterpret_cast<Iterator*>(ptr);
+  const char* ckey = (key ? reinterpret_cast<char*>(env->GetDirectBufferAddress(key)) : nullptr);
+  pmem::kv::status status = func(it, pmem::kv::string_view(ckey, keybytes));
+
+  if (status == pmem::kv::status::OK || status == pmem::kv::status::NOT_FOUND) {
+    return status == pmem::kv::status::OK;
+  }
+  PmemkvJavaException(env).ThrowException(status);
+  return false;
+}
+
+/* Helper function for key() and value() methods */
+template <typename Iterator, typename Function>
+jobject boilerplate_access(JNIEnv *env, jlong ptr, Function &&func) {
+  auto it = reinterpret_cast<Iterator*>(ptr);
+  pmem::kv::result<pmem::kv::string_view> res = func(it);
+
+  if (res.is_ok()) {
+    auto &key = res.get_value();
+    auto key_jbuffer = env->NewDirectByteBuffer(const_cast<char*>(key.data()), key.size());
+    if (env->ExceptionCheck() == JNI_TRUE)
+        return nullptr;  // Propagate exception
+    return key_jbuffer;
+  }
+  /* No exception for NOT_FOUND, it is an expected status */
+  if (res.get_status() == pmem::kv::status::NOT_FOUND)
+    return nullptr;
+
+  PmemkvJavaException(env).ThrowException(res.get_status());
+  return nullptr;
+}
+
+#endif // HEADER_ITERATOR_H
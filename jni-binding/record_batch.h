@@ -0,0 +1,31 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+#ifndef HEADER_RECORD_BATCH_H
+#define HEADER_RECORD_BATCH_H
+
+#include <cstdint>
+#include <cstring>
+
+/*
+ * Records are packed into a batch buffer (read by RecordBatch class) as: key length,
+ * key, value length, value. Lengths are stored as 4-byte integers in native byte order.
+ */
+
+static inline size_t packed_size(size_t kb, size_t vb) {
+    return 2 * sizeof(uint32_t) + kb + vb;
+}
+
+static inline size_t pack_bytes(char* dst, const char* src, size_t size) {
+    uint32_t length = static_cast<uint32_t>(size);
+    memcpy(dst, &length, sizeof(length));
+    memcpy(dst + sizeof(length), src, size);
+    return sizeof(length) + size;
+}
+
+static inline void pack_record(char* dst, const char* k, size_t kb, const char* v, size_t vb) {
+    dst += pack_bytes(dst, k, kb);
+    pack_bytes(dst, v, vb);
+}
+
+#endif // HEADER_RECORD_BATCH_H
@@ -0,0 +1,59 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+#ifndef HEADER_WRITE_BATCH_H
+#define HEADER_WRITE_BATCH_H
+
+#include <cstdint>
+#include <cstring>
+#include <libpmemkv.hpp>
+
+/* Operations stored in WriteBatch (as defined in Database.java) */
+#define WRITE_PUT 1
+#define WRITE_REMOVE 2
+
+/* Reads length-prefixed bytes from the batch; returns false if they exceed the batch */
+static inline bool unpack_bytes(const char* batch, size_t length, size_t& pos, pmem::kv::string_view& bytes) {
+    uint32_t size;
+    if (pos + sizeof(size) > length)
+        return false;
+    memcpy(&size, batch + pos, sizeof(size));
+    pos += sizeof(size);
+    if (pos + size > length)
+        return false;
+    bytes = pmem::kv::string_view(batch + pos, size);
+    pos += size;
+    return true;
+}
+
+/*
+ * Applies operations packed by WriteBatch to the given engine (db or tx),
+ * stops at the first failure. Returns false if the batch is malformed.
+ */
+template <typename Engine>
+static bool apply_write_batch(Engine* engine, const char* batch, size_t length, pmem::kv::status& status) {
+    size_t pos = 0;
+    status = pmem::kv::status::OK;
+    while (pos < length) {
+        char op = batch[pos++];
+        pmem::kv::string_view key, value;
+        if (!unpack_bytes(batch, length, pos, key))
+            return false;
+        if (op == WRITE_PUT) {
+            if (!unpack_bytes(batch, length, pos, value))
+                return false;
+            status = engine->put(key, value);
+        } else if (op == WRITE_REMOVE) {
+            status = engine->remove(key);
+            if (status == pmem::kv::status::NOT_FOUND)
+                status = pmem::kv::status::OK;
+        } else {
+            return false;
+        }
+        if (status != pmem::kv::status::OK)
+            return true;
+    }
+    return true;
+}
+
+#endif // HEADER_WRITE_BATCH_H
@@ -0,0 +1,320 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous wrapper over {@link io.pmem.pmemkv.Database Database}, which
+ * runs operations on an executor and returns their results as
+ * CompletableFuture, so caller threads (e.g. event loops) are never blocked by
+ * pmemkv.
+ * <p>
+ * Puts and removes are applied in order of submission. They are queued and
+ * applied by a single task at a time: puts which queue up while the previous
+ * writes are applied are coalesced into one
+ * {@link io.pmem.pmemkv.Database.WriteBatch WriteBatch}, so they cost a single
+ * native call. Reads and scans are run as separate tasks, concurrently with
+ * each other and with writes - to read the result of a write, chain the read to
+ * the write's future.
+ * <p>
+ * Closing AsyncDatabase shuts down the executor created by it (but not an
+ * executor passed by the user) and does not stop the underlying database.
+ *
+ * @param <K>
+ *            the type of a key stored in the pmemkv database
+ * @param <V>
+ *            the type of a value stored in the pmemkv database
+ */
+public class AsyncDatabase<K, V> implements AutoCloseable {
+	/* Maximum number of puts coalesced into one write */
+	private static final int MAX_BATCH = 1024;
+
+	private final Database<K, V> db;
+	private final Executor executor;
+	private final ExecutorService ownedExecutor;
+	private final ConcurrentLinkedQueue<Write> writes = new ConcurrentLinkedQueue<>();
+	/* Number of drain requests, the one which increments it from 0 drains */
+	private final AtomicInteger pendingWrites = new AtomicInteger();
+	/* Used only by the draining task */
+	private final Database<K, V>.WriteBatch batch;
+	private final List<Write> batched = new ArrayList<>();
+
+	/**
+	 * Creates AsyncDatabase, which runs operations on its own fixed pool of daemon
+	 * threads, one per available processor.
+	 *
+	 * @param db
+	 *            database to run operations on.
+	 * @since 1.3.0
+	 */
+	public AsyncDatabase(Database<K, V> db) {
+		this(db, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory()),
+				true);
+	}
+
+	/**
+	 * Creates AsyncDatabase, which runs operations on the given executor. On Java
+	 * 21+, it may be e.g. Executors.newVirtualThreadPerTaskExecutor(), to run every
+	 * operation in its own virtual thread.
+	 *
+	 * @param db
+	 *            database to run operations on.
+	 * @param executor
+	 *            executor to run operations on, it's not shut down by close().
+	 * @since 1.3.0
+	 */
+	public AsyncDatabase(Database<K, V> db, Executor executor) {
+		this(db, executor, false);
+	}
+
+	private AsyncDatabase(Database<K, V> db, Executor executor, boolean owned) {
+		if (db == null || executor == null) {
+			throw new NullPointerException("Database and executor cannot be null");
+		}
+		this.db = db;
+		this.executor = executor;
+		this.ownedExecutor = (owned ? (ExecutorService) executor : null);
+		this.batch = db.writeBatch();
+	}
+
+	/**
+	 * Returns the underlying (synchronous) database.
+	 *
+	 * @return database, which operations are run on.
+	 * @since 1.3.0
+	 */
+	public Database<K, V> database() {
+		return db;
+	}
+
+	/**
+	 * Asynchronously inserts the key/value pair into the pmemkv datastore.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            data to be inserted for the specified key.
+	 * @return future completed when the pair is inserted, or completed
+	 *         exceptionally with DatabaseException (or derived class).
+	 * @since 1.3.0
+	 */
+	public CompletableFuture<Void> putAsync(K key, V value) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		submit(new Write(key, value, false, future));
+		return future;
+	}
+
+	/**
+	 * Asynchronously removes the key/value pair from the pmemkv datastore.
+	 *
+	 * @param key
+	 *            the key.
+	 * @return future completed with true if the element was removed, false if it
+	 *         didn't exist, or completed exceptionally with DatabaseException (or
+	 *         derived class).
+	 * @since 1.3.0
+	 */
+	public CompletableFuture<Boolean> removeAsync(K key) {
+		CompletableFuture<Boolean> future = new CompletableFuture<>();
+		submit(new Write(key, null, true, future));
+		return future;
+	}
+
+	/**
+	 * Asynchronously gets a copy of the value for the key.
+	 *
+	 * @param key
+	 *            key to query for.
+	 * @return future completed with copy of the value, or null if not found.
+	 * @since 1.3.0
+	 */
+	public CompletableFuture<V> getAsync(K key) {
+		return CompletableFuture.supplyAsync(() -> db.getCopy(key), executor);
+	}
+
+	/**
+	 * Asynchronously runs the callback for all key/value pairs in the pmemkv
+	 * datastore. The callback is called from an executor thread.
+	 *
+	 * @param callback
+	 *            function to be called for each key/value pair.
+	 * @return future completed after the last call of the callback.
+	 * @since 1.3.0
+	 */
+	public CompletableFuture<Void> getAllAsync(KeyValueCallback<K, V> callback) {
+		return CompletableFuture.runAsync(() -> db.getAll(callback), executor);
+	}
+
+	/**
+	 * Asynchronously runs the callback for all key/value pairs, whose keys are
+	 * greater than the given key. The callback is called from an executor thread.
+	 *
+	 * @param key
+	 *            sets the lower bound for querying.
+	 * @param callback
+	 *            function to be called for each key/value pair.
+	 * @return future completed after the last call of the callback.
+	 * @since 1.3.0
+	 */
+	public CompletableFuture<Void> getAboveAsync(K key, KeyValueCallback<K, V> callback) {
+		return CompletableFuture.runAsync(() -> db.getAbove(key, callback), executor);
+	}
+
+	/**
+	 * Asynchronously runs the callback for all key/value pairs, whose keys are
+	 * lower than the given key. The callback is called from an executor thread.
+	 *
+	 * @param key
+	 *            sets the upper bound for querying.
+	 * @param callback
+	 *            function to be called for each key/value pair.
+	 * @return future completed after the last call of the callback.
+	 * @since 1.3.0
+	 */
+	public CompletableFuture<Void> getBelowAsync(K key, KeyValueCallback<K, V> callback) {
+		return CompletableFuture.runAsync(() -> db.getBelow(key, callback), executor);
+	}
+
+	/**
+	 * Asynchronously runs the callback for all key/value pairs, whose keys are
+	 * greater than key1 and lower than key2. The callback is called from an
+	 * executor thread.
+	 *
+	 * @param key1
+	 *            sets the lower bound for querying.
+	 * @param key2
+	 *            sets the upper bound for querying.
+	 * @param callback
+	 *            function to be called for each key/value pair.
+	 * @return future completed after the last call of the callback.
+	 * @since 1.3.0
+	 */
+	public CompletableFuture<Void> getBetweenAsync(K key1, K key2, KeyValueCallback<K, V> callback) {
+		return CompletableFuture.runAsync(() -> db.getBetween(key1, key2, callback), executor);
+	}
+
+	/**
+	 * Shuts down the executor, if it was created by this AsyncDatabase. Already
+	 * submitted operations are completed. The underlying database is not stopped.
+	 *
+	 * @since 1.3.0
+	 */
+	@Override
+	public void close() {
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdown();
+		}
+	}
+
+	private void submit(Write write) {
+		writes.add(write);
+		if (pendingWrites.getAndIncrement() == 0) {
+			try {
+				executor.execute(this::drainWrites);
+			} catch (RuntimeException e) {
+				/* e.g. RejectedExecutionException after close() */
+				pendingWrites.set(0);
+				Write w;
+				while ((w = writes.poll()) != null) {
+					w.future.completeExceptionally(e);
+				}
+			}
+		}
+	}
+
+	/* Applies queued writes, only one thread at a time runs this loop */
+	private void drainWrites() {
+		int missed = 1;
+		do {
+			Write write;
+			while ((write = writes.poll()) != null) {
+				if (write.remove) {
+					/* Removes report, whether the key existed, so they are applied one by one */
+					flush();
+					try {
+						write.complete(db.remove(write.key));
+					} catch (RuntimeException e) {
+						write.future.completeExceptionally(e);
+					}
+				} else {
+					try {
+						batch.put(write.key, write.value);
+						batched.add(write);
+					} catch (RuntimeException e) {
+						write.future.completeExceptionally(e);
+					}
+					if (batched.size() == MAX_BATCH) {
+						flush();
+					}
+				}
+			}
+			flush();
+			missed = pendingWrites.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	private void flush() {
+		if (batched.isEmpty()) {
+			return;
+		}
+		try {
+			db.write(batch);
+			for (Write write : batched) {
+				write.complete(null);
+			}
+		} catch (RuntimeException e) {
+			/* Puts are idempotent, redo them one by one to fail only the broken ones */
+			for (Write write : batched) {
+				try {
+					db.put(write.key, write.value);
+					write.complete(null);
+				} catch (RuntimeException putError) {
+					write.future.completeExceptionally(putError);
+				}
+			}
+		} finally {
+			batch.clear();
+			batched.clear();
+		}
+	}
+
+	private class Write {
+		final K key;
+		final V value;
+		final boolean remove;
+		final CompletableFuture<?> future;
+
+		Write(K key, V value, boolean remove, CompletableFuture<?> future) {
+			this.key = key;
+			this.value = value;
+			this.remove = remove;
+			this.future = future;
+		}
+
+		@SuppressWarnings("unchecked")
+		void complete(Object result) {
+			((CompletableFuture<Object>) future).complete(result);
+		}
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "pmemkv-async-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+/**
+ * Represents callback function, which handles a batch of key/value pairs at
+ * once. Such expression may be passed to get*Batched() methods in
+ * {@link io.pmem.pmemkv.Database Database} class.
+ *
+ * @param <KeyT>
+ *            the type of a key stored in the pmemkv database
+ * @param <ValueT>
+ *            the type of a value stored in the pmemkv database
+ */
+@FunctionalInterface
+public interface BatchCallback<KeyT, ValueT> {
+	/**
+	 * It's internally used as a middle layer to run callback function
+	 *
+	 * @param batch
+	 *            the records returned by pmemkv engine to the callback function. It
+	 *            is only valid until the callback returns.
+	 */
+	void process(RecordBatch<KeyT, ValueT> batch);
+
+}
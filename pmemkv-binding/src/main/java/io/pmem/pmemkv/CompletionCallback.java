@@ -0,0 +1,31 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+/**
+ * Represents callback function, which handles completion of a request run by
+ * {@link io.pmem.pmemkv.Database.RequestRing RequestRing}. Such expression may
+ * be passed to its poll() and await() methods.
+ *
+ * @param <ValueT>
+ *            the type of a value stored in the pmemkv database
+ */
+@FunctionalInterface
+public interface CompletionCallback<ValueT> {
+	/**
+	 * It's internally used as a middle layer to run callback function
+	 *
+	 * @param id
+	 *            id of the completed request, as returned when it was queued.
+	 * @param value
+	 *            value read by a get request; null for other requests, failed
+	 *            requests and gets of a missing key. It is only valid until the
+	 *            callback returns.
+	 * @param error
+	 *            exception (DatabaseException or derived class that matches
+	 *            pmemkv's status) if the request failed, null otherwise.
+	 */
+	void process(long id, ValueT value, DatabaseException error);
+
+}
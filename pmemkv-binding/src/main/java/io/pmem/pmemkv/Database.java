@@ -1,5 +1,5 @@
 // SPDX-License-Identifier: BSD-3-Clause
-/* Copyright 2017-2021, Intel Corporation */
+/* Copyright 2017-2022, Intel Corporation */
 
 package io.pmem.pmemkv;
 
@@ -8,8 +8,25 @@ import java.lang.IllegalArgumentException;
 import java.lang.NullPointerException;
 import java.lang.OutOfMemoryError;
 import java.nio.ByteBuffer;
-import java.nio.BufferOverflowException;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.pmem.pmemkv.DirectBufferPool.ThreadCache;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -23,6 +40,17 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * In most cases user needs to implement {@link io.pmem.pmemkv.Converter
  * Converter} interface, which provides functionality of converting between key
  * and value types, and ByteBuffer.
+ * <p>
+ * Scans with callbacks may be ended early: get*While() methods take callbacks,
+ * which return false to stop, and overloads taking a limit pass at most limit
+ * keys (or records) to the callback. The native scan is ended then - with no
+ * exception thrown and, on sorted engines, without reading the rest of the
+ * range.
+ * <p>
+ * Database may be used from virtual threads (Java 21+). Direct buffers cached
+ * by virtual threads are small. Scans with callbacks may be read in chunks on
+ * virtual threads, so the carrier thread is not pinned while callbacks run -
+ * see {@link Builder#setChunkedScansOnVirtualThreads(boolean)}.
  *
  * @see <a href= "https://github.com/pmem/pmemkv/">Pmemkv library
  *      description</a>
@@ -33,10 +61,35 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  *            the type of value stored in the pmemkv datastore.
  */
 public class Database<K, V> {
+	/**
+	 * Value returned by {@link #getInto(Object, ByteBuffer) getInto()}, when there
+	 * is no record with the given key.
+	 *
+	 * @since 1.3.0
+	 */
+	public static final int NOT_FOUND = Integer.MIN_VALUE;
+
 	Converter<K> keyConverter;
 	Converter<V> valueConverter;
+	/*
+	 * Converters, which encode directly into direct buffers (null if not supported)
+	 */
+	private final EncodingConverter<K> keyEncoder;
+	private final EncodingConverter<V> valueEncoder;
 	private int keyBufferSize;
 	private int valueBufferSize;
+	/* Direct buffers shared by all threads, also the source of threads' caches */
+	private final DirectBufferPool bufferPool;
+	/* Read by the JNI layer at the beginning of every scan */
+	private final boolean reuseCallbackBuffers;
+	/* Whether scans run on virtual threads may be read in chunks */
+	private final boolean chunkedScans;
+	/* Whether the engine supports ordered seeks (null until checked by a scan) */
+	private volatile Boolean sortedEngine = null;
+	/* Closed native read iterators, which may be reused (null if not pooled) */
+	private final ArrayBlockingQueue<Long> iteratorPool;
+	/* RequestRings, which are not closed yet - their workers use the engine */
+	private final Set<RequestRing> openRings = new HashSet<>();
 
 	/**
 	 * Binding for a pmemkv (read) iterator API. ReadIterator provides methods to
@@ -61,7 +114,15 @@ public class Database<K, V> {
 		 */
 		ReadIterator(long database_handle) {
 			db_ptr = database_handle;
-			it_ptr = iterator_new_read_iterator(db_ptr);
+			Long pooled = (iteratorPool != null ? iteratorPool.poll() : null);
+			it_ptr = (pooled != null ? pooled : iterator_new_read_iterator(db_ptr));
+		}
+
+		/* Remembers, if the iterator points to a record, after it was moved */
+		private boolean moved(boolean found) {
+			positioned = true;
+			atEnd = !found;
+			return found;
 		}
 
 		/**
@@ -80,8 +141,12 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean seek(K key) throws DatabaseException {
-			ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-			return iterator_seek(it_ptr, direct_key);
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return moved(iterator_seek(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
 
 		/**
@@ -100,8 +165,12 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean seekLower(K key) throws DatabaseException {
-			ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-			return iterator_seek_lower(it_ptr, direct_key);
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return moved(iterator_seek_lower(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
 
 		/**
@@ -121,8 +190,12 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean seekLowerEq(K key) throws DatabaseException {
-			ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-			return iterator_seek_lower_eq(it_ptr, direct_key);
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return moved(iterator_seek_lower_eq(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
 
 		/**
@@ -141,8 +214,12 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean seekHigher(K key) throws DatabaseException {
-			ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-			return iterator_seek_higher(it_ptr, direct_key);
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return moved(iterator_seek_higher(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
 
 		/**
@@ -162,8 +239,12 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean seekHigherEq(K key) throws DatabaseException {
-			ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-			return iterator_seek_higher_eq(it_ptr, direct_key);
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return moved(iterator_seek_higher_eq(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
 
 		/**
@@ -179,7 +260,7 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean seekToFirst() throws DatabaseException {
-			return iterator_seek_to_first(it_ptr);
+			return moved(iterator_seek_to_first(it_ptr));
 		}
 
 		/**
@@ -195,7 +276,7 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean seekToLast() throws DatabaseException {
-			return iterator_seek_to_last(it_ptr);
+			return moved(iterator_seek_to_last(it_ptr));
 		}
 
 		/**
@@ -214,10 +295,8 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public K key() throws DatabaseException, OutOfMemoryError {
-			ByteBuffer k;
-			try {
-				k = iterator_key(it_ptr);
-			} catch (NotFoundException kve) {
+			ByteBuffer k = iterator_key(it_ptr);
+			if (k == null) {
 				return null;
 			}
 			return keyConverter.fromByteBuffer(k);
@@ -239,10 +318,41 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public V value() throws DatabaseException, OutOfMemoryError {
-			ByteBuffer v;
-			try {
-				v = iterator_value(it_ptr);
-			} catch (NotFoundException kve) {
+			ByteBuffer v = iterator_value(it_ptr, 0, Long.MAX_VALUE);
+			if (v == null) {
+				return null;
+			}
+			return valueConverter.fromByteBuffer(v);
+		}
+
+		/**
+		 * Returns a part of the value of a record currently pointed by the iterator. It
+		 * is just a copy of this part - data cannot be written to the Database using
+		 * this method. Only the requested range is passed through the JNI layer. If the
+		 * range exceeds the value, it is trimmed to the value's end.
+		 * <p>
+		 * If the iterator is on an undefined position, calling this method is undefined
+		 * behaviour.
+		 *
+		 * @param pos
+		 *            offset in the value, at which the range begins.
+		 * @param n
+		 *            number of bytes in the range.
+		 * @return (part of the) value of type V
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if pos or n is negative.
+		 * @throws OutOfMemoryError
+		 *             Exception will be thrown when buffer cannot be allocated in DRAM.
+		 * @since 1.3.0
+		 */
+		public V value(long pos, long n) throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+			if (pos < 0 || n < 0) {
+				throw new IllegalArgumentException("Range position and length cannot be negative");
+			}
+			ByteBuffer v = iterator_value(it_ptr, pos, n);
+			if (v == null) {
 				return null;
 			}
 			return valueConverter.fromByteBuffer(v);
@@ -272,310 +382,3613 @@ public class Database<K, V> {
 		 * @since 1.2.0
 		 */
 		public boolean next() {
-			return iterator_next(it_ptr);
+			return moved(iterator_next(it_ptr));
 		}
 
 		/**
-		 * Releases underlying resources.
+		 * Changes iterator position to the previous record.
+		 * <p>
+		 * If the previous record exists, returns true, otherwise false is returned and
+		 * the iterator position is undefined.
+		 *
+		 * @return true if the iterator was moved on the previous record, false
+		 *         otherwise.
+		 * @throws NotSupportedException
+		 *             if the engine doesn't support backward iteration.
+		 * @since 1.3.0
+		 */
+		public boolean prev() throws NotSupportedException {
+			return moved(iterator_prev(it_ptr));
+		}
+
+		/* Seek methods taking already converted keys, used by RecordSpliterator */
+		boolean seekHigherEqBytes(byte[] key) throws DatabaseException {
+			ByteBuffer direct_key = getDirectKeyBuffer(ByteBuffer.wrap(key));
+			try {
+				return moved(iterator_seek_higher_eq(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
+		}
+
+		boolean seekHigherBytes(byte[] key) throws DatabaseException {
+			ByteBuffer direct_key = getDirectKeyBuffer(ByteBuffer.wrap(key));
+			try {
+				return moved(iterator_seek_higher(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
+		}
+
+		boolean seekLowerBytes(byte[] key) throws DatabaseException {
+			ByteBuffer direct_key = getDirectKeyBuffer(ByteBuffer.wrap(key));
+			try {
+				return moved(iterator_seek_lower(it_ptr, direct_key.position(), direct_key));
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
+		}
+
+		/* Returns a copy of the current key, not converted by the key converter */
+		byte[] keyBytes() throws DatabaseException {
+			ByteBuffer k = iterator_key(it_ptr);
+			if (k == null) {
+				return null;
+			}
+			byte[] bytes = new byte[k.remaining()];
+			k.get(bytes);
+			return bytes;
+		}
+
+		/**
+		 * Reads up to n records, starting from the record currently pointed by the
+		 * iterator, and moves the iterator past them. Records are packed into the given
+		 * buffer and passed to the callback at once, so reading a whole batch costs a
+		 * single JNI call. If the iterator was not moved yet, reading starts from the
+		 * first record.
+		 * <p>
+		 * If a single record doesn't fit into the buffer, it is passed alone, in a
+		 * temporary buffer.
+		 *
+		 * @param n
+		 *            maximal number of records in the batch.
+		 * @param batchBuffer
+		 *            writable, direct buffer, into which records are packed.
+		 * @param callback
+		 *            Function to be called for the batch of records.
+		 * @return number of records passed to the callback, 0 if there are no more
+		 *         records.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if n is not positive or batchBuffer is not a writable, direct
+		 *             buffer.
+		 * @since 1.3.0
+		 */
+		public int nextBatch(int n, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+				throws DatabaseException, IllegalArgumentException {
+			return readBatch(false, n, batchBuffer, null, callback);
+		}
+
+		/**
+		 * Reads up to n records, starting from the record currently pointed by the
+		 * iterator, and moves the iterator past them. It works as
+		 * {@link #nextBatch(int, ByteBuffer, BatchCallback) nextBatch()}, but records
+		 * are packed into a buffer cached by this thread.
+		 *
+		 * @param n
+		 *            maximal number of records in the batch.
+		 * @param callback
+		 *            Function to be called for the batch of records.
+		 * @return number of records passed to the callback, 0 if there are no more
+		 *         records.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if n is not positive.
+		 * @since 1.3.0
+		 */
+		public int nextBatch(int n, BatchCallback<K, V> callback) throws DatabaseException, IllegalArgumentException {
+			return readBatch(false, n, null, callback);
+		}
+
+		/**
+		 * Reads up to n records, starting from the record currently pointed by the
+		 * iterator, and moves the iterator backward, past them. Records are passed in
+		 * descending order of keys. It works as
+		 * {@link #nextBatch(int, ByteBuffer, BatchCallback) nextBatch()}, but if the
+		 * iterator was not moved yet, reading starts from the last record.
+		 *
+		 * @param n
+		 *            maximal number of records in the batch.
+		 * @param batchBuffer
+		 *            writable, direct buffer, into which records are packed.
+		 * @param callback
+		 *            Function to be called for the batch of records.
+		 * @return number of records passed to the callback, 0 if there are no more
+		 *         records.
+		 * @throws NotSupportedException
+		 *             if the engine doesn't support backward iteration.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if n is not positive or batchBuffer is not a writable, direct
+		 *             buffer.
+		 * @since 1.3.0
+		 */
+		public int prevBatch(int n, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+				throws DatabaseException, IllegalArgumentException {
+			return readBatch(true, n, batchBuffer, null, callback);
+		}
+
+		/**
+		 * Reads up to n records, starting from the record currently pointed by the
+		 * iterator, and moves the iterator backward, past them. It works as
+		 * {@link #prevBatch(int, ByteBuffer, BatchCallback) prevBatch()}, but records
+		 * are packed into a buffer cached by this thread.
+		 *
+		 * @param n
+		 *            maximal number of records in the batch.
+		 * @param callback
+		 *            Function to be called for the batch of records.
+		 * @return number of records passed to the callback, 0 if there are no more
+		 *         records.
+		 * @throws NotSupportedException
+		 *             if the engine doesn't support backward iteration.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if n is not positive.
+		 * @since 1.3.0
+		 */
+		public int prevBatch(int n, BatchCallback<K, V> callback) throws DatabaseException, IllegalArgumentException {
+			return readBatch(true, n, null, callback);
+		}
+
+		/* Reads a batch into a buffer cached by this thread */
+		int readBatch(boolean reverse, int n, byte[] bound, BatchCallback<K, V> callback) {
+			ThreadCache buffers = directBuffers.get();
+			ByteBuffer batchBuffer = buffers.acquireBatchBuffer();
+			try {
+				return readBatch(reverse, n, batchBuffer, bound, callback);
+			} finally {
+				buffers.releaseBatchBuffer(batchBuffer);
+			}
+		}
+
+		/*
+		 * Reads a batch forward or backward (if reverse is set). If bound is not null,
+		 * records past it - with keys greater than or equal to it, or (in reverse) less
+		 * than or equal to it - are cut off and the iterator is treated as being at the
+		 * end.
+		 */
+		private int readBatch(boolean reverse, int n, ByteBuffer batchBuffer, byte[] bound,
+				BatchCallback<K, V> callback) {
+			if (n <= 0) {
+				throw new IllegalArgumentException("Number of records must be > 0");
+			}
+			checkBatchBuffer(batchBuffer);
+			if (!positioned) {
+				moved(reverse ? iterator_seek_to_last(it_ptr) : iterator_seek_to_first(it_ptr));
+			}
+			if (atEnd) {
+				return 0;
+			}
+			ByteBuffer records = batchBuffer;
+			long result = (reverse ? iterator_prev_batch(it_ptr, n, records) : iterator_next_batch(it_ptr, n, records));
+			if (result < 0) {
+				records = ByteBuffer.allocateDirect((int) -result);
+				result = (reverse ? iterator_prev_batch(it_ptr, 1, records) : iterator_next_batch(it_ptr, 1, records));
+			}
+			int count = (int) (result & NEXT_BATCH_COUNT);
+			atEnd = (result & NEXT_BATCH_END) != 0;
+			if (count > 0) {
+				if (batch == null) {
+					batch = new RecordBatch<K, V>(Database.this);
+				}
+				batch.reset(count, records);
+				if (bound != null) {
+					int inRange = 0;
+					while (batch.next() && inRange(batch.keyBuffer(), bound, reverse)) {
+						inRange++;
+					}
+					if (inRange < count) {
+						count = inRange;
+						atEnd = true;
+					}
+					batch.reset(count, records);
+				}
+				if (count > 0) {
+					callback.process(batch);
+				}
+			}
+			return count;
+		}
+
+		private boolean inRange(ByteBuffer key, byte[] bound, boolean reverse) {
+			int diff = RecordSpliterator.compare(key, bound);
+			return reverse ? diff > 0 : diff < 0;
+		}
+
+		/**
+		 * Releases underlying resources. If the Database was built with an iterator
+		 * pool, the native iterator is returned to the pool, to be reused by the next
+		 * readIterator() call.
 		 *
 		 * @since 1.2.0
 		 */
 		public void close() {
+			if (it_ptr == 0) {
+				return;
+			}
+			if (iteratorPool != null) {
+				/* Shared with stop(), so the pool can't be drained before the offer */
+				synchronized (iteratorPool) {
+					if (!stopped && iteratorPool.offer(it_ptr)) {
+						it_ptr = 0;
+						return;
+					}
+				}
+			}
 			iterator_close(it_ptr);
 			it_ptr = 0;
 		}
 
 		private native long iterator_new_read_iterator(long database_handle);
-		private native boolean iterator_seek(long iterator_handle, ByteBuffer key);
-		private native boolean iterator_seek_lower(long iterator_handle, ByteBuffer key);
-		private native boolean iterator_seek_lower_eq(long iterator_handle, ByteBuffer key);
-		private native boolean iterator_seek_higher(long iterator_handle, ByteBuffer key);
-		private native boolean iterator_seek_higher_eq(long iterator_handle, ByteBuffer key);
+		private native boolean iterator_seek(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_lower(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_lower_eq(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_higher(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_higher_eq(long iterator_handle, int kb, ByteBuffer key);
 		private native boolean iterator_seek_to_first(long iterator_handle);
 		private native boolean iterator_seek_to_last(long iterator_handle);
 		private native boolean iterator_is_next(long iterator_handle);
 		private native boolean iterator_next(long iterator_handle);
 		private native boolean iterator_prev(long iterator_handle);
 		private native ByteBuffer iterator_key(long iterator_handle);
-		private native ByteBuffer iterator_value(long iterator_handle);
+		private native ByteBuffer iterator_value(long iterator_handle, long pos, long n);
+		private native long iterator_next_batch(long iterator_handle, int n, ByteBuffer buffer);
+		private native long iterator_prev_batch(long iterator_handle, int n, ByteBuffer buffer);
 		private native void iterator_close(long iterator_handle);
-		// iterator_write_range()
-		// iterator_read_range()
-		// private native void iterator_commit(long iterator_handle);
-		// private native void iterator_abort(long iterator_handle);
 
+		private boolean positioned = false;
+		private boolean atEnd = false;
+		private RecordBatch<K, V> batch;
 		private long it_ptr;
 		private final long db_ptr;
 	}
 
-	private class ThreadDirectBuffers {
-		public final static int KEY1_BUFFER = 0;
-		public final static int KEY2_BUFFER = 1;
-		public final static int VALUE_BUFFER = 2;
-
-		private final ArrayList<ByteBuffer> buffers = new ArrayList<>(3);
-
-		public ThreadDirectBuffers(int keySize, int valueSize) {
-			buffers.add(ByteBuffer.allocateDirect(keySize));
-			buffers.add(ByteBuffer.allocateDirect(keySize));
-			buffers.add(ByteBuffer.allocateDirect(valueSize));
+	/**
+	 * Binding for a pmemkv write iterator API. WriteIterator provides methods to
+	 * iterate over records in db and to modify values of records in place. A part
+	 * of the current record's value can be obtained with
+	 * {@link #writeRange(long, long) writeRange()}; changes made to it are applied
+	 * to the database on {@link #commit() commit()}. Neither the rest of the value
+	 * is copied, nor the whole record is rewritten. This object can only be created
+	 * using Database method: {@link io.pmem.pmemkv.Database#writeIterator()
+	 * writeIterator()} .
+	 * <p>
+	 * Holding simultaneously, in the same thread, more than one iterator is
+	 * undefined behavior.
+	 * <p>
+	 * After {@link #close() close()}, which may be called more than once, all other
+	 * methods throw IllegalStateException.
+	 * <p>
+	 * IMPORTANT: This is an EXPERIMENTAL feature and should not be used in
+	 * production code. For now, we don't guarantee stability of this API.
+	 */
+	public class WriteIterator implements AutoCloseable {
+		/**
+		 * Constructor for iterator class. Can be accessed only via Database API.
+		 *
+		 * @param database_handle
+		 *            handle to database pointer.
+		 * @since 1.3.0
+		 */
+		WriteIterator(long database_handle) {
+			db_ptr = database_handle;
+			it_ptr = iterator_new_write_iterator(db_ptr);
 		}
 
-		public ByteBuffer get(int number) {
-			return buffers.get(number);
+		/**
+		 * Changes iterator position to a record with the given key.
+		 * <p>
+		 * If the record is present and no errors occurred, returns true. If the record
+		 * does not exist, false is returned and the iterator position is undefined. It
+		 * internally aborts all uncommitted changes made to an element previously
+		 * pointed by the iterator.
+		 *
+		 * @param key
+		 *            key to seek.
+		 * @return true if success, false otherwise.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public boolean seek(K key) throws DatabaseException {
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return iterator_seek(handle(), direct_key.position(), direct_key);
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
-	}
 
-	/*
-	 * Every thread has its own preallocated direct ByteBuffers which are used
-	 * during most operations. Without that optimization, it would be necessary to
-	 * allocate a new direct ByteBuffers (that is a very costly operation) in case
-	 * of almost every operation. Sizes of this cached buffers can be set during
-	 * creating DB (setKeyBufferSize(int) and setValueBufferSize(int)).
-	 */
-	private ThreadLocal<ThreadDirectBuffers> directBuffers = new ThreadLocal<ThreadDirectBuffers>() {
-		@Override
-		public ThreadDirectBuffers initialValue() {
-			return new ThreadDirectBuffers(keyBufferSize, valueBufferSize);
+		/**
+		 * Changes iterator position to a record with a key lower than the given key.
+		 * <p>
+		 * If the record is present and no errors occurred, returns true. If the record
+		 * does not exist, false is returned and the iterator position is undefined. It
+		 * internally aborts all uncommitted changes made to an element previously
+		 * pointed by the iterator.
+		 *
+		 * @param key
+		 *            key to seek.
+		 * @return true if success, false otherwise.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public boolean seekLower(K key) throws DatabaseException {
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return iterator_seek_lower(handle(), direct_key.position(), direct_key);
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
-	};
 
-	private ByteBuffer getDirectBuffer(ByteBuffer buf, int number) {
-		if (buf.isDirect()) {
-			return buf;
+		/**
+		 * Changes iterator position to a record with a key equal to or lower than the
+		 * given key.
+		 * <p>
+		 * If the record is present and no errors occurred, returns true. If the record
+		 * does not exist, false is returned and the iterator position is undefined. It
+		 * internally aborts all uncommitted changes made to an element previously
+		 * pointed by the iterator.
+		 *
+		 * @param key
+		 *            key to seek.
+		 * @return true if success, false otherwise.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public boolean seekLowerEq(K key) throws DatabaseException {
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return iterator_seek_lower_eq(handle(), direct_key.position(), direct_key);
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
-		ByteBuffer directBuffer = directBuffers.get().get(number);
-		directBuffer.position(0);
-		try {
-			directBuffer.put(buf);
-		} catch (BufferOverflowException e) {
-			directBuffer = ByteBuffer.allocateDirect(buf.capacity());
-			directBuffer.put(buf);
+
+		/**
+		 * Changes iterator position to a record with a key higher than the given key.
+		 * <p>
+		 * If the record is present and no errors occurred, returns true. If the record
+		 * does not exist, false is returned and the iterator position is undefined. It
+		 * internally aborts all uncommitted changes made to an element previously
+		 * pointed by the iterator.
+		 *
+		 * @param key
+		 *            key to seek.
+		 * @return true if success, false otherwise.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public boolean seekHigher(K key) throws DatabaseException {
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return iterator_seek_higher(handle(), direct_key.position(), direct_key);
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
 		}
-		return directBuffer;
-	}
 
-	private ByteBuffer getDirectKeyBuffer(ByteBuffer buf, int number) {
-		assert number == ThreadDirectBuffers.KEY1_BUFFER || number == ThreadDirectBuffers.KEY2_BUFFER;
-		return getDirectBuffer(buf, number);
-	}
+		/**
+		 * Changes iterator position to a record with a key equal to or higher than the
+		 * given key.
+		 * <p>
+		 * If the record is present and no errors occurred, returns true. If the record
+		 * does not exist, false is returned and the iterator position is undefined. It
+		 * internally aborts all uncommitted changes made to an element previously
+		 * pointed by the iterator.
+		 *
+		 * @param key
+		 *            key to seek.
+		 * @return true if success, false otherwise.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public boolean seekHigherEq(K key) throws DatabaseException {
+			ByteBuffer direct_key = directKey(key);
+			try {
+				return iterator_seek_higher_eq(handle(), direct_key.position(), direct_key);
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
+		}
 
-	private ByteBuffer getDirectKeyBuffer(ByteBuffer buf) {
-		return getDirectBuffer(buf, ThreadDirectBuffers.KEY1_BUFFER);
-	}
+		/**
+		 * Changes iterator position to a first record.
+		 * <p>
+		 * If db isn't empty and no errors occurred, returns true. If db is empty, false
+		 * is returned and the iterator position is undefined. It internally aborts all
+		 * uncommitted changes made to an element previously pointed by the iterator.
+		 *
+		 * @return true if success, false otherwise.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public boolean seekToFirst() throws DatabaseException {
+			return iterator_seek_to_first(handle());
+		}
+
+		/**
+		 * Changes iterator position to a last record.
+		 * <p>
+		 * If db isn't empty and no errors occurred, returns true. If db is empty, false
+		 * is returned and the iterator position is undefined. It internally aborts all
+		 * uncommitted changes made to an element previously pointed by the iterator.
+		 *
+		 * @return true if success, false otherwise.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public boolean seekToLast() throws DatabaseException {
+			return iterator_seek_to_last(handle());
+		}
+
+		/**
+		 * Returns the entire key of a record currently pointed by the iterator. It is
+		 * just a copy of the current record - key cannot be updated in the Database
+		 * using this method.
+		 * <p>
+		 * If the iterator is on an undefined position, calling this method is undefined
+		 * behaviour.
+		 *
+		 * @return key of type K
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws OutOfMemoryError
+		 *             Exception will be thrown when buffer cannot be allocated in DRAM.
+		 * @since 1.3.0
+		 */
+		public K key() throws DatabaseException, OutOfMemoryError {
+			ByteBuffer k = iterator_key(handle());
+			if (k == null) {
+				return null;
+			}
+			return keyConverter.fromByteBuffer(k);
+		}
+
+		/**
+		 * Returns the entire value of a record currently pointed by the iterator. It is
+		 * just a copy of the current record - data cannot be written to the Database
+		 * using this method.
+		 * <p>
+		 * If the iterator is on an undefined position, calling this method is undefined
+		 * behaviour.
+		 *
+		 * @return value of type V
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws OutOfMemoryError
+		 *             Exception will be thrown when buffer cannot be allocated in DRAM.
+		 * @since 1.3.0
+		 */
+		public V value() throws DatabaseException, OutOfMemoryError {
+			ByteBuffer v = iterator_value(handle(), 0, Long.MAX_VALUE);
+			if (v == null) {
+				return null;
+			}
+			return valueConverter.fromByteBuffer(v);
+		}
+
+		/**
+		 * Returns a part of the value of a record currently pointed by the iterator. It
+		 * is just a copy of this part - data cannot be written to the Database using
+		 * this method. Only the requested range is passed through the JNI layer. If the
+		 * range exceeds the value, it is trimmed to the value's end.
+		 * <p>
+		 * If the iterator is on an undefined position, calling this method is undefined
+		 * behaviour.
+		 *
+		 * @param pos
+		 *            offset in the value, at which the range begins.
+		 * @param n
+		 *            number of bytes in the range.
+		 * @return (part of the) value of type V
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if pos or n is negative.
+		 * @throws OutOfMemoryError
+		 *             Exception will be thrown when buffer cannot be allocated in DRAM.
+		 * @since 1.3.0
+		 */
+		public V value(long pos, long n) throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+			if (pos < 0 || n < 0) {
+				throw new IllegalArgumentException("Range position and length cannot be negative");
+			}
+			ByteBuffer v = iterator_value(handle(), pos, n);
+			if (v == null) {
+				return null;
+			}
+			return valueConverter.fromByteBuffer(v);
+		}
+
+		/**
+		 * Checks if there is a next record available.
+		 * <p>
+		 * If true is returned, it is guaranteed that iterator.next() will return
+		 * status::OK, otherwise iterator is already on the last element and
+		 * iterator.next() will return false.
+		 *
+		 * @return true if there is a next record available, false otherwise.
+		 * @since 1.3.0
+		 */
+		public boolean isNext() {
+			return iterator_is_next(handle());
+		}
+
+		/**
+		 * Changes iterator position to the next record.
+		 * <p>
+		 * If the next record exists, returns true, otherwise false is returned and the
+		 * iterator position is undefined.
+		 *
+		 * @return true if the iterator was moved on the next record, false otherwise.
+		 * @since 1.3.0
+		 */
+		public boolean next() {
+			return iterator_next(handle());
+		}
+
+		/**
+		 * Changes iterator position to the previous record.
+		 * <p>
+		 * If the previous record exists, returns true, otherwise false is returned and
+		 * the iterator position is undefined.
+		 *
+		 * @return true if the iterator was moved on the previous record, false
+		 *         otherwise.
+		 * @throws NotSupportedException
+		 *             if the engine doesn't support backward iteration.
+		 * @since 1.3.0
+		 */
+		public boolean prev() throws NotSupportedException {
+			return iterator_prev(handle());
+		}
+
+		/**
+		 * Returns a writable view of a part of the value of a record currently pointed
+		 * by the iterator. The view initially holds the current data and changes made
+		 * to it are applied to the Database only on {@link #commit() commit()}. If the
+		 * requested range exceeds the value, it is trimmed to the value's end.
+		 * <p>
+		 * The returned buffer is valid until commit(), abort(), change of the iterator
+		 * position or close(). Using it afterwards is undefined behaviour.
+		 *
+		 * @param pos
+		 *            offset in the value, at which the range begins.
+		 * @param n
+		 *            number of bytes in the range.
+		 * @return direct buffer of (at most) n bytes.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if pos or n is negative.
+		 * @since 1.3.0
+		 */
+		public ByteBuffer writeRange(long pos, long n) throws DatabaseException, IllegalArgumentException {
+			if (pos < 0 || n < 0) {
+				throw new IllegalArgumentException("Range position and length cannot be negative");
+			}
+			return iterator_write_range(handle(), pos, n);
+		}
+
+		/**
+		 * Applies changes made to ranges obtained with {@link #writeRange(long, long)
+		 * writeRange()} to the Database.
+		 *
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @since 1.3.0
+		 */
+		public void commit() throws DatabaseException {
+			iterator_commit(handle());
+		}
+
+		/**
+		 * Discards changes made to ranges obtained with {@link #writeRange(long, long)
+		 * writeRange()}, which were not committed.
+		 *
+		 * @since 1.3.0
+		 */
+		public void abort() {
+			iterator_abort(handle());
+		}
+
+		/**
+		 * Releases underlying resources.
+		 *
+		 * @since 1.3.0
+		 */
+		public void close() {
+			if (it_ptr != 0) {
+				iterator_close(it_ptr);
+				it_ptr = 0;
+			}
+		}
+
+		/* Returns handle of the native iterator, checking it's not closed */
+		private long handle() throws IllegalStateException {
+			if (it_ptr == 0) {
+				throw new IllegalStateException("Iterator is closed");
+			}
+			return it_ptr;
+		}
+
+		private native long iterator_new_write_iterator(long database_handle);
+		private native boolean iterator_seek(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_lower(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_lower_eq(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_higher(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_higher_eq(long iterator_handle, int kb, ByteBuffer key);
+		private native boolean iterator_seek_to_first(long iterator_handle);
+		private native boolean iterator_seek_to_last(long iterator_handle);
+		private native boolean iterator_is_next(long iterator_handle);
+		private native boolean iterator_next(long iterator_handle);
+		private native boolean iterator_prev(long iterator_handle);
+		private native ByteBuffer iterator_key(long iterator_handle);
+		private native ByteBuffer iterator_value(long iterator_handle, long pos, long n);
+		private native ByteBuffer iterator_write_range(long iterator_handle, long pos, long n);
+		private native void iterator_commit(long iterator_handle);
+		private native void iterator_abort(long iterator_handle);
+		private native void iterator_close(long iterator_handle);
+
+		private long it_ptr;
+		private final long db_ptr;
+	}
+
+	/**
+	 * WriteBatch collects puts and removes, which are later applied to the Database
+	 * at once, in a single native call, using
+	 * {@link io.pmem.pmemkv.Database#write(Database.WriteBatch) write()} method.
+	 * Operations are stored (already converted) in a growable, direct buffer. This
+	 * object can only be created using Database method:
+	 * {@link io.pmem.pmemkv.Database#writeBatch() writeBatch()} .
+	 * <p>
+	 * WriteBatch is not thread-safe, but it may be reused after {@link #clear()
+	 * clear()}.
+	 */
+	public class WriteBatch {
+		private static final int INITIAL_CAPACITY = 4096;
+		/* Maximal size of a direct buffer, which can be allocated */
+		private static final long MAX_BATCH_CAPACITY = Integer.MAX_VALUE;
+
+		private ByteBuffer buffer;
+		private int size = 0;
+
+		/**
+		 * Constructor for write batch class. Can be accessed only via Database API.
+		 *
+		 * @since 1.3.0
+		 */
+		WriteBatch() {
+			buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY).order(ByteOrder.nativeOrder());
+		}
+
+		/*
+		 * Makes sure there is at least required bytes of free space in the buffer.
+		 * Sizes are computed as long, so a too large batch is detected before
+		 * allocation.
+		 */
+		private void reserve(long required) throws IllegalArgumentException {
+			if (buffer.remaining() >= required) {
+				return;
+			}
+			long needed = buffer.position() + required;
+			if (needed > MAX_BATCH_CAPACITY) {
+				throw new IllegalArgumentException("Write batch would exceed " + MAX_BATCH_CAPACITY + " bytes");
+			}
+			long capacity = buffer.capacity();
+			while (capacity < needed) {
+				capacity *= 2;
+			}
+			ByteBuffer newBuffer = ByteBuffer.allocateDirect((int) Math.min(capacity, MAX_BATCH_CAPACITY))
+					.order(ByteOrder.nativeOrder());
+			buffer.flip();
+			newBuffer.put(buffer);
+			buffer = newBuffer;
+		}
+
+		/* Appends length of the entry and the entry, encoded directly if possible */
+		private <T> void append(Converter<T> converter, EncodingConverter<T> encoder, T entry) {
+			if (encoder != null) {
+				int length = encoder.encodedSize(entry);
+				reserve((long) Integer.BYTES + length);
+				buffer.putInt(length);
+				encode(encoder, entry, length, buffer);
+				return;
+			}
+			ByteBuffer content = bufferContent(converter.toByteBuffer(entry));
+			reserve((long) Integer.BYTES + content.remaining());
+			buffer.putInt(content.remaining());
+			buffer.put(content);
+		}
+
+		/**
+		 * Adds insertion of a key/value pair to this batch. If the record with selected
+		 * key already exists, its value will be replaced, when the batch is written.
+		 *
+		 * @param key
+		 *            the key.
+		 * @param value
+		 *            data to be inserted for the specified key.
+		 * @return this write batch object.
+		 * @throws IllegalArgumentException
+		 *             if the batch would exceed maximal size of a direct buffer (2
+		 *             GiB). The batch is left unchanged then.
+		 * @since 1.3.0
+		 */
+		public WriteBatch put(K key, V value) throws IllegalArgumentException {
+			int start = buffer.position();
+			try {
+				reserve(1);
+				buffer.put(WRITE_PUT);
+				append(keyConverter, keyEncoder, key);
+				append(valueConverter, valueEncoder, value);
+			} catch (RuntimeException e) {
+				buffer.position(start);
+				throw e;
+			}
+			size++;
+			return this;
+		}
+
+		/**
+		 * Adds removal of a key/value pair to this batch. Removal of a key, which
+		 * doesn't exist, is not an error.
+		 *
+		 * @param key
+		 *            key to be removed.
+		 * @return this write batch object.
+		 * @throws IllegalArgumentException
+		 *             if the batch would exceed maximal size of a direct buffer (2
+		 *             GiB). The batch is left unchanged then.
+		 * @since 1.3.0
+		 */
+		public WriteBatch remove(K key) throws IllegalArgumentException {
+			int start = buffer.position();
+			try {
+				reserve(1);
+				buffer.put(WRITE_REMOVE);
+				append(keyConverter, keyEncoder, key);
+			} catch (RuntimeException e) {
+				buffer.position(start);
+				throw e;
+			}
+			size++;
+			return this;
+		}
+
+		/**
+		 * Returns number of operations in this batch.
+		 *
+		 * @return number of operations.
+		 * @since 1.3.0
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Removes all operations from this batch. Already allocated buffer is kept.
+		 *
+		 * @since 1.3.0
+		 */
+		public void clear() {
+			buffer.clear();
+			size = 0;
+		}
+
+		private Database<K, V> database() {
+			return Database.this;
+		}
+	}
+
+	/**
+	 * Binding for a pmemkv transaction API. Transaction groups puts and removes,
+	 * which become visible in the Database atomically, on {@link #commit()
+	 * commit()}. Grouping many updates in one transaction lets the engine persist
+	 * them with fewer flushes than separate puts. This object can only be created
+	 * using Database method: {@link io.pmem.pmemkv.Database#transaction()
+	 * transaction()} .
+	 * <p>
+	 * Changes made in a transaction are not visible (also to the transaction
+	 * itself) until committed. After commit() or abort() the transaction is empty
+	 * and may be used again. Uncommitted changes are discarded on {@link #close()
+	 * close()}.
+	 * <p>
+	 * Transactions are supported only by some engines (e.g. radix). Transaction is
+	 * not thread-safe.
+	 */
+	public class Transaction implements AutoCloseable {
+		/**
+		 * Constructor for transaction class. Can be accessed only via Database API.
+		 *
+		 * @param database_handle
+		 *            handle to database pointer.
+		 * @since 1.3.0
+		 */
+		Transaction(long database_handle) {
+			tx_ptr = transaction_begin(database_handle);
+		}
+
+		/**
+		 * Adds insertion of a key/value pair to this transaction. If the record with
+		 * selected key already exists, its value will be replaced on commit.
+		 *
+		 * @param key
+		 *            the key.
+		 * @param value
+		 *            data to be inserted for the specified key.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalStateException
+		 *             if the transaction is closed.
+		 * @since 1.3.0
+		 */
+		public void put(K key, V value) throws DatabaseException, IllegalStateException {
+			long tx = handle();
+			ByteBuffer direct_key = directKey(key);
+			try {
+				ByteBuffer value_buffer = convertValue(value);
+				ByteBuffer direct_value = getDirectValueBuffer(value_buffer, value);
+				try {
+					transaction_put(tx, direct_key.position(), direct_key, direct_value.position(), direct_value);
+				} finally {
+					releaseDirectValueBuffer(value_buffer, direct_value);
+				}
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
+		}
+
+		/**
+		 * Adds removal of a key/value pair to this transaction. Removal of a key, which
+		 * doesn't exist, is not an error.
+		 *
+		 * @param key
+		 *            key to be removed.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalStateException
+		 *             if the transaction is closed.
+		 * @since 1.3.0
+		 */
+		public void remove(K key) throws DatabaseException, IllegalStateException {
+			long tx = handle();
+			ByteBuffer direct_key = directKey(key);
+			try {
+				transaction_remove(tx, direct_key.position(), direct_key);
+			} finally {
+				releaseDirectKeyBuffer(direct_key);
+			}
+		}
+
+		/**
+		 * Adds all operations collected in the given WriteBatch to this transaction,
+		 * using a single native call.
+		 *
+		 * @param batch
+		 *            batch of operations created by the same Database.
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalArgumentException
+		 *             if batch was created by other Database.
+		 * @throws IllegalStateException
+		 *             if the transaction is closed.
+		 * @since 1.3.0
+		 */
+		public void write(WriteBatch batch) throws DatabaseException, IllegalArgumentException, IllegalStateException {
+			if (batch.database() != Database.this) {
+				throw new IllegalArgumentException("WriteBatch was created by other Database");
+			}
+			transaction_write(handle(), batch.buffer, batch.buffer.position());
+		}
+
+		/**
+		 * Atomically applies all operations added to this transaction.
+		 *
+		 * @throws DatabaseException
+		 *             or derived class that matches pmemkv's status.
+		 * @throws IllegalStateException
+		 *             if the transaction is closed.
+		 * @since 1.3.0
+		 */
+		public void commit() throws DatabaseException, IllegalStateException {
+			transaction_commit(handle());
+		}
+
+		/**
+		 * Discards all operations added to this transaction since the last commit.
+		 *
+		 * @throws IllegalStateException
+		 *             if the transaction is closed.
+		 * @since 1.3.0
+		 */
+		public void abort() throws IllegalStateException {
+			transaction_abort(handle());
+		}
+
+		/* Returns handle of the native transaction, checking it's not closed */
+		private long handle() throws IllegalStateException {
+			if (tx_ptr == 0) {
+				throw new IllegalStateException("Transaction is closed");
+			}
+			return tx_ptr;
+		}
+
+		/**
+		 * Discards uncommitted operations and releases underlying resources. Calling it
+		 * again has no effect.
+		 *
+		 * @since 1.3.0
+		 */
+		public void close() {
+			if (tx_ptr != 0) {
+				transaction_close(tx_ptr);
+				tx_ptr = 0;
+			}
+		}
+
+		private native long transaction_begin(long database_handle);
+		private native void transaction_put(long tx_handle, int kb, ByteBuffer k, int vb, ByteBuffer v);
+		private native void transaction_remove(long tx_handle, int kb, ByteBuffer k);
+		private native void transaction_write(long tx_handle, ByteBuffer batch, int length);
+		private native void transaction_commit(long tx_handle);
+		private native void transaction_abort(long tx_handle);
+		private native void transaction_close(long tx_handle);
+
+		private long tx_ptr;
+	}
+
+	/**
+	 * Pipeline of requests (puts, gets and removes), which are run by native worker
+	 * threads. Requests are packed into a direct submission buffer, without any
+	 * native call, and passed to the workers all at once by {@link #submit()
+	 * submit()}. Results are collected in a native completion queue and taken from
+	 * it by {@link #poll(CompletionCallback) poll()} or
+	 * {@link #await(long, CompletionCallback) await()}, also in batches. This
+	 * object can only be created using Database method:
+	 * {@link io.pmem.pmemkv.Database#requestRing(int) requestRing()} .
+	 * <p>
+	 * Requests of a single submission are run in order, by one worker. Separate
+	 * submissions may be run concurrently by different workers, so if there is more
+	 * than one worker, requests of different submissions are not ordered.
+	 * <p>
+	 * RequestRing is not thread-safe, each producer thread should use its own ring.
+	 * Rings, which are still open, are closed by {@link Database#stop() stop()},
+	 * before the engine is closed - so it mustn't be called while the rings are in
+	 * use. After {@link #close() close()}, which may be called more than once, all
+	 * other methods throw IllegalStateException.
+	 */
+	public class RequestRing implements AutoCloseable {
+		private static final int INITIAL_CAPACITY = 65536;
+
+		private ByteBuffer submissions;
+		private ByteBuffer completions;
+		private long nextId = 0;
+		private int queued = 0;
+		private long inFlight = 0;
+
+		/**
+		 * Constructor for request ring class. Can be accessed only via Database API.
+		 *
+		 * @param workers
+		 *            number of native worker threads.
+		 * @since 1.3.0
+		 */
+		RequestRing(int workers) {
+			if (workers <= 0) {
+				throw new IllegalArgumentException("Number of workers must be > 0");
+			}
+			submissions = ByteBuffer.allocateDirect(INITIAL_CAPACITY).order(ByteOrder.nativeOrder());
+			completions = ByteBuffer.allocateDirect(INITIAL_CAPACITY).order(ByteOrder.nativeOrder());
+			completions.limit(0);
+			synchronized (openRings) {
+				if (stopped) {
+					throw new IllegalStateException("Database is stopped");
+				}
+				ring_ptr = ring_new(pointer, workers);
+				openRings.add(this);
+			}
+		}
+
+		/**
+		 * Queues insertion of a key/value pair. It's passed to the workers on the next
+		 * {@link #submit() submit()} (or earlier, if the submission buffer is full).
+		 *
+		 * @param key
+		 *            the key.
+		 * @param value
+		 *            data to be inserted for the specified key.
+		 * @return id of the request, passed to its completion callback.
+		 * @since 1.3.0
+		 */
+		public long put(K key, V value) {
+			return queue(WRITE_PUT, key, value);
+		}
+
+		/**
+		 * Queues read of the value for a key. The value (or null, if the key is not
+		 * found) is passed to the completion callback.
+		 *
+		 * @param key
+		 *            key to query for.
+		 * @return id of the request, passed to its completion callback.
+		 * @since 1.3.0
+		 */
+		public long get(K key) {
+			return queue(RING_GET, key, null);
+		}
+
+		/**
+		 * Queues removal of a key/value pair. Removal of a key, which doesn't exist, is
+		 * not an error.
+		 *
+		 * @param key
+		 *            key to be removed.
+		 * @return id of the request, passed to its completion callback.
+		 * @since 1.3.0
+		 */
+		public long remove(K key) {
+			return queue(WRITE_REMOVE, key, null);
+		}
+
+		/**
+		 * Passes all queued requests to the workers, in a single native call.
+		 * <p>
+		 * Requests are also submitted, without calling this method, whenever the
+		 * submission buffer fills up - so the returned number counts only requests
+		 * queued since then. Use {@link #inFlight() inFlight()} to get the number of
+		 * all requests waiting for completion.
+		 *
+		 * @return number of requests submitted by this call.
+		 * @throws IllegalStateException
+		 *             if the ring is closed.
+		 * @since 1.3.0
+		 */
+		public int submit() throws IllegalStateException {
+			long ring = handle();
+			int count = queued;
+			if (count > 0) {
+				ring_submit(ring, submissions, submissions.position());
+				submissions.clear();
+				queued = 0;
+				inFlight += count;
+			}
+			return count;
+		}
+
+		/**
+		 * Returns number of submitted requests, which completions were not passed to a
+		 * callback yet.
+		 *
+		 * @return number of requests in flight.
+		 * @since 1.3.0
+		 */
+		public long inFlight() {
+			return inFlight;
+		}
+
+		/**
+		 * Runs the callback for all available completions, without waiting.
+		 *
+		 * @param callback
+		 *            function to be called for each completed request.
+		 * @return number of handled completions.
+		 * @since 1.3.0
+		 */
+		public int poll(CompletionCallback<V> callback) {
+			return complete(0, callback);
+		}
+
+		/**
+		 * Waits until at least one completion is available (or the timeout elapses) and
+		 * runs the callback for all available completions.
+		 *
+		 * @param timeoutMillis
+		 *            maximum time to wait, in milliseconds.
+		 * @param callback
+		 *            function to be called for each completed request.
+		 * @return number of handled completions, 0 on timeout.
+		 * @throws IllegalArgumentException
+		 *             if timeoutMillis is not positive.
+		 * @since 1.3.0
+		 */
+		public int await(long timeoutMillis, CompletionCallback<V> callback) throws IllegalArgumentException {
+			if (timeoutMillis <= 0) {
+				throw new IllegalArgumentException("Timeout must be > 0");
+			}
+			return complete(timeoutMillis, callback);
+		}
+
+		/**
+		 * Submits queued requests and stops the workers, after they run all submitted
+		 * requests. Completions, which were not taken yet, are discarded.
+		 *
+		 * @since 1.3.0
+		 */
+		public void close() {
+			if (ring_ptr != 0) {
+				submit();
+				shutdown();
+			}
+		}
+
+		/*
+		 * Stops the workers, after they run all submitted requests. Called by close()
+		 * and by Database.stop(), for rings left open.
+		 */
+		private void shutdown() {
+			synchronized (openRings) {
+				if (ring_ptr != 0) {
+					ring_close(ring_ptr);
+					ring_ptr = 0;
+					openRings.remove(this);
+				}
+			}
+		}
+
+		/* Returns handle of the native ring, checking it's not closed */
+		private long handle() throws IllegalStateException {
+			if (ring_ptr == 0) {
+				throw new IllegalStateException("RequestRing is closed");
+			}
+			return ring_ptr;
+		}
+
+		/*
+		 * Appends the request to the submission buffer. Keys and values of converters
+		 * implementing EncodingConverter are encoded directly into it, other ones are
+		 * converted and copied.
+		 */
+		private long queue(byte op, K key, V value) {
+			handle();
+			ByteBuffer k = (keyEncoder == null ? bufferContent(keyConverter.toByteBuffer(key)) : null);
+			int keySize = (k != null ? k.remaining() : keyEncoder.encodedSize(key));
+			int size = 1 + Long.BYTES + Integer.BYTES + keySize;
+			ByteBuffer v = null;
+			int valueSize = 0;
+			if (op == WRITE_PUT) {
+				v = (valueEncoder == null ? bufferContent(valueConverter.toByteBuffer(value)) : null);
+				valueSize = (v != null ? v.remaining() : valueEncoder.encodedSize(value));
+				size += Integer.BYTES + valueSize;
+			}
+			if (submissions.remaining() < size) {
+				submit();
+				if (submissions.capacity() < size) {
+					submissions = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+				}
+			}
+			int start = submissions.position();
+			try {
+				submissions.put(op);
+				submissions.putLong(nextId);
+				submissions.putInt(keySize);
+				append(k, keyEncoder, key, keySize);
+				if (op == WRITE_PUT) {
+					submissions.putInt(valueSize);
+					append(v, valueEncoder, value, valueSize);
+				}
+			} catch (RuntimeException e) {
+				submissions.position(start);
+				throw e;
+			}
+			queued++;
+			return nextId++;
+		}
+
+		/* Appends the converted content, or encodes the entry if there is none */
+		private <T> void append(ByteBuffer content, EncodingConverter<T> encoder, T entry, int size) {
+			if (content != null) {
+				submissions.put(content);
+			} else {
+				encode(encoder, entry, size, submissions);
+			}
+		}
+
+		/*
+		 * Completions taken from the native queue are kept in the buffer until passed
+		 * to the callback, so none is lost if the callback throws.
+		 */
+		private int complete(long timeoutMillis, CompletionCallback<V> callback) {
+			long ring = handle();
+			if (!completions.hasRemaining()) {
+				int length = ring_poll(ring, completions, completions.capacity(), timeoutMillis);
+				if (length < 0) {
+					int capacity = Math.max(-length, 2 * completions.capacity());
+					completions = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+					length = ring_poll(ring, completions, capacity, 0);
+				}
+				completions.clear();
+				completions.limit(length);
+			}
+			int count = 0;
+			while (completions.hasRemaining()) {
+				long id = completions.getLong();
+				byte op = completions.get();
+				int status = completions.getInt();
+				int size = completions.getInt();
+				int limit = completions.limit();
+				completions.limit(completions.position() + size);
+				/* Slice's capacity is the data size, as converters may expect */
+				ByteBuffer data = completions.slice();
+				completions.limit(limit);
+				completions.position(completions.position() + size);
+				count++;
+				inFlight--;
+
+				V value = null;
+				DatabaseException error = null;
+				if (status == STATUS_OK && op == RING_GET) {
+					value = valueConverter.fromByteBuffer(data);
+				} else if (status != STATUS_OK && status != STATUS_NOT_FOUND) {
+					byte[] message = new byte[size];
+					data.get(message);
+					error = statusException(status, new String(message, UTF_8));
+				}
+				callback.process(id, value, error);
+			}
+			return count;
+		}
+
+		private native long ring_new(long database_handle, int workers);
+		private native void ring_submit(long ring_handle, ByteBuffer requests, int length);
+		private native int ring_poll(long ring_handle, ByteBuffer completions, int capacity, long timeout);
+		private native void ring_close(long ring_handle);
+
+		private long ring_ptr;
+	}
+
+	/* Operations stored in WriteBatch (as defined in JNI layer) */
+	private static final byte WRITE_PUT = 1;
+	private static final byte WRITE_REMOVE = 2;
+	/* Read request of RequestRing (as defined in JNI layer) */
+	private static final byte RING_GET = 3;
+
+	/* pmemkv statuses (as defined in libpmemkv.h) */
+	private static final int STATUS_OK = 0;
+	private static final int STATUS_NOT_FOUND = 2;
+	private static final int STATUS_NOT_SUPPORTED = 3;
+	private static final int STATUS_INVALID_ARGUMENT = 4;
+	private static final int STATUS_CONFIG_PARSING_ERROR = 5;
+	private static final int STATUS_CONFIG_TYPE_ERROR = 6;
+	private static final int STATUS_STOPPED_BY_CB = 7;
+	private static final int STATUS_OUT_OF_MEMORY = 8;
+	private static final int STATUS_WRONG_ENGINE_NAME = 9;
+	private static final int STATUS_TRANSACTION_SCOPE_ERROR = 10;
+
+	/* Parts of value returned by iterator_next_batch() (as defined in JNI layer) */
+	private static final long NEXT_BATCH_COUNT = 0xFFFFFFFFL;
+	private static final long NEXT_BATCH_END = 1L << 32;
+
+	/*
+	 * Every thread has its own cache of direct ByteBuffers, which are used during
+	 * most operations. Without that optimization, it would be necessary to allocate
+	 * a new direct ByteBuffers (that is a very costly operation) in case of almost
+	 * every operation. Cached buffers are allocated lazily, from the pool shared by
+	 * all threads, and sized to the keys and values actually used by the thread -
+	 * up to the limits set during creating DB (setKeyBufferSize(int) and
+	 * setValueBufferSize(int)).
+	 */
+	private final ThreadLocal<ThreadCache> directBuffers = new ThreadLocal<ThreadCache>() {
+		@Override
+		public ThreadCache initialValue() {
+			return bufferPool.newThreadCache(keyBufferSize, valueBufferSize);
+		}
+	};
+
+	private ByteBuffer getDirectBuffer(ByteBuffer buf, int number) {
+		if (buf.isDirect()) {
+			return buf;
+		}
+		ByteBuffer directBuffer = directBuffers.get().get(number, buf.remaining());
+		directBuffer.clear();
+		directBuffer.put(buf);
+		return directBuffer;
+	}
+
+	private ByteBuffer getDirectKeyBuffer(ByteBuffer buf, int number) {
+		assert number == ThreadCache.KEY1_BUFFER || number == ThreadCache.KEY2_BUFFER;
+		return getDirectBuffer(buf, number);
+	}
+
+	private ByteBuffer getDirectKeyBuffer(ByteBuffer buf) {
+		return getDirectBuffer(buf, ThreadCache.KEY1_BUFFER);
+	}
+
+	/*
+	 * Returns direct buffer (of the given thread's slot) with the converted key.
+	 * Key converters implementing EncodingConverter encode the key directly into
+	 * it, without an intermediate buffer.
+	 */
+	private ByteBuffer directKey(K key, int number) {
+		if (keyEncoder == null) {
+			return getDirectKeyBuffer(keyConverter.toByteBuffer(key), number);
+		}
+		int size = keyEncoder.encodedSize(key);
+		ByteBuffer directBuffer = directBuffers.get().get(number, size);
+		directBuffer.clear();
+		try {
+			encode(keyEncoder, key, size, directBuffer);
+		} catch (RuntimeException e) {
+			releaseDirectKeyBuffer(directBuffer);
+			throw e;
+		}
+		return directBuffer;
+	}
+
+	private ByteBuffer directKey(K key) {
+		return directKey(key, ThreadCache.KEY1_BUFFER);
+	}
+
+	/*
+	 * Releases key buffer returned by directKey() or getDirectKeyBuffer(), when the
+	 * call completes. Keys bigger than the thread's cached buffer are written into
+	 * a buffer taken from the shared pool, which is returned to it.
+	 */
+	private void releaseDirectKeyBuffer(ByteBuffer directBuffer) {
+		directBuffers.get().release(directBuffer);
+	}
+
+	/*
+	 * Returns value converted to a ByteBuffer, or null if it's encoded by
+	 * getDirectValueBuffer()
+	 */
+	private ByteBuffer convertValue(V value) {
+		return (valueEncoder == null ? valueConverter.toByteBuffer(value) : null);
+	}
+
+	/*
+	 * Returns direct buffer with the value (converted by convertValue(), or encoded
+	 * directly if buf is null), which has to be passed to
+	 * releaseDirectValueBuffer() when the call completes. Values bigger than the
+	 * thread's cached buffer are written into a buffer taken from the shared pool.
+	 */
+	private ByteBuffer getDirectValueBuffer(ByteBuffer buf, V value) {
+		if (buf != null && buf.isDirect()) {
+			return buf;
+		}
+		int size = (buf != null ? buf.remaining() : valueEncoder.encodedSize(value));
+		ByteBuffer directBuffer = directBuffers.get().get(ThreadCache.VALUE_BUFFER, size);
+		directBuffer.clear();
+		try {
+			if (buf != null) {
+				directBuffer.put(buf);
+			} else {
+				encode(valueEncoder, value, size, directBuffer);
+			}
+		} catch (RuntimeException e) {
+			releaseDirectValueBuffer(buf, directBuffer);
+			throw e;
+		}
+		return directBuffer;
+	}
+
+	private void releaseDirectValueBuffer(ByteBuffer buf, ByteBuffer directBuffer) {
+		if (directBuffer != buf) {
+			directBuffers.get().release(directBuffer);
+		}
+	}
+
+	/*
+	 * Encodes the entry at the buffer's position, checking that the encoder wrote
+	 * exactly the number of bytes it declared.
+	 */
+	private static <T> void encode(EncodingConverter<T> encoder, T entry, int size, ByteBuffer buf) {
+		int start = buf.position();
+		encoder.encodeInto(entry, buf);
+		if (buf.position() - start != size) {
+			throw new IllegalStateException("EncodingConverter wrote " + (buf.position() - start)
+					+ " bytes, while its encodedSize() is " + size);
+		}
+	}
+
+	/* Creates exception for pmemkv's status, as the JNI layer throws */
+	private static DatabaseException statusException(int status, String message) {
+		switch (status) {
+			case STATUS_NOT_FOUND :
+				return new NotFoundException(message);
+			case STATUS_NOT_SUPPORTED :
+				return new NotSupportedException(message);
+			case STATUS_INVALID_ARGUMENT :
+				return new InvalidArgumentException(message);
+			case STATUS_CONFIG_PARSING_ERROR :
+			case STATUS_CONFIG_TYPE_ERROR :
+				return new BuilderException(message);
+			case STATUS_STOPPED_BY_CB :
+				return new StoppedByCallbackException(message);
+			case STATUS_OUT_OF_MEMORY :
+				return new OutOfMemoryException(message);
+			case STATUS_WRONG_ENGINE_NAME :
+				return new WrongEngineNameException(message);
+			case STATUS_TRANSACTION_SCOPE_ERROR :
+				return new TransactionScopeException(message);
+			default :
+				return new DatabaseException(message);
+		}
+	}
+
+	/*
+	 * Returns content of the given buffer, as it would be passed to the native
+	 * layer by getDirectBuffer() - content of a direct buffer ends at its position,
+	 * while content of a heap buffer is between its position and limit.
+	 */
+	private static ByteBuffer bufferContent(ByteBuffer buf) {
+		if (buf.isDirect()) {
+			ByteBuffer bytes = buf.duplicate();
+			bytes.flip();
+			return bytes;
+		}
+		return buf;
+	}
+
+	/*
+	 * Packs keys into a heap buffer, each one preceded with its length (4 bytes in
+	 * native byte order), as expected by database_get_multi().
+	 */
+	private ByteBuffer packKeys(Collection<K> keys) {
+		ArrayList<ByteBuffer> converted = new ArrayList<>(keys.size());
+		int size = 0;
+		for (K key : keys) {
+			ByteBuffer bytes = bufferContent(keyConverter.toByteBuffer(key));
+			size += Integer.BYTES + bytes.remaining();
+			converted.add(bytes);
+		}
+		ByteBuffer packed = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+		for (ByteBuffer bytes : converted) {
+			packed.putInt(bytes.remaining());
+			packed.put(bytes);
+		}
+		return packed;
+	}
+
+	/*
+	 * These callback wrappers optimize invoking callbacks from the JNI layer. If we
+	 * want to call a java method from the JNI, we have to know its ID. Getting this
+	 * ID for every callback is a costly operation so with these static wrappers we
+	 * only need to get ID once and later we only call these static methods with a
+	 * real callback as a parameter which will be invoked inside of these methods.
+	 */
+	private static <Key, Value> void valueCallbackWrapper(Database<Key, Value> db, ValueCallback<Value> callback, int s,
+			ByteBuffer b) {
+		b.rewind().limit(s);
+		callback.process(db.valueConverter.fromByteBuffer(b));
+	}
+
+	/* Scan wrappers return false, if the scan should be stopped */
+	private static <Key, Value> boolean keyCallbackWrapper(Database<Key, Value> db,
+			StoppableKeyCallback<Key> callback, int s, ByteBuffer b) {
+		b.rewind().limit(s);
+		return callback.process(db.keyConverter.fromByteBuffer(b));
+	}
+
+	private static <Key, Value> boolean keyValueCallbackWrapper(Database<Key, Value> db,
+			StoppableKeyValueCallback<Key, Value> callback, int kb, ByteBuffer k, int vb, ByteBuffer v) {
+		k.rewind().limit(kb);
+		Key processed_key = db.keyConverter.fromByteBuffer(k);
+		v.rewind().limit(vb);
+		Value processed_value = db.valueConverter.fromByteBuffer(v);
+		return callback.process(processed_key, processed_value);
+	}
+
+	/* Values of view scans are passed as buffers, converted only on demand */
+	private static <Key, Value> boolean viewCallbackWrapper(Database<Key, Value> db, ViewCallback<Key, Value> callback,
+			int kb, ByteBuffer k, int vb, ByteBuffer v) {
+		k.rewind().limit(kb);
+		Key processed_key = db.keyConverter.fromByteBuffer(k);
+		v.rewind().limit(vb);
+		return callback.process(processed_key, v);
+	}
+
+	private static <Key, Value> void batchCallbackWrapper(BatchCallback<Key, Value> callback,
+			RecordBatch<Key, Value> batch, int count, ByteBuffer b) {
+		batch.reset(count, b);
+		callback.process(batch);
+	}
+
+	/* Maximal number of records read by a single nextBatch() call of page() */
+	private static final int PAGE_BATCH_SIZE = 1024;
+
+	/*
+	 * Ranges of keys, which can be scanned natively (SCAN_PREFIX only by
+	 * database_get_keys() and database_get_records())
+	 */
+	private static final int SCAN_ALL = 0;
+	private static final int SCAN_ABOVE = 1;
+	private static final int SCAN_BELOW = 2;
+	private static final int SCAN_BETWEEN = 3;
+	private static final int SCAN_PREFIX = 4;
+
+	/* Limit of scans, which pass all records of the range */
+	private static final long NO_LIMIT = Long.MAX_VALUE;
+
+	private static void checkBatchBuffer(ByteBuffer batchBuffer) throws IllegalArgumentException {
+		if (batchBuffer == null || !batchBuffer.isDirect() || batchBuffer.isReadOnly()) {
+			throw new IllegalArgumentException("Batch buffer must be a writable, direct ByteBuffer");
+		}
+	}
+
+	/**
+	 * Stops the running engine. RequestRings, which are still open, are closed
+	 * first - their workers run all submitted requests before the engine is closed.
+	 *
+	 * @since 1.0
+	 */
+	public void stop() {
+		if (!stopped) {
+			if (iteratorPool == null) {
+				stopped = true;
+			} else {
+				/* Pooled iterators have to be released before the engine is closed */
+				synchronized (iteratorPool) {
+					stopped = true;
+					Long it;
+					while ((it = iteratorPool.poll()) != null) {
+						database_delete_read_iterator(it);
+					}
+				}
+			}
+			/*
+			 * Workers of open rings use the engine, so they are joined before it's closed
+			 */
+			synchronized (openRings) {
+				for (RequestRing ring : new ArrayList<>(openRings)) {
+					ring.shutdown();
+				}
+			}
+			database_stop(pointer);
+		}
+	}
+
+	/**
+	 * Checks if the engine is stopped.
+	 *
+	 * @return true if the engine is stopped, false if it is running.
+	 * @since 1.0
+	 */
+	public boolean stopped() {
+		return stopped;
+	}
+
+	/**
+	 * ReadIterator provides methods to iterate over records in db. Using
+	 * readIterator() is the only way to get a ReadIterator object.
+	 *
+	 * @return instance of ReadIterator
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.2.0
+	 */
+	public ReadIterator readIterator() throws DatabaseException {
+		return new ReadIterator(pointer);
+	}
+
+	/**
+	 * WriteIterator provides methods to iterate over records in db and to update
+	 * their values in place. Using writeIterator() is the only way to get a
+	 * WriteIterator object.
+	 *
+	 * @return instance of WriteIterator
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public WriteIterator writeIterator() throws DatabaseException {
+		return new WriteIterator(pointer);
+	}
+
+	/**
+	 * Creates an empty WriteBatch, which may be later applied to this Database by
+	 * {@link #write(Database.WriteBatch) write()}.
+	 *
+	 * @return instance of WriteBatch
+	 * @since 1.3.0
+	 */
+	public WriteBatch writeBatch() {
+		return new WriteBatch();
+	}
+
+	/**
+	 * Returns a sequential Stream of key/value pairs, whose keys are greater than
+	 * or equal to from and less than to, in order of keys. A null bound means the
+	 * range is unbounded on this side. Keys and values are copied, so elements stay
+	 * valid after the stream is consumed.
+	 * <p>
+	 * The stream may be turned into a parallel one with parallel() - the range is
+	 * then split into parts, which are read concurrently. Records are read in
+	 * batches, each batch by a separate ReadIterator, so no iterator is held
+	 * between reads of the stream. It requires a sorted engine.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param from
+	 *            the lower bound (inclusive) or null.
+	 * @param to
+	 *            the upper bound (exclusive) or null.
+	 * @return stream of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted (thrown when the stream is consumed).
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public Stream<Map.Entry<K, V>> stream(K from, K to) throws DatabaseException {
+		return StreamSupport.stream(entrySpliterator(toKeyBytes(from), toKeyBytes(to)), false);
+	}
+
+	/**
+	 * Returns a sequential Stream of all key/value pairs, in order of keys. It
+	 * works as {@link #stream(Object, Object) stream(null, null)}.
+	 *
+	 * @return stream of key/value pairs.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public Stream<Map.Entry<K, V>> stream() throws DatabaseException {
+		return stream(null, null);
+	}
+
+	/**
+	 * Returns a sequential Stream of keys, which are greater than or equal to from
+	 * and less than to, in order. It works as {@link #stream(Object, Object)
+	 * stream()}, but only keys are converted.
+	 *
+	 * @param from
+	 *            the lower bound (inclusive) or null.
+	 * @param to
+	 *            the upper bound (exclusive) or null.
+	 * @return stream of keys.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public Stream<K> keyStream(K from, K to) throws DatabaseException {
+		return StreamSupport.stream(keySpliterator(toKeyBytes(from), toKeyBytes(to)), false);
+	}
+
+	/**
+	 * Returns a sequential Stream of all keys, in order. It works as
+	 * {@link #keyStream(Object, Object) keyStream(null, null)}.
+	 *
+	 * @return stream of keys.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public Stream<K> keyStream() throws DatabaseException {
+		return keyStream(null, null);
+	}
+
+	/**
+	 * Returns a Publisher of key/value pairs, whose keys are greater than or equal
+	 * to from and less than to, in order of keys. A null bound means the range is
+	 * unbounded on this side. Records are read only when subscribers request them,
+	 * in chunks, and they are passed to subscribers by the given executor. Keys and
+	 * values are copied, so items stay valid after they are passed. It requires a
+	 * sorted engine.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param from
+	 *            the lower bound (inclusive) or null.
+	 * @param to
+	 *            the upper bound (exclusive) or null.
+	 * @param executor
+	 *            executor, which reads records and signals subscribers.
+	 * @return publisher of key/value pairs.
+	 * @since 1.3.0
+	 */
+	public RecordPublisher<K, V> publisher(K from, K to, Executor executor) {
+		return new RecordPublisher<K, V>(this, toKeyBytes(from), toKeyBytes(to), executor);
+	}
+
+	/**
+	 * Returns a Publisher of key/value pairs, whose keys are greater than or equal
+	 * to from and less than to. It works as
+	 * {@link #publisher(Object, Object, Executor) publisher()}, but subscribers are
+	 * signalled by the common ForkJoinPool.
+	 *
+	 * @param from
+	 *            the lower bound (inclusive) or null.
+	 * @param to
+	 *            the upper bound (exclusive) or null.
+	 * @return publisher of key/value pairs.
+	 * @since 1.3.0
+	 */
+	public RecordPublisher<K, V> publisher(K from, K to) {
+		return publisher(from, to, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns the first page of key/value pairs, whose keys are greater than or
+	 * equal to from and less than to, in order of keys. A null bound means the
+	 * range is unbounded on this side. The page holds at most limit records and, if
+	 * there are more of them, a continuation token, which may be passed to
+	 * {@link #page(String, int) page(String, int)} to read the next page.
+	 * <p>
+	 * Every page is read by a single ReadIterator, positioned with one seek - the
+	 * next page starts right after the last key of the previous one, so reading a
+	 * page costs the same, however deep in the range it is. It requires a sorted
+	 * engine.
+	 *
+	 * @param from
+	 *            the lower bound (inclusive) or null.
+	 * @param to
+	 *            the upper bound (exclusive) or null.
+	 * @param limit
+	 *            maximum number of records in the page.
+	 * @return page of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is not positive.
+	 * @since 1.3.0
+	 */
+	public Page<K, V> page(K from, K to, int limit) throws DatabaseException, IllegalArgumentException {
+		return readPage(false, toKeyBytes(from), null, toKeyBytes(to), limit);
+	}
+
+	/**
+	 * Returns the first page of key/value pairs, whose keys are greater than or
+	 * equal to from and less than to, in descending order of keys - starting from
+	 * the greatest key. It works as {@link #page(Object, Object, int) page(K, K,
+	 * int)}, but the range is read backward, so e.g. the latest records of
+	 * time-ordered keys are read first. Continuation token of the returned page
+	 * resumes reading backward.
+	 *
+	 * @param from
+	 *            the lower bound (inclusive) or null.
+	 * @param to
+	 *            the upper bound (exclusive) or null.
+	 * @param limit
+	 *            maximum number of records in the page.
+	 * @return page of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is not positive.
+	 * @since 1.3.0
+	 */
+	public Page<K, V> pageDescending(K from, K to, int limit) throws DatabaseException, IllegalArgumentException {
+		return readPage(true, toKeyBytes(to), null, toKeyBytes(from), limit);
+	}
+
+	/**
+	 * Returns the next page of key/value pairs, resuming a range read by
+	 * {@link #page(Object, Object, int) page(K, K, int)} or
+	 * {@link #pageDescending(Object, Object, int) pageDescending()} after the last
+	 * record of the page, which returned the continuation token. Records added to
+	 * or removed from the range between pages are seen by the following pages, if
+	 * their keys are past the last key already read.
+	 *
+	 * @param continuation
+	 *            token returned by {@link io.pmem.pmemkv.Page#continuation()
+	 *            Page.continuation()}.
+	 * @param limit
+	 *            maximum number of records in the page.
+	 * @return page of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is not positive or the token is malformed.
+	 * @since 1.3.0
+	 */
+	public Page<K, V> page(String continuation, int limit) throws DatabaseException, IllegalArgumentException {
+		PageToken token = PageToken.decode(continuation);
+		return readPage(token.direction == PageToken.DESCENDING, null, token.last, token.bound, limit);
+	}
+
+	/*
+	 * Reads at most limit records, starting from the key "start" (inclusive) or, if
+	 * it's not null, after the key "after". Records are read in ascending order up
+	 * to the key "bound" (exclusive) or, in reverse, in descending order down to
+	 * the key "bound" (inclusive). One record more is read, to find out if the page
+	 * is the last one.
+	 */
+	private Page<K, V> readPage(boolean reverse, byte[] start, byte[] after, byte[] bound, int limit)
+			throws DatabaseException, IllegalArgumentException {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Limit must be > 0");
+		}
+		List<Map.Entry<K, V>> entries = new ArrayList<>();
+		byte[][] last = {null};
+		boolean[] more = {false};
+		boolean[] end = {false};
+		try (ReadIterator it = readIterator()) {
+			boolean found;
+			if (after != null) {
+				found = (reverse ? it.seekLowerBytes(after) : it.seekHigherBytes(after));
+			} else if (start != null) {
+				found = (reverse ? it.seekLowerBytes(start) : it.seekHigherEqBytes(start));
+			} else {
+				found = (reverse ? it.seekToLast() : it.seekToFirst());
+			}
+			while (found && !end[0]) {
+				int n = (int) Math.min((long) limit + 1 - entries.size(), PAGE_BATCH_SIZE);
+				found = it.readBatch(reverse, n, null, (RecordBatch<K, V> batch) -> {
+					while (!end[0] && batch.next()) {
+						ByteBuffer k = batch.keyBuffer();
+						byte[] key = new byte[k.remaining()];
+						k.get(key);
+						if (bound != null && (reverse
+								? RecordSpliterator.compare(key, bound) < 0
+								: RecordSpliterator.compare(key, bound) >= 0)) {
+							end[0] = true;
+						} else if (entries.size() == limit) {
+							more[0] = true;
+							end[0] = true;
+						} else {
+							entries.add(new AbstractMap.SimpleImmutableEntry<K, V>(
+									keyConverter.fromByteBuffer(ByteBuffer.wrap(key.clone())),
+									valueConverter.fromByteBuffer(copy(batch.valueBuffer()))));
+							last[0] = key;
+						}
+					}
+				}) > 0;
+			}
+		}
+		byte direction = (reverse ? PageToken.DESCENDING : PageToken.ASCENDING);
+		String continuation = (more[0] ? new PageToken(direction, last[0], bound).encode() : null);
+		return new Page<K, V>(entries, continuation);
+	}
+
+	/*
+	 * Passes records with keys in range (lower, upper) to the callback, in
+	 * descending order, until it returns false or limit records are passed; null
+	 * bound means the range is unbounded on this side. Records are read in batches
+	 * of at most PAGE_BATCH_SIZE, each by a single native call.
+	 */
+	private void forEachDescending(byte[] lower, byte[] upper, long limit,
+			StoppableKeyValueCallback<K, V> callback) {
+		if (limit == 0) {
+			return;
+		}
+		long[] left = {limit};
+		try (ReadIterator it = readIterator()) {
+			boolean found = (upper != null ? it.seekLowerBytes(upper) : it.seekToLast());
+			while (found && left[0] > 0) {
+				int n = (int) Math.min(left[0], PAGE_BATCH_SIZE);
+				found = it.readBatch(true, n, lower, (RecordBatch<K, V> batch) -> {
+					while (left[0] > 0 && batch.next()) {
+						left[0] = (callback.process(batch.key(), batch.value()) ? left[0] - 1 : 0);
+					}
+				}) > 0;
+			}
+		}
+	}
+
+	/*
+	 * Passes batches of records with keys in range (lower, upper), in descending
+	 * order
+	 */
+	private void forEachBatchDescending(byte[] lower, byte[] upper, ByteBuffer batchBuffer,
+			BatchCallback<K, V> callback) {
+		checkBatchBuffer(batchBuffer);
+		try (ReadIterator it = readIterator()) {
+			boolean found = (upper != null ? it.seekLowerBytes(upper) : it.seekToLast());
+			while (found) {
+				found = it.readBatch(true, Integer.MAX_VALUE, batchBuffer, lower, callback) > 0;
+			}
+		}
+	}
+
+	/* Returns spliterator over copies of records with keys in [from, to) */
+	Spliterator<Map.Entry<K, V>> entrySpliterator(byte[] from, byte[] to) {
+		return new RecordSpliterator<K, V, Map.Entry<K, V>>(this, from, to,
+				(byte[] key, ByteBuffer value) -> new AbstractMap.SimpleImmutableEntry<K, V>(
+						keyConverter.fromByteBuffer(ByteBuffer.wrap(key.clone())),
+						valueConverter.fromByteBuffer(copy(value))));
+	}
+
+	/* Spliterator over keys in range [from, to), null bound means unbounded */
+	Spliterator<K> keySpliterator(byte[] from, byte[] to) {
+		return new RecordSpliterator<K, V, K>(this, from, to,
+				(byte[] key, ByteBuffer value) -> keyConverter.fromByteBuffer(ByteBuffer.wrap(key.clone())));
+	}
+
+	/*
+	 * If enabled by the Builder, on a virtual thread, scans of a sorted engine are
+	 * read in chunks, each one by a short native call (see RecordSpliterator), and
+	 * callbacks are run between these calls - a single native scan would pin the
+	 * carrier thread until all callbacks return. Returns true, if the current scan
+	 * should be read in chunks.
+	 */
+	private boolean scanInChunks() {
+		if (!chunkedScans || !VirtualThreads.isCurrentVirtual()) {
+			return false;
+		}
+		Boolean sorted = sortedEngine;
+		if (sorted == null) {
+			try (ReadIterator it = readIterator()) {
+				it.seekHigherEqBytes(new byte[0]);
+				sorted = true;
+			} catch (NotSupportedException e) {
+				sorted = false;
+			}
+			sortedEngine = sorted;
+		}
+		return sorted;
+	}
+
+	/*
+	 * Chunked scans, which pass keys (or records) in range [from, to) to the
+	 * callback, until it returns false or limit of them are passed
+	 */
+	private void forEachKey(byte[] from, byte[] to, long limit, StoppableKeyCallback<K> callback) {
+		Spliterator<K> keys = keySpliterator(from, to);
+		boolean[] proceed = {true};
+		Consumer<K> action = (K key) -> proceed[0] = callback.process(key);
+		for (long left = limit; left > 0 && proceed[0]; left--) {
+			if (!keys.tryAdvance(action)) {
+				return;
+			}
+		}
+	}
+
+	private void forEachEntry(byte[] from, byte[] to, long limit, StoppableKeyValueCallback<K, V> callback) {
+		Spliterator<Map.Entry<K, V>> entries = entrySpliterator(from, to);
+		boolean[] proceed = {true};
+		Consumer<Map.Entry<K, V>> action = (Map.Entry<K, V> entry) -> proceed[0] = callback.process(entry.getKey(),
+				entry.getValue());
+		for (long left = limit; left > 0 && proceed[0]; left--) {
+			if (!entries.tryAdvance(action)) {
+				return;
+			}
+		}
+	}
+
+	private void forEachView(byte[] from, byte[] to, long limit, ViewCallback<K, V> callback) {
+		Spliterator<Map.Entry<K, ByteBuffer>> entries = new RecordSpliterator<K, V, Map.Entry<K, ByteBuffer>>(this,
+				from, to, (byte[] key, ByteBuffer value) -> new AbstractMap.SimpleImmutableEntry<K, ByteBuffer>(
+						keyConverter.fromByteBuffer(ByteBuffer.wrap(key.clone())), copy(value)));
+		boolean[] proceed = {true};
+		Consumer<Map.Entry<K, ByteBuffer>> action = (Map.Entry<K, ByteBuffer> entry) -> proceed[0] = callback
+				.process(entry.getKey(), entry.getValue());
+		for (long left = limit; left > 0 && proceed[0]; left--) {
+			if (!entries.tryAdvance(action)) {
+				return;
+			}
+		}
+	}
+
+	/*
+	 * StoppableKeyValueViewCallback with the ValueView reused for every record of a
+	 * scan, called from the JNI layer by viewCallbackWrapper()
+	 */
+	private static class ViewCallback<K, V> {
+		private final StoppableKeyValueViewCallback<K, V> callback;
+		private final ValueView<V> view;
+
+		ViewCallback(StoppableKeyValueViewCallback<K, V> callback, Converter<V> converter) {
+			this.callback = callback;
+			this.view = new ValueView<V>(converter);
+		}
+
+		boolean process(K key, ByteBuffer value) {
+			view.reset(value);
+			try {
+				return callback.process(key, view);
+			} finally {
+				view.reset(null);
+			}
+		}
+	}
+
+	/*
+	 * Scans behind all getKeys*() methods: passes keys of the range (one of SCAN_*,
+	 * key1 is the prefix of SCAN_PREFIX) to the callback, until it returns false or
+	 * limit keys are passed. The native scan is ended then, with no exception.
+	 */
+	private void scanKeys(int range, K key1, K key2, long limit, StoppableKeyCallback<K> callback)
+			throws DatabaseException, OutOfMemoryError {
+		if (limit == 0) {
+			return;
+		}
+		if (scanInChunks()) {
+			byte[][] bounds = rangeBounds(range, key1, key2);
+			forEachKey(bounds[0], bounds[1], limit, callback);
+			return;
+		}
+		ByteBuffer direct_key1 = (range != SCAN_ALL ? directKey(key1, ThreadCache.KEY1_BUFFER) : null);
+		try {
+			ByteBuffer direct_key2 = (range == SCAN_BETWEEN ? directKey(key2, ThreadCache.KEY2_BUFFER) : null);
+			try {
+				database_get_keys(pointer, range, keyBytes(direct_key1), direct_key1, keyBytes(direct_key2),
+						direct_key2, limit, callback);
+			} finally {
+				releaseDirectKeyBuffer(direct_key2);
+			}
+		} finally {
+			releaseDirectKeyBuffer(direct_key1);
+		}
+	}
+
+	/* Scans behind all key/value get*() methods, as scanKeys() */
+	private void scanRecords(int range, K key1, K key2, long limit, StoppableKeyValueCallback<K, V> callback)
+			throws DatabaseException {
+		if (limit == 0) {
+			return;
+		}
+		if (scanInChunks()) {
+			byte[][] bounds = rangeBounds(range, key1, key2);
+			forEachEntry(bounds[0], bounds[1], limit, callback);
+			return;
+		}
+		ByteBuffer direct_key1 = (range != SCAN_ALL ? directKey(key1, ThreadCache.KEY1_BUFFER) : null);
+		try {
+			ByteBuffer direct_key2 = (range == SCAN_BETWEEN ? directKey(key2, ThreadCache.KEY2_BUFFER) : null);
+			try {
+				database_get_records(pointer, range, keyBytes(direct_key1), direct_key1, keyBytes(direct_key2),
+						direct_key2, limit, callback);
+			} finally {
+				releaseDirectKeyBuffer(direct_key2);
+			}
+		} finally {
+			releaseDirectKeyBuffer(direct_key1);
+		}
+	}
+
+	/* Scans behind all get*Views() methods, as scanKeys() */
+	private void scanViews(int range, K key1, K key2, long limit, StoppableKeyValueViewCallback<K, V> callback)
+			throws DatabaseException {
+		if (limit == 0) {
+			return;
+		}
+		ViewCallback<K, V> views = new ViewCallback<K, V>(callback, valueConverter);
+		if (scanInChunks()) {
+			byte[][] bounds = rangeBounds(range, key1, key2);
+			forEachView(bounds[0], bounds[1], limit, views);
+			return;
+		}
+		ByteBuffer direct_key1 = (range != SCAN_ALL ? directKey(key1, ThreadCache.KEY1_BUFFER) : null);
+		try {
+			ByteBuffer direct_key2 = (range == SCAN_BETWEEN ? directKey(key2, ThreadCache.KEY2_BUFFER) : null);
+			try {
+				database_get_views(pointer, range, keyBytes(direct_key1), direct_key1, keyBytes(direct_key2),
+						direct_key2, limit, views);
+			} finally {
+				releaseDirectKeyBuffer(direct_key2);
+			}
+		} finally {
+			releaseDirectKeyBuffer(direct_key1);
+		}
+	}
+
+	private static int keyBytes(ByteBuffer directKey) {
+		return (directKey != null ? directKey.position() : 0);
+	}
+
+	/* Returns bounds [from, to) of the range, as read by chunked scans */
+	private byte[][] rangeBounds(int range, K key1, K key2) {
+		switch (range) {
+			case SCAN_ABOVE :
+				return new byte[][]{successor(toKeyBytes(key1)), null};
+			case SCAN_BELOW :
+				return new byte[][]{null, toKeyBytes(key1)};
+			case SCAN_BETWEEN :
+				return new byte[][]{successor(toKeyBytes(key1)), toKeyBytes(key2)};
+			case SCAN_PREFIX :
+				byte[] from = toKeyBytes(key1);
+				return new byte[][]{from, prefixEnd(from)};
+			default :
+				return new byte[][]{null, null};
+		}
+	}
+
+	/* Plain callbacks are passed to the scans as never stopping ones */
+	private static <K> StoppableKeyCallback<K> stoppable(KeyCallback<K> callback) {
+		return (K key) -> {
+			callback.process(key);
+			return true;
+		};
+	}
+
+	private static <K, V> StoppableKeyValueCallback<K, V> stoppable(KeyValueCallback<K, V> callback) {
+		return (K key, V value) -> {
+			callback.process(key, value);
+			return true;
+		};
+	}
+
+	private static <K, V> StoppableKeyValueViewCallback<K, V> stoppableViews(KeyValueViewCallback<K, V> callback) {
+		return (K key, ValueView<V> value) -> {
+			callback.process(key, value);
+			return true;
+		};
+	}
+
+	/* Returns limit of a scan, which is checked not to be negative */
+	private static long checkLimit(long limit) throws IllegalArgumentException {
+		if (limit < 0) {
+			throw new IllegalArgumentException("Limit must not be negative");
+		}
+		return limit;
+	}
+
+	/*
+	 * Returns the smallest key greater than the given one, i.e. key with 0 appended
+	 */
+	private static byte[] successor(byte[] key) {
+		return Arrays.copyOf(key, key.length + 1);
+	}
+
+	/*
+	 * Returns the smallest key greater than all keys beginning with the prefix, or
+	 * null if there is no such key (the prefix is empty or consists of 0xFF bytes)
+	 */
+	private static byte[] prefixEnd(byte[] prefix) {
+		int n = prefix.length;
+		while (n > 0 && prefix[n - 1] == (byte) 0xFF) {
+			n--;
+		}
+		if (n == 0) {
+			return null;
+		}
+		byte[] end = Arrays.copyOf(prefix, n);
+		end[n - 1]++;
+		return end;
+	}
+
+	/* Returns converted key as an array, null for a null key */
+	private byte[] toKeyBytes(K key) {
+		if (key == null) {
+			return null;
+		}
+		if (keyEncoder != null) {
+			int size = keyEncoder.encodedSize(key);
+			byte[] bytes = new byte[size];
+			encode(keyEncoder, key, size, ByteBuffer.wrap(bytes));
+			return bytes;
+		}
+		ByteBuffer content = bufferContent(keyConverter.toByteBuffer(key));
+		byte[] bytes = new byte[content.remaining()];
+		content.get(bytes);
+		return bytes;
+	}
+
+	/* Returns a heap copy of the buffer's content (between position and limit) */
+	private static ByteBuffer copy(ByteBuffer buffer) {
+		ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+		copy.put(buffer.duplicate());
+		copy.flip();
+		return copy;
+	}
+
+	/*
+	 * Counts records with keys in range [from, to), null bound means the range is
+	 * unbounded on this side. Used by RecordSpliterator.
+	 */
+	long countRange(byte[] from, byte[] to) throws DatabaseException {
+		if (from == null) {
+			if (to == null) {
+				return database_count_all(pointer);
+			}
+			ByteBuffer direct_to = getDirectKeyBuffer(ByteBuffer.wrap(to));
+			try {
+				return database_count_below_buffer(pointer, direct_to.position(), direct_to);
+			} finally {
+				releaseDirectKeyBuffer(direct_to);
+			}
+		}
+		ByteBuffer direct_from = getDirectKeyBuffer(ByteBuffer.wrap(from), ThreadCache.KEY1_BUFFER);
+		try {
+			/* counts below exclude the bound itself */
+			long count = (database_exists_buffer(pointer, direct_from.position(), direct_from) ? 1 : 0);
+			if (to == null) {
+				return count + database_count_above_buffer(pointer, direct_from.position(), direct_from);
+			}
+			ByteBuffer direct_to = getDirectKeyBuffer(ByteBuffer.wrap(to), ThreadCache.KEY2_BUFFER);
+			try {
+				return count + database_count_between_buffer(pointer, direct_from.position(), direct_from,
+						direct_to.position(), direct_to);
+			} finally {
+				releaseDirectKeyBuffer(direct_to);
+			}
+		} finally {
+			releaseDirectKeyBuffer(direct_from);
+		}
+	}
+
+	/**
+	 * Begins a new transaction, in which operations are applied to this Database
+	 * atomically, on commit.
+	 *
+	 * @return instance of Transaction
+	 * @throws NotSupportedException
+	 *             if the engine doesn't support transactions.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public Transaction transaction() throws DatabaseException {
+		return new Transaction(pointer);
+	}
+
+	/**
+	 * Creates a new RequestRing, which runs requests on the given number of native
+	 * worker threads.
+	 *
+	 * @param workers
+	 *            number of native worker threads.
+	 * @return instance of RequestRing
+	 * @throws IllegalArgumentException
+	 *             if workers is not positive.
+	 * @throws DatabaseException
+	 *             if worker threads cannot be started.
+	 * @throws IllegalStateException
+	 *             if the Database is stopped.
+	 * @since 1.3.0
+	 */
+	public RequestRing requestRing(int workers)
+			throws IllegalArgumentException, DatabaseException, IllegalStateException {
+		return new RequestRing(workers);
+	}
+
+	/**
+	 * Applies all operations collected in the given WriteBatch, in order in which
+	 * they were added, using a single native call.
+	 * <p>
+	 * Batch is not applied atomically - if any operation fails, operations
+	 * preceding it stay applied and the following ones are not applied.
+	 *
+	 * @param batch
+	 *            batch of operations created by this Database.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if batch was created by other Database.
+	 * @since 1.3.0
+	 */
+	public void write(WriteBatch batch) throws DatabaseException, IllegalArgumentException {
+		if (batch.database() != this) {
+			throw new IllegalArgumentException("WriteBatch was created by other Database");
+		}
+		database_write(pointer, batch.buffer, batch.buffer.position());
+	}
+
+	/**
+	 * Executes callback function for every key stored in the pmemkv datastore. Any
+	 * exception thrown by the user from callback will be propagated.
+	 *
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.0
+	 */
+	public void getKeys(KeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_ALL, null, null, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getKeys(KeyCallback) getKeys()}, until the callback returns
+	 * false.
+	 *
+	 * @param callback
+	 *            Function to be called for each key, returning false to stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysWhile(StoppableKeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_ALL, null, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getKeys(KeyCallback) getKeys()}, but passes at most limit
+	 * keys to the callback.
+	 *
+	 * @param limit
+	 *            maximum number of keys passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeys(long limit, KeyCallback<K> callback)
+			throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+		scanKeys(SCAN_ALL, null, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for every key stored in the pmemkv datastore,
+	 * whose keys are greater than the given key.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++. Any exception thrown by the user
+	 * from callback will be propagated.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.0
+	 */
+	public void getKeysAbove(K key, KeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_ABOVE, key, null, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getKeysAbove(Object, KeyCallback) getKeysAbove()}, until the
+	 * callback returns false.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param callback
+	 *            Function to be called for each key, returning false to stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysAboveWhile(K key, StoppableKeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_ABOVE, key, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getKeysAbove(Object, KeyCallback) getKeysAbove()}, but
+	 * passes at most limit keys to the callback.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param limit
+	 *            maximum number of keys passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysAbove(K key, long limit, KeyCallback<K> callback)
+			throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+		scanKeys(SCAN_ABOVE, key, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for every key stored in the pmemkv datastore,
+	 * whose keys are less than the given key.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++. Any exception thrown by the user
+	 * from callback will be propagated.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.0
+	 */
+	public void getKeysBelow(K key, KeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_BELOW, key, null, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getKeysBelow(Object, KeyCallback) getKeysBelow()}, until the
+	 * callback returns false.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key, returning false to stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysBelowWhile(K key, StoppableKeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_BELOW, key, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getKeysBelow(Object, KeyCallback) getKeysBelow()}, but
+	 * passes at most limit keys to the callback.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of keys passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysBelow(K key, long limit, KeyCallback<K> callback)
+			throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+		scanKeys(SCAN_BELOW, key, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for every key stored in the pmemkv datastore,
+	 * whose keys are greater than the key1 and less than the key2.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++. Any exception thrown by the user
+	 * from callback will be propagated.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.0
+	 */
+	public void getKeysBetween(K key1, K key2, KeyCallback<K> callback)
+			throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_BETWEEN, key1, key2, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getKeysBetween(Object, Object, KeyCallback)
+	 * getKeysBetween()}, until the callback returns false.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key, returning false to stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysBetweenWhile(K key1, K key2, StoppableKeyCallback<K> callback)
+			throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_BETWEEN, key1, key2, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getKeysBetween(Object, Object, KeyCallback)
+	 * getKeysBetween()}, but passes at most limit keys to the callback.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of keys passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysBetween(K key1, K key2, long limit, KeyCallback<K> callback)
+			throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+		scanKeys(SCAN_BETWEEN, key1, key2, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for every key stored in the pmemkv datastore,
+	 * which begins with the given prefix (compared as bytes of converted keys).
+	 * <p>
+	 * Sorted engines are scanned natively from the prefix, until the first key
+	 * which doesn't begin with it - so only matching keys are read. Other engines
+	 * are scanned whole, but non-matching keys are skipped by the native layer,
+	 * without calling the callback.
+	 *
+	 * @param prefix
+	 *            prefix of the keys.
+	 * @param callback
+	 *            Function to be called for each specified key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysByPrefix(K prefix, KeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_PREFIX, prefix, null, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getKeysByPrefix(Object, KeyCallback) getKeysByPrefix()},
+	 * until the callback returns false.
+	 *
+	 * @param prefix
+	 *            prefix of the keys.
+	 * @param callback
+	 *            Function to be called for each key, returning false to stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysByPrefixWhile(K prefix, StoppableKeyCallback<K> callback)
+			throws DatabaseException, OutOfMemoryError {
+		scanKeys(SCAN_PREFIX, prefix, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getKeysByPrefix(Object, KeyCallback) getKeysByPrefix()}, but
+	 * passes at most limit keys to the callback.
+	 *
+	 * @param prefix
+	 *            prefix of the keys.
+	 * @param limit
+	 *            maximum number of keys passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getKeysByPrefix(K prefix, long limit, KeyCallback<K> callback)
+			throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+		scanKeys(SCAN_PREFIX, prefix, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Returns number of key/value pairs currently stored in the pmemkv datastore.
+	 *
+	 * @return Total number of elements in the datastore.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public long countAll() throws DatabaseException {
+		return database_count_all(pointer);
+	}
+
+	/**
+	 * Returns number of key/value pairs currently stored in the pmemkv datastore,
+	 * whose keys are greater than the given key.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @return Number of key/value pairs in the datastore, whose keys are greater
+	 *         than the given key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public long countAbove(K key) throws DatabaseException {
+		ByteBuffer direct_key = directKey(key);
+		try {
+			return database_count_above_buffer(pointer, direct_key.position(), direct_key);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
+	}
+
+	/**
+	 * Returns number of key/value pairs currently stored in the pmemkv datastore,
+	 * whose keys are less than the given key.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @return Number of key/value pairs in the datastore, whose keys are less than
+	 *         the given key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public long countBelow(K key) throws DatabaseException {
+		ByteBuffer direct_key = directKey(key);
+		try {
+			return database_count_below_buffer(pointer, direct_key.position(), direct_key);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
+	}
+
+	/**
+	 * Returns number of key/value pairs currently stored in the pmemkv datastore,
+	 * whose keys are greater than the key1 and less than the key2.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @return Number of key/value pairs in the datastore, between given keys.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public long countBetween(K key1, K key2) throws DatabaseException {
+		ByteBuffer direct_key1 = directKey(key1, ThreadCache.KEY1_BUFFER);
+		try {
+			ByteBuffer direct_key2 = directKey(key2, ThreadCache.KEY2_BUFFER);
+			try {
+				return database_count_between_buffer(pointer, direct_key1.position(), direct_key1,
+						direct_key2.position(),
+						direct_key2);
+			} finally {
+				releaseDirectKeyBuffer(direct_key2);
+			}
+		} finally {
+			releaseDirectKeyBuffer(direct_key1);
+		}
+	}
+
+	/**
+	 * Returns number of key/value pairs stored in the pmemkv datastore, whose keys
+	 * begin with the given prefix. Records are counted natively, as described in
+	 * {@link #getKeysByPrefix(Object, KeyCallback) getKeysByPrefix()}.
+	 *
+	 * @param prefix
+	 *            prefix of the keys.
+	 * @return Number of key/value pairs in the datastore, with the given prefix.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public long countByPrefix(K prefix) throws DatabaseException {
+		ByteBuffer direct_key = directKey(prefix);
+		try {
+			return database_count_prefix_buffer(pointer, direct_key.position(), direct_key);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore. Any exception thrown by the user from callback will be propagated.
+	 *
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public void getAll(KeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_ALL, null, null, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getAll(KeyValueCallback) getAll()}, until the callback
+	 * returns false.
+	 *
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getAllWhile(StoppableKeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_ALL, null, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getAll(KeyValueCallback) getAll()}, but passes at most limit
+	 * records to the callback.
+	 *
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getAll(long limit, KeyValueCallback<K, V> callback) throws DatabaseException, IllegalArgumentException {
+		scanRecords(SCAN_ALL, null, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are greater than the given key.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public void getAbove(K key, KeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_ABOVE, key, null, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getAbove(Object, KeyValueCallback) getAbove()}, until the
+	 * callback returns false.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getAboveWhile(K key, StoppableKeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_ABOVE, key, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getAbove(Object, KeyValueCallback) getAbove()}, but passes
+	 * at most limit records to the callback.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getAbove(K key, long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanRecords(SCAN_ABOVE, key, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are less than the given key.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public void getBelow(K key, KeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_BELOW, key, null, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getBelow(Object, KeyValueCallback) getBelow()}, until the
+	 * callback returns false.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getBelowWhile(K key, StoppableKeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_BELOW, key, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getBelow(Object, KeyValueCallback) getBelow()}, but passes
+	 * at most limit records to the callback.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getBelow(K key, long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanRecords(SCAN_BELOW, key, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are greater than the key1 and less than the key2.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.0
+	 */
+	public void getBetween(K key1, K key2, KeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_BETWEEN, key1, key2, NO_LIMIT, stoppable(callback));
+	}
+
+	/**
+	 * Works as {@link #getBetween(Object, Object, KeyValueCallback) getBetween()},
+	 * until the callback returns false.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getBetweenWhile(K key1, K key2, StoppableKeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_BETWEEN, key1, key2, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getBetween(Object, Object, KeyValueCallback) getBetween()},
+	 * but passes at most limit records to the callback.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getBetween(K key1, K key2, long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanRecords(SCAN_BETWEEN, key1, key2, checkLimit(limit), stoppable(callback));
+	}
 
-	private ByteBuffer getDirectValueBuffer(ByteBuffer buf) {
-		return getDirectBuffer(buf, ThreadDirectBuffers.VALUE_BUFFER);
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose key begins with the given prefix. Records are read natively,
+	 * as described in {@link #getKeysByPrefix(Object, KeyCallback)
+	 * getKeysByPrefix()}. Any exception thrown by the user from callback will be
+	 * propagated.
+	 *
+	 * @param prefix
+	 *            prefix of the keys.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getByPrefix(K prefix, KeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_PREFIX, prefix, null, NO_LIMIT, stoppable(callback));
 	}
 
-	/*
-	 * These callback wrappers optimize invoking callbacks from the JNI layer. If we
-	 * want to call a java method from the JNI, we have to know its ID. Getting this
-	 * ID for every callback is a costly operation so with these static wrappers we
-	 * only need to get ID once and later we only call these static methods with a
-	 * real callback as a parameter which will be invoked inside of these methods.
+	/**
+	 * Works as {@link #getByPrefix(Object, KeyValueCallback) getByPrefix()}, until
+	 * the callback returns false.
+	 *
+	 * @param prefix
+	 *            prefix of the keys.
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
 	 */
-	private static <Key, Value> void valueCallbackWrapper(Database<Key, Value> db, ValueCallback<Value> callback, int s,
-			ByteBuffer b) {
-		b.rewind().limit(s);
-		callback.process(db.valueConverter.fromByteBuffer(b));
+	public void getByPrefixWhile(K prefix, StoppableKeyValueCallback<K, V> callback) throws DatabaseException {
+		scanRecords(SCAN_PREFIX, prefix, null, NO_LIMIT, callback);
 	}
 
-	private static <Key, Value> void keyCallbackWrapper(Database<Key, Value> db, KeyCallback<Key> callback, int s,
-			ByteBuffer b) {
-		b.rewind().limit(s);
-		callback.process(db.keyConverter.fromByteBuffer(b));
+	/**
+	 * Works as {@link #getByPrefix(Object, KeyValueCallback) getByPrefix()}, but
+	 * passes at most limit records to the callback.
+	 *
+	 * @param prefix
+	 *            prefix of the keys.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getByPrefix(K prefix, long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanRecords(SCAN_PREFIX, prefix, null, checkLimit(limit), stoppable(callback));
 	}
 
-	private static <Key, Value> void keyValueCallbackWrapper(Database<Key, Value> db,
-			KeyValueCallback<Key, Value> callback, int kb, ByteBuffer k, int vb, ByteBuffer v) {
-		k.rewind().limit(kb);
-		Key processed_key = db.keyConverter.fromByteBuffer(k);
-		v.rewind().limit(vb);
-		Value processed_value = db.valueConverter.fromByteBuffer(v);
-		callback.process(processed_key, processed_value);
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore. It works as {@link #getAll(KeyValueCallback) getAll()}, but only
+	 * keys are converted before the call - values are passed as lazy
+	 * {@link io.pmem.pmemkv.ValueView ValueView}, converted only if the callback
+	 * asks for them. It's useful when most of the records are rejected by their
+	 * keys.
+	 *
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getAllViews(KeyValueViewCallback<K, V> callback) throws DatabaseException {
+		scanViews(SCAN_ALL, null, null, NO_LIMIT, stoppableViews(callback));
 	}
 
 	/**
-	 * Stops the running engine.
+	 * Works as {@link #getAllViews(KeyValueViewCallback) getAllViews()}, until the
+	 * callback returns false.
 	 *
-	 * @since 1.0
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
 	 */
-	public void stop() {
-		if (!stopped) {
-			stopped = true;
-			database_stop(pointer);
+	public void getAllViewsWhile(StoppableKeyValueViewCallback<K, V> callback) throws DatabaseException {
+		scanViews(SCAN_ALL, null, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getAllViews(KeyValueViewCallback) getAllViews()}, but passes
+	 * at most limit records to the callback.
+	 *
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getAllViews(long limit, KeyValueViewCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanViews(SCAN_ALL, null, null, checkLimit(limit), stoppableViews(callback));
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are greater than the given key. It works as
+	 * {@link #getAbove(Object, KeyValueCallback) getAbove()}, but values are passed
+	 * as lazy {@link io.pmem.pmemkv.ValueView ValueView}.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getAboveViews(K key, KeyValueViewCallback<K, V> callback) throws DatabaseException {
+		scanViews(SCAN_ABOVE, key, null, NO_LIMIT, stoppableViews(callback));
+	}
+
+	/**
+	 * Works as {@link #getAboveViews(Object, KeyValueViewCallback)
+	 * getAboveViews()}, until the callback returns false.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getAboveViewsWhile(K key, StoppableKeyValueViewCallback<K, V> callback) throws DatabaseException {
+		scanViews(SCAN_ABOVE, key, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getAboveViews(Object, KeyValueViewCallback)
+	 * getAboveViews()}, but passes at most limit records to the callback.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getAboveViews(K key, long limit, KeyValueViewCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanViews(SCAN_ABOVE, key, null, checkLimit(limit), stoppableViews(callback));
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are less than the given key. It works as
+	 * {@link #getBelow(Object, KeyValueCallback) getBelow()}, but values are passed
+	 * as lazy {@link io.pmem.pmemkv.ValueView ValueView}.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getBelowViews(K key, KeyValueViewCallback<K, V> callback) throws DatabaseException {
+		scanViews(SCAN_BELOW, key, null, NO_LIMIT, stoppableViews(callback));
+	}
+
+	/**
+	 * Works as {@link #getBelowViews(Object, KeyValueViewCallback)
+	 * getBelowViews()}, until the callback returns false.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getBelowViewsWhile(K key, StoppableKeyValueViewCallback<K, V> callback) throws DatabaseException {
+		scanViews(SCAN_BELOW, key, null, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getBelowViews(Object, KeyValueViewCallback)
+	 * getBelowViews()}, but passes at most limit records to the callback.
+	 *
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getBelowViews(K key, long limit, KeyValueViewCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanViews(SCAN_BELOW, key, null, checkLimit(limit), stoppableViews(callback));
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are greater than the key1 and less than the key2. It
+	 * works as {@link #getBetween(Object, Object, KeyValueCallback) getBetween()},
+	 * but values are passed as lazy {@link io.pmem.pmemkv.ValueView ValueView}.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getBetweenViews(K key1, K key2, KeyValueViewCallback<K, V> callback) throws DatabaseException {
+		scanViews(SCAN_BETWEEN, key1, key2, NO_LIMIT, stoppableViews(callback));
+	}
+
+	/**
+	 * Works as {@link #getBetweenViews(Object, Object, KeyValueViewCallback)
+	 * getBetweenViews()}, until the callback returns false.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each key/value pair, returning false to
+	 *            stop.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void getBetweenViewsWhile(K key1, K key2, StoppableKeyValueViewCallback<K, V> callback)
+			throws DatabaseException {
+		scanViews(SCAN_BETWEEN, key1, key2, NO_LIMIT, callback);
+	}
+
+	/**
+	 * Works as {@link #getBetweenViews(Object, Object, KeyValueViewCallback)
+	 * getBetweenViews()}, but passes at most limit records to the callback.
+	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getBetweenViews(K key1, K key2, long limit, KeyValueViewCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		scanViews(SCAN_BETWEEN, key1, key2, checkLimit(limit), stoppableViews(callback));
+	}
+
+	/**
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore. Records are packed by the native layer into the given
+	 * buffer and the callback is called once per every filled buffer, instead of
+	 * once per every record. A record bigger than the whole buffer is passed alone,
+	 * in a temporary buffer. Any exception thrown by the user from callback will be
+	 * propagated.
+	 *
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
+	 * @param callback
+	 *            Function to be called for each batch of key/value pairs.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
+	 */
+	public void getAllBatched(ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		checkBatchBuffer(batchBuffer);
+		database_get_batched(pointer, SCAN_ALL, 0, null, 0, null, batchBuffer, new RecordBatch<K, V>(this), callback);
+	}
+
+	/**
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore, whose keys are greater than the given key. It works as
+	 * {@link #getAllBatched(ByteBuffer, BatchCallback) getAllBatched()}, but for
+	 * the selected range of keys.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
+	 *
+	 * @param key
+	 *            Sets the lower bound for querying.
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
+	 * @param callback
+	 *            Function to be called for each batch of key/value pairs.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
+	 */
+	public void getAboveBatched(K key, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		checkBatchBuffer(batchBuffer);
+		ByteBuffer direct_key = directKey(key);
+		try {
+			database_get_batched(pointer, SCAN_ABOVE, direct_key.position(), direct_key, 0, null, batchBuffer,
+					new RecordBatch<K, V>(this), callback);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
 		}
 	}
 
 	/**
-	 * Checks if the engine is stopped.
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore, whose keys are less than the given key. It works as
+	 * {@link #getAllBatched(ByteBuffer, BatchCallback) getAllBatched()}, but for
+	 * the selected range of keys.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
 	 *
-	 * @return true if the engine is stopped, false if it is running.
-	 * @since 1.0
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
+	 * @param callback
+	 *            Function to be called for each batch of key/value pairs.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
 	 */
-	public boolean stopped() {
-		return stopped;
+	public void getBelowBatched(K key, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		checkBatchBuffer(batchBuffer);
+		ByteBuffer direct_key = directKey(key);
+		try {
+			database_get_batched(pointer, SCAN_BELOW, direct_key.position(), direct_key, 0, null, batchBuffer,
+					new RecordBatch<K, V>(this), callback);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
 	}
 
 	/**
-	 * ReadIterator provides methods to iterate over records in db. Using
-	 * readIterator() is the only way to get a ReadIterator object.
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore, whose keys are greater than the key1 and less than the
+	 * key2. It works as {@link #getAllBatched(ByteBuffer, BatchCallback)
+	 * getAllBatched()}, but for the selected range of keys.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
 	 *
-	 * @return instance of ReadIterator
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
+	 * @param callback
+	 *            Function to be called for each batch of key/value pairs.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.2.0
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
 	 */
-	public ReadIterator readIterator() throws DatabaseException {
-		return new ReadIterator(pointer);
+	public void getBetweenBatched(K key1, K key2, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		checkBatchBuffer(batchBuffer);
+		ByteBuffer direct_key1 = directKey(key1, ThreadCache.KEY1_BUFFER);
+		try {
+			ByteBuffer direct_key2 = directKey(key2, ThreadCache.KEY2_BUFFER);
+			try {
+				database_get_batched(pointer, SCAN_BETWEEN, direct_key1.position(), direct_key1, direct_key2.position(),
+						direct_key2, batchBuffer, new RecordBatch<K, V>(this), callback);
+			} finally {
+				releaseDirectKeyBuffer(direct_key2);
+			}
+		} finally {
+			releaseDirectKeyBuffer(direct_key1);
+		}
 	}
 
 	/**
-	 * Executes callback function for every key stored in the pmemkv datastore. Any
-	 * exception thrown by the user from callback will be propagated.
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, in descending order of keys. It works as
+	 * {@link #getAll(KeyValueCallback) getAll()}, but the range is read backward,
+	 * by a ReadIterator - in batches, so there is a single JNI call per batch of
+	 * records, not per record.
 	 *
 	 * @param callback
-	 *            Function to be called for each key.
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @throws OutOfMemoryError
-	 *             Exception will be thrown when data cannot be allocated in DRAM.
-	 * @since 1.0
+	 * @since 1.3.0
 	 */
-	public void getKeys(KeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
-		database_get_keys_buffer(pointer, callback);
+	public void getAllDescending(KeyValueCallback<K, V> callback) throws DatabaseException {
+		forEachDescending(null, null, NO_LIMIT, stoppable(callback));
 	}
 
 	/**
-	 * Executes callback function for every key stored in the pmemkv datastore,
-	 * whose keys are greater than the given key.
+	 * Executes callback function for at most limit key/value pairs stored in the
+	 * pmemkv datastore, in descending order of keys - i.e. for the limit records
+	 * with the greatest keys. Only these records are read, up to 1024 of them in a
+	 * single batch.
+	 *
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
+	 */
+	public void getAllDescending(long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachDescending(null, null, checkLimit(limit), stoppable(callback));
+	}
+
+	/**
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore, in descending order of keys. It works as
+	 * {@link #getAllBatched(ByteBuffer, BatchCallback) getAllBatched()}, but
+	 * records in every batch (and batches themselves) are ordered from the greatest
+	 * key.
+	 *
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
+	 * @param callback
+	 *            Function to be called for each batch of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
+	 */
+	public void getAllDescendingBatched(ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachBatchDescending(null, null, batchBuffer, callback);
+	}
+
+	/**
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are greater than the given key, in descending order of
+	 * keys. It works as {@link #getAbove(Object, KeyValueCallback) getAbove()}, but
+	 * the range is read backward, by a ReadIterator - in batches, so there is a
+	 * single JNI call per batch of records, not per record.
 	 * <p>
 	 * Comparison mechanism is based on binary comparison of bytes - by a function
-	 * equivalent to std::string::compare in C++. Any exception thrown by the user
-	 * from callback will be propagated.
+	 * equivalent to std::string::compare in C++.
 	 *
 	 * @param key
 	 *            Sets the lower bound for querying.
 	 * @param callback
-	 *            Function to be called for each key.
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @throws OutOfMemoryError
-	 *             Exception will be thrown when data cannot be allocated in DRAM.
-	 * @since 1.0
+	 * @since 1.3.0
 	 */
-	public void getKeysAbove(K key, KeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		database_get_keys_above_buffer(pointer, direct_key.position(), direct_key, callback);
+	public void getAboveDescending(K key, KeyValueCallback<K, V> callback) throws DatabaseException {
+		forEachDescending(toKeyBytes(key), null, NO_LIMIT, stoppable(callback));
 	}
 
 	/**
-	 * Executes callback function for every key stored in the pmemkv datastore,
-	 * whose keys are less than the given key.
-	 * <p>
-	 * Comparison mechanism is based on binary comparison of bytes - by a function
-	 * equivalent to std::string::compare in C++. Any exception thrown by the user
-	 * from callback will be propagated.
+	 * Executes callback function for at most limit key/value pairs stored in the
+	 * pmemkv datastore, whose keys are greater than the given key, in descending
+	 * order of keys - i.e. for the limit records with the greatest keys. Only these
+	 * records are read - up to 1024 of them in a single batch.
 	 *
 	 * @param key
-	 *            Sets the upper bound for querying.
+	 *            Sets the lower bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
 	 * @param callback
-	 *            Function to be called for each key.
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @throws OutOfMemoryError
-	 *             Exception will be thrown when data cannot be allocated in DRAM.
-	 * @since 1.0
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
 	 */
-	public void getKeysBelow(K key, KeyCallback<K> callback) throws DatabaseException, OutOfMemoryError {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		database_get_keys_below_buffer(pointer, direct_key.position(), direct_key, callback);
+	public void getAboveDescending(K key, long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachDescending(toKeyBytes(key), null, checkLimit(limit), stoppable(callback));
 	}
 
 	/**
-	 * Executes callback function for every key stored in the pmemkv datastore,
-	 * whose keys are greater than the key1 and less than the key2.
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore, whose keys are greater than the given key, in descending
+	 * order of keys. It works as
+	 * {@link #getAboveBatched(Object, ByteBuffer, BatchCallback)
+	 * getAboveBatched()}, but records in every batch (and batches themselves) are
+	 * ordered from the greatest key.
 	 * <p>
 	 * Comparison mechanism is based on binary comparison of bytes - by a function
-	 * equivalent to std::string::compare in C++. Any exception thrown by the user
-	 * from callback will be propagated.
+	 * equivalent to std::string::compare in C++.
 	 *
-	 * @param key1
+	 * @param key
 	 *            Sets the lower bound for querying.
-	 * @param key2
-	 *            Sets the upper bound for querying.
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
 	 * @param callback
-	 *            Function to be called for each key.
+	 *            Function to be called for each batch of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @throws OutOfMemoryError
-	 *             Exception will be thrown when data cannot be allocated in DRAM.
-	 * @since 1.0
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
 	 */
-	public void getKeysBetween(K key1, K key2, KeyCallback<K> callback)
-			throws DatabaseException, OutOfMemoryError {
-		ByteBuffer direct_key1 = getDirectKeyBuffer(keyConverter.toByteBuffer(key1), ThreadDirectBuffers.KEY1_BUFFER);
-		ByteBuffer direct_key2 = getDirectKeyBuffer(keyConverter.toByteBuffer(key2), ThreadDirectBuffers.KEY2_BUFFER);
-		database_get_keys_between_buffer(pointer, direct_key1.position(), direct_key1, direct_key2.position(),
-				direct_key2, callback);
+	public void getAboveDescendingBatched(K key, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachBatchDescending(toKeyBytes(key), null, batchBuffer, callback);
 	}
 
 	/**
-	 * Returns number of key/value pairs currently stored in the pmemkv datastore.
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are less than the given key, in descending order of
+	 * keys. It works as {@link #getBelow(Object, KeyValueCallback) getBelow()}, but
+	 * the range is read backward, by a ReadIterator - in batches, so there is a
+	 * single JNI call per batch of records, not per record.
+	 * <p>
+	 * Comparison mechanism is based on binary comparison of bytes - by a function
+	 * equivalent to std::string::compare in C++.
 	 *
-	 * @return Total number of elements in the datastore.
+	 * @param key
+	 *            Sets the upper bound for querying.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @since 1.3.0
 	 */
-	public long countAll() throws DatabaseException {
-		return database_count_all(pointer);
+	public void getBelowDescending(K key, KeyValueCallback<K, V> callback) throws DatabaseException {
+		forEachDescending(null, toKeyBytes(key), NO_LIMIT, stoppable(callback));
 	}
 
 	/**
-	 * Returns number of key/value pairs currently stored in the pmemkv datastore,
-	 * whose keys are greater than the given key.
-	 * <p>
-	 * Comparison mechanism is based on binary comparison of bytes - by a function
-	 * equivalent to std::string::compare in C++.
+	 * Executes callback function for at most limit key/value pairs stored in the
+	 * pmemkv datastore, whose keys are less than the given key, in descending order
+	 * of keys - i.e. for the limit records with the greatest keys. Only these
+	 * records are read - up to 1024 of them in a single batch.
 	 *
 	 * @param key
-	 *            Sets the lower bound for querying.
-	 * @return Number of key/value pairs in the datastore, whose keys are greater
-	 *         than the given key.
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
 	 */
-	public long countAbove(K key) throws DatabaseException {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		return database_count_above_buffer(pointer, direct_key.position(), direct_key);
+	public void getBelowDescending(K key, long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachDescending(null, toKeyBytes(key), checkLimit(limit), stoppable(callback));
 	}
 
 	/**
-	 * Returns number of key/value pairs currently stored in the pmemkv datastore,
-	 * whose keys are less than the given key.
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore, whose keys are less than the given key, in descending order
+	 * of keys. It works as
+	 * {@link #getBelowBatched(Object, ByteBuffer, BatchCallback)
+	 * getBelowBatched()}, but records in every batch (and batches themselves) are
+	 * ordered from the greatest key.
 	 * <p>
 	 * Comparison mechanism is based on binary comparison of bytes - by a function
 	 * equivalent to std::string::compare in C++.
 	 *
 	 * @param key
 	 *            Sets the upper bound for querying.
-	 * @return Number of key/value pairs in the datastore, whose keys are less than
-	 *         the given key.
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
+	 * @param callback
+	 *            Function to be called for each batch of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
 	 */
-	public long countBelow(K key) throws DatabaseException {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		return database_count_below_buffer(pointer, direct_key.position(), direct_key);
+	public void getBelowDescendingBatched(K key, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachBatchDescending(null, toKeyBytes(key), batchBuffer, callback);
 	}
 
 	/**
-	 * Returns number of key/value pairs currently stored in the pmemkv datastore,
-	 * whose keys are greater than the key1 and less than the key2.
+	 * Executes callback function for every key/value pair stored in the pmemkv
+	 * datastore, whose keys are greater than the key1 and less than the key2, in
+	 * descending order of keys. It works as
+	 * {@link #getBetween(Object, Object, KeyValueCallback) getBetween()}, but the
+	 * range is read backward, by a ReadIterator - in batches, so there is a single
+	 * JNI call per batch of records, not per record.
 	 * <p>
 	 * Comparison mechanism is based on binary comparison of bytes - by a function
 	 * equivalent to std::string::compare in C++.
@@ -584,94 +3997,151 @@ public class Database<K, V> {
 	 *            Sets the lower bound for querying.
 	 * @param key2
 	 *            Sets the upper bound for querying.
-	 * @return Number of key/value pairs in the datastore, between given keys.
+	 * @param callback
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @since 1.3.0
 	 */
-	public long countBetween(K key1, K key2) throws DatabaseException {
-		ByteBuffer direct_key1 = getDirectKeyBuffer(keyConverter.toByteBuffer(key1), ThreadDirectBuffers.KEY1_BUFFER);
-		ByteBuffer direct_key2 = getDirectKeyBuffer(keyConverter.toByteBuffer(key2), ThreadDirectBuffers.KEY2_BUFFER);
-		return database_count_between_buffer(pointer, direct_key1.position(), direct_key1, direct_key2.position(),
-				direct_key2);
+	public void getBetweenDescending(K key1, K key2, KeyValueCallback<K, V> callback) throws DatabaseException {
+		forEachDescending(toKeyBytes(key1), toKeyBytes(key2), NO_LIMIT, stoppable(callback));
 	}
 
 	/**
-	 * Executes callback function for every key/value pair stored in the pmemkv
-	 * datastore. Any exception thrown by the user from callback will be propagated.
+	 * Executes callback function for at most limit key/value pairs stored in the
+	 * pmemkv datastore, whose keys are greater than the key1 and less than the
+	 * key2, in descending order of keys - i.e. for the limit records with the
+	 * greatest keys. Only these records are read - up to 1024 of them in a single
+	 * batch.
 	 *
+	 * @param key1
+	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param limit
+	 *            maximum number of records passed to the callback.
 	 * @param callback
-	 *            Function to be called for each key/value pair.
+	 *            Function to be called for each specified key/value pair.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @throws IllegalArgumentException
+	 *             if limit is negative.
+	 * @since 1.3.0
 	 */
-	public void getAll(KeyValueCallback<K, V> callback) throws DatabaseException {
-		database_get_all_buffer(pointer, callback);
+	public void getBetweenDescending(K key1, K key2, long limit, KeyValueCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachDescending(toKeyBytes(key1), toKeyBytes(key2), checkLimit(limit), stoppable(callback));
 	}
 
 	/**
-	 * Executes callback function for every key/value pair stored in the pmemkv
-	 * datastore, whose keys are greater than the given key.
+	 * Executes callback function for batches of key/value pairs stored in the
+	 * pmemkv datastore, whose keys are greater than the key1 and less than the
+	 * key2, in descending order of keys. It works as
+	 * {@link #getBetweenBatched(Object, Object, ByteBuffer, BatchCallback)
+	 * getBetweenBatched()}, but records in every batch (and batches themselves) are
+	 * ordered from the greatest key.
 	 * <p>
 	 * Comparison mechanism is based on binary comparison of bytes - by a function
 	 * equivalent to std::string::compare in C++.
 	 *
-	 * @param key
+	 * @param key1
 	 *            Sets the lower bound for querying.
+	 * @param key2
+	 *            Sets the upper bound for querying.
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
 	 * @param callback
-	 *            Function to be called for each specified key/value pair.
+	 *            Function to be called for each batch of key/value pairs.
+	 * @throws NotSupportedException
+	 *             if the engine is not sorted or doesn't support backward
+	 *             iteration.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer.
+	 * @since 1.3.0
 	 */
-	public void getAbove(K key, KeyValueCallback<K, V> callback) throws DatabaseException {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		database_get_above_buffer(pointer, direct_key.position(), direct_key, callback);
+	public void getBetweenDescendingBatched(K key1, K key2, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		forEachBatchDescending(toKeyBytes(key1), toKeyBytes(key2), batchBuffer, callback);
 	}
 
 	/**
-	 * Executes callback function for every key/value pair stored in the pmemkv
-	 * datastore, whose keys are less than the given key.
-	 * <p>
-	 * Comparison mechanism is based on binary comparison of bytes - by a function
-	 * equivalent to std::string::compare in C++.
+	 * Executes callback function on every key/value pair for the given keys. All
+	 * keys are passed to the native layer at once and found records are passed back
+	 * in batches, so there is no JNI call per every key. Keys, which are not
+	 * present in the datastore, are skipped. Any exception thrown by the user from
+	 * callback will be propagated.
 	 *
-	 * @param key
-	 *            Sets the upper bound for querying.
+	 * @param keys
+	 *            keys to query for.
 	 * @param callback
-	 *            Function to be called for each specified key/value pair.
+	 *            Function to be called for each found key/value pair.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @since 1.3.0
 	 */
-	public void getBelow(K key, KeyValueCallback<K, V> callback) throws DatabaseException {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		database_get_below_buffer(pointer, direct_key.position(), direct_key, callback);
+	public void getMulti(Collection<K> keys, KeyValueCallback<K, V> callback) throws DatabaseException {
+		ByteBuffer packed = packKeys(keys);
+		ThreadCache buffers = directBuffers.get();
+		ByteBuffer batchBuffer = buffers.acquireBatchBuffer();
+		try {
+			database_get_multi(pointer, null, packed.array(), packed.arrayOffset(), packed.position(), batchBuffer,
+					new RecordBatch<K, V>(this), (RecordBatch<K, V> batch) -> {
+						while (batch.next()) {
+							callback.process(batch.key(), batch.value());
+						}
+					});
+		} finally {
+			buffers.releaseBatchBuffer(batchBuffer);
+		}
 	}
 
 	/**
-	 * Executes callback function for every key/value pair stored in the pmemkv
-	 * datastore, whose keys are greater than the key1 and less than the key2.
+	 * Executes callback function for batches of key/value pairs for the given,
+	 * already packed keys. Each key has to be preceded with its length (4 bytes in
+	 * native byte order), as in {@link io.pmem.pmemkv.RecordBatch RecordBatch}.
+	 * Packed keys of a direct buffer end at its position, and those of a heap
+	 * buffer are placed between its position and limit.
 	 * <p>
-	 * Comparison mechanism is based on binary comparison of bytes - by a function
-	 * equivalent to std::string::compare in C++.
+	 * Found records are packed into the given batch buffer and the callback is
+	 * called once per every filled buffer. Keys, which are not present in the
+	 * datastore, are skipped. Any exception thrown by the user from callback will
+	 * be propagated.
 	 *
-	 * @param key1
-	 *            Sets the lower bound for querying.
-	 * @param key2
-	 *            Sets the upper bound for querying.
+	 * @param packedKeys
+	 *            buffer with packed keys to query for.
+	 * @param batchBuffer
+	 *            direct ByteBuffer, which will be used to pass records to the
+	 *            callback. Its content will be overwritten.
 	 * @param callback
-	 *            Function to be called for each specified key/value pair.
+	 *            Function to be called for each batch of key/value pairs.
 	 * @throws DatabaseException
 	 *             or derived class that matches pmemkv's status.
-	 * @since 1.0
+	 * @throws IllegalArgumentException
+	 *             if batchBuffer is not a writable, direct ByteBuffer or if
+	 *             packedKeys is a read-only heap buffer.
+	 * @since 1.3.0
 	 */
-	public void getBetween(K key1, K key2, KeyValueCallback<K, V> callback) throws DatabaseException {
-		ByteBuffer direct_key1 = getDirectKeyBuffer(keyConverter.toByteBuffer(key1), ThreadDirectBuffers.KEY1_BUFFER);
-		ByteBuffer direct_key2 = getDirectKeyBuffer(keyConverter.toByteBuffer(key2), ThreadDirectBuffers.KEY2_BUFFER);
-		database_get_between_buffer(pointer, direct_key1.position(), direct_key1, direct_key2.position(), direct_key2,
-				callback);
+	public void getMulti(ByteBuffer packedKeys, ByteBuffer batchBuffer, BatchCallback<K, V> callback)
+			throws DatabaseException, IllegalArgumentException {
+		checkBatchBuffer(batchBuffer);
+		RecordBatch<K, V> batch = new RecordBatch<K, V>(this);
+		if (packedKeys.isDirect()) {
+			database_get_multi(pointer, packedKeys, null, 0, packedKeys.position(), batchBuffer, batch, callback);
+		} else if (packedKeys.hasArray()) {
+			database_get_multi(pointer, null, packedKeys.array(), packedKeys.arrayOffset() + packedKeys.position(),
+					packedKeys.remaining(), batchBuffer, batch, callback);
+		} else {
+			throw new IllegalArgumentException("Packed keys must be stored in a direct or array-backed ByteBuffer");
+		}
 	}
 
 	/**
@@ -685,8 +4155,12 @@ public class Database<K, V> {
 	 * @since 1.0
 	 */
 	public boolean exists(K key) throws DatabaseException {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		return database_exists_buffer(pointer, direct_key.position(), direct_key);
+		ByteBuffer direct_key = directKey(key);
+		try {
+			return database_exists_buffer(pointer, direct_key.position(), direct_key);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
 	}
 
 	/**
@@ -705,8 +4179,48 @@ public class Database<K, V> {
 	 * @since 1.0
 	 */
 	public void get(K key, ValueCallback<V> callback) throws DatabaseException, OutOfMemoryError {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		database_get_buffer_with_callback(pointer, direct_key.position(), direct_key, callback);
+		ByteBuffer direct_key = directKey(key);
+		try {
+			database_get_buffer_with_callback(pointer, direct_key.position(), direct_key, callback);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
+	}
+
+	/**
+	 * Executes callback function on a part of the value for a given key. Only the
+	 * requested range is passed through the JNI layer - it's useful, when just e.g.
+	 * a header of a large value is needed. If the range exceeds the value, it is
+	 * trimmed to the value's end. Any exception thrown by the user from callback
+	 * will be propagated.
+	 *
+	 * @param key
+	 *            key to query for.
+	 * @param pos
+	 *            offset in the value, at which the range begins.
+	 * @param n
+	 *            number of bytes in the range.
+	 * @param callback
+	 *            Function to be called for the requested part of the value.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws IllegalArgumentException
+	 *             if pos or n is negative.
+	 * @throws OutOfMemoryError
+	 *             Exception will be thrown when data cannot be allocated in DRAM.
+	 * @since 1.3.0
+	 */
+	public void getRange(K key, long pos, long n, ValueCallback<V> callback)
+			throws DatabaseException, IllegalArgumentException, OutOfMemoryError {
+		if (pos < 0 || n < 0) {
+			throw new IllegalArgumentException("Range position and length cannot be negative");
+		}
+		ByteBuffer direct_key = directKey(key);
+		try {
+			database_get_range(pointer, direct_key.position(), direct_key, pos, n, callback);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
 	}
 
 	/**
@@ -722,17 +4236,68 @@ public class Database<K, V> {
 	 */
 	public V getCopy(K key) throws DatabaseException {
 		byte value[];
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
+		ByteBuffer direct_key = directKey(key);
 		try {
-			value = database_get_bytes(pointer, direct_key.position(), direct_key);
-		} catch (NotFoundException kve) {
-			return null;
-		} catch (ArrayIndexOutOfBoundsException e) {
-			throw new DatabaseException("Internal exception occurred.");
+			try {
+				value = database_get_bytes(pointer, direct_key.position(), direct_key);
+			} catch (ArrayIndexOutOfBoundsException e) {
+				throw new DatabaseException("Internal exception occurred.");
+			}
+			if (value == null) {
+				return null;
+			}
+			V retval = valueConverter.fromByteBuffer(ByteBuffer.wrap(value));
+
+			return retval;
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
 		}
-		V retval = valueConverter.fromByteBuffer(ByteBuffer.wrap(value));
+	}
 
-		return retval;
+	/**
+	 * Copies the entire value for a given key into the given buffer, starting at
+	 * its current position. No intermediate buffers are allocated, the value is
+	 * copied directly from the pmemkv datastore into the buffer. If the value was
+	 * copied, the position of the buffer is advanced by its length.
+	 * <p>
+	 * If the value does not fit into the remaining space of the buffer, nothing is
+	 * copied and the required length is returned as a negative number. The buffer
+	 * can be either direct or not.
+	 *
+	 * @param key
+	 *            key to query for.
+	 * @param dst
+	 *            buffer, into which the value will be copied.
+	 * @return Length of the value, if it was copied; negated length of the value,
+	 *         if it does not fit into the buffer; {@link #NOT_FOUND NOT_FOUND} if
+	 *         there is no record with the given key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @throws ReadOnlyBufferException
+	 *             if dst is a read-only buffer.
+	 * @since 1.3.0
+	 */
+	public int getInto(K key, ByteBuffer dst) throws DatabaseException, ReadOnlyBufferException {
+		if (dst.isReadOnly()) {
+			throw new ReadOnlyBufferException();
+		}
+		ByteBuffer direct_key = directKey(key);
+		try {
+			int length;
+			if (dst.isDirect()) {
+				length = database_get_into(pointer, direct_key.position(), direct_key, dst, null, dst.position(),
+						dst.remaining());
+			} else {
+				length = database_get_into(pointer, direct_key.position(), direct_key, null, dst.array(),
+						dst.arrayOffset() + dst.position(), dst.remaining());
+			}
+			if (length >= 0) {
+				dst.position(dst.position() + length);
+			}
+			return length;
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
 	}
 
 	/**
@@ -749,10 +4314,18 @@ public class Database<K, V> {
 	 * @since 1.0
 	 */
 	public void put(K key, V value) throws DatabaseException {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		ByteBuffer direct_value = getDirectValueBuffer(valueConverter.toByteBuffer(value));
-
-		database_put_buffer(pointer, direct_key.position(), direct_key, direct_value.position(), direct_value);
+		ByteBuffer direct_key = directKey(key);
+		try {
+			ByteBuffer value_buffer = convertValue(value);
+			ByteBuffer direct_value = getDirectValueBuffer(value_buffer, value);
+			try {
+				database_put_buffer(pointer, direct_key.position(), direct_key, direct_value.position(), direct_value);
+			} finally {
+				releaseDirectValueBuffer(value_buffer, direct_value);
+			}
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
 	}
 
 	/**
@@ -767,8 +4340,94 @@ public class Database<K, V> {
 	 * @since 1.0
 	 */
 	public boolean remove(K key) throws DatabaseException {
-		ByteBuffer direct_key = getDirectKeyBuffer(keyConverter.toByteBuffer(key));
-		return database_remove_buffer(pointer, direct_key.position(), direct_key);
+		ByteBuffer direct_key = directKey(key);
+		try {
+			return database_remove_buffer(pointer, direct_key.position(), direct_key);
+		} finally {
+			releaseDirectKeyBuffer(direct_key);
+		}
+	}
+
+	/**
+	 * Inserts new record with a long key and a long value, without converters - the
+	 * numbers are encoded by the native layer, so no objects are allocated. The key
+	 * is stored as 8 bytes, big-endian, with the sign bit flipped, so the byte
+	 * order of keys (used by sorted engines) matches their numeric order. The value
+	 * is stored as 8 bytes, big-endian (as written by ByteBuffer.putLong()).
+	 * <p>
+	 * Records with long keys may be stored with other records in the same database;
+	 * such keys are then seen by the key converter as 8-byte buffers.
+	 *
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            the value to be inserted for the specified key.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public void putLong(long key, long value) throws DatabaseException {
+		database_put_long(pointer, key, value);
+	}
+
+	/**
+	 * Gets a long value for a given long key, stored by {@link #putLong(long, long)
+	 * putLong()}.
+	 *
+	 * @param key
+	 *            key to query for.
+	 * @param defaultValue
+	 *            value returned if there is no record with the given key.
+	 * @return Value associated with the given key, or defaultValue if not found.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status, or
+	 *             DatabaseException if the value is not 8 bytes long.
+	 * @since 1.3.0
+	 */
+	public long getLong(long key, long defaultValue) throws DatabaseException {
+		return database_get_long(pointer, key, defaultValue);
+	}
+
+	/**
+	 * Removes a record with a given long key, stored by {@link #putLong(long, long)
+	 * putLong()}.
+	 *
+	 * @param key
+	 *            key to query for, to be removed.
+	 * @return true if element was removed, false if element didn't exist before
+	 *         removal.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status.
+	 * @since 1.3.0
+	 */
+	public boolean removeLong(long key) throws DatabaseException {
+		return database_remove_long(pointer, key);
+	}
+
+	/**
+	 * Executes callback function for every record with a long key from the range
+	 * [from, to], in the order of keys, stored by {@link #putLong(long, long)
+	 * putLong()}. Keys and values are decoded by the native layer and passed as
+	 * primitives. Other records, which keys aren't 8 bytes long, are skipped. It's
+	 * supported only by sorted engines. Any exception thrown by the user from
+	 * callback will be propagated. Both bounds are inclusive, so all long keys are
+	 * scanned by getLongRange(Long.MIN_VALUE, Long.MAX_VALUE, callback).
+	 *
+	 * @param from
+	 *            the lowest key of the range (inclusive).
+	 * @param to
+	 *            the highest key of the range (inclusive).
+	 * @param callback
+	 *            Function to be called for each record in the range.
+	 * @throws DatabaseException
+	 *             or derived class that matches pmemkv's status, or
+	 *             DatabaseException if a value in the range is not 8 bytes long.
+	 * @since 1.3.0
+	 */
+	public void getLongRange(long from, long to, LongKeyValueCallback callback) throws DatabaseException {
+		if (from <= to) {
+			database_get_long_range(pointer, from, to, callback);
+		}
 	}
 
 	/**
@@ -789,6 +4448,10 @@ public class Database<K, V> {
 		private Converter<V> valueConverter;
 		private int keyBufferSize = 10485760; /* default size - 10MiB */
 		private int valueBufferSize = 10485760;
+		private boolean reuseCallbackBuffers = false;
+		private boolean chunkedScans = false;
+		private int iteratorPoolSize = 0;
+		private long directMemoryLimit = 268435456; /* default limit - 256MiB */
 
 		public Builder(String engine) {
 			config = config_new();
@@ -927,16 +4590,16 @@ public class Database<K, V> {
 		}
 
 		/**
-		 * Sets a size of a preallocated direct buffers for keys (there are 2 buffers
-		 * per thread). These buffers allow avoiding further costly allocations. So the
-		 * size should be bigger than most of the expected keys in the DB, because in
-		 * case of every bigger key than the size of the buffer, an additional
-		 * allocation is required. Every thread has its own two buffers so the real size
-		 * of used memory will be 2 * size * numberOfThreads. The default size is 10MiB,
-		 * max size is Integer.MAX_VALUE bytes.
+		 * Sets a maximal size of direct buffers for keys, cached by every thread (there
+		 * are 2 buffers per thread). These buffers allow avoiding further costly
+		 * allocations. They are allocated lazily and sized (in powers of two) to the
+		 * biggest key used by the thread, so a thread using only small keys keeps only
+		 * small buffers. In case of every bigger key than the size, an additional
+		 * allocation is required. The default size is 10MiB, max size is
+		 * Integer.MAX_VALUE bytes.
 		 *
 		 * @param size
-		 *            Size of a key buffer(s) in bytes.
+		 *            Maximal size of a key buffer(s) in bytes.
 		 *
 		 * @return this builder object.
 		 * @throws IllegalArgumentException
@@ -952,16 +4615,15 @@ public class Database<K, V> {
 		}
 
 		/**
-		 * Sets a size of a preallocated direct buffer for values. This buffer allows
-		 * avoiding further costly allocations. So the size should be bigger than most
-		 * of the expected values in the DB, because in case of every bigger value than
-		 * the size of the buffer, an additional allocation is required. Every thread
-		 * has its own buffer so the real size of used memory will be size *
-		 * numberOfThreads. The default size is 10MiB, max size is Integer.MAX_VALUE
-		 * bytes.
+		 * Sets a maximal size of a direct buffer for values, cached by every thread.
+		 * This buffer allows avoiding further costly allocations. It's allocated lazily
+		 * and sized (in powers of two) to the biggest value used by the thread. Bigger
+		 * values are copied into buffers taken from a pool shared by all threads, which
+		 * are returned to the pool after use. The default size is 10MiB, max size is
+		 * Integer.MAX_VALUE bytes.
 		 *
 		 * @param size
-		 *            Size of a value buffer in bytes.
+		 *            Maximal size of a value buffer in bytes.
 		 *
 		 * @return this builder object.
 		 * @throws IllegalArgumentException
@@ -976,6 +4638,101 @@ public class Database<K, V> {
 			return this;
 		}
 
+		/**
+		 * Sets whether ByteBuffers passed to converters during scans (getAll(),
+		 * getKeys() and their variants) are reused. If set, only one key buffer and one
+		 * value buffer is created per scan and they are repointed by the native layer
+		 * to every next record, instead of allocating new direct buffers for each
+		 * record. In such case buffers (and objects returned by ByteBufferConverter)
+		 * are valid only until the callback returns and they have to be copied to be
+		 * used later. By default, buffers are not reused.
+		 *
+		 * @param reuse
+		 *            true to reuse buffers passed to the callbacks.
+		 *
+		 * @return this builder object.
+		 * @since 1.3.0
+		 */
+		public Builder<K, V> setReuseCallbackBuffers(boolean reuse) {
+			this.reuseCallbackBuffers = reuse;
+			return this;
+		}
+
+		/**
+		 * Sets whether scans with callbacks (getAll(), getKeys() and their variants),
+		 * run on virtual threads (Java 21+), are read in chunks. A single native scan
+		 * pins the virtual thread's carrier until all callbacks return, so callbacks,
+		 * which block, hold carrier threads. If set, scans of sorted engines are read
+		 * by a ReadIterator in chunks, each one by a short native call, and callbacks
+		 * are run between these calls, when the carrier is not pinned.
+		 * <p>
+		 * Chunked scans are not equivalent to native ones: there is no single snapshot
+		 * of the scanned range, so records changed during the scan may be seen or not,
+		 * and callbacks are passed copies of keys and values on the heap (so
+		 * setReuseCallbackBuffers() doesn't apply). Scans run on platform threads are
+		 * not affected. By default, all scans are native.
+		 *
+		 * @param chunked
+		 *            true to read scans run on virtual threads in chunks.
+		 *
+		 * @return this builder object.
+		 * @since 1.3.0
+		 */
+		public Builder<K, V> setChunkedScansOnVirtualThreads(boolean chunked) {
+			this.chunkedScans = chunked;
+			return this;
+		}
+
+		/**
+		 * Sets maximal number of closed read iterators, which are kept by the Database
+		 * to be reused. Reusing a native iterator saves its allocation on every
+		 * readIterator() call. By default, iterators are not pooled.
+		 * <p>
+		 * Pooled iterators are not released until the Database is stopped. Iterators of
+		 * some engines (e.g. csmap) hold locks, which may block other operations, so
+		 * pooling should be used only with engines, which iterators don't lock the
+		 * database.
+		 *
+		 * @param size
+		 *            maximal number of pooled iterators, 0 disables pooling.
+		 *
+		 * @return this builder object.
+		 * @throws IllegalArgumentException
+		 *             if size is negative.
+		 * @since 1.3.0
+		 */
+		public Builder<K, V> setIteratorPoolSize(int size) throws IllegalArgumentException {
+			if (size < 0)
+				throw new IllegalArgumentException("Pool size must be >= 0");
+
+			this.iteratorPoolSize = size;
+			return this;
+		}
+
+		/**
+		 * Sets a limit of direct memory retained for keys and values - by buffers
+		 * cached by threads and by the pool of buffers shared by all threads. Buffers,
+		 * which would exceed the limit, are allocated for a single call and released by
+		 * the garbage collector. Buffers cached by terminated threads are moved back to
+		 * the pool and buffers cached by threads, which don't use the Database for a
+		 * while, are released. The default limit is 256MiB.
+		 *
+		 * @param limit
+		 *            limit of retained direct memory in bytes.
+		 *
+		 * @return this builder object.
+		 * @throws IllegalArgumentException
+		 *             if limit is negative.
+		 * @since 1.3.0
+		 */
+		public Builder<K, V> setDirectMemoryLimit(long limit) throws IllegalArgumentException {
+			if (limit < 0)
+				throw new IllegalArgumentException("Direct memory limit must be >= 0");
+
+			this.directMemoryLimit = limit;
+			return this;
+		}
+
 		// JNI DATABASE BUILDER METHODS
 		// --------------------------------------------------------------------------------
 		private long config = 0;
@@ -1030,15 +4787,25 @@ public class Database<K, V> {
 	private Database(Builder<K, V> builder) {
 		keyConverter = builder.keyConverter;
 		valueConverter = builder.valueConverter;
+		keyEncoder = (keyConverter instanceof EncodingConverter ? (EncodingConverter<K>) keyConverter : null);
+		valueEncoder = (valueConverter instanceof EncodingConverter ? (EncodingConverter<V>) valueConverter : null);
 		keyBufferSize = builder.keyBufferSize;
 		valueBufferSize = builder.valueBufferSize;
+		bufferPool = new DirectBufferPool(builder.directMemoryLimit);
+		reuseCallbackBuffers = builder.reuseCallbackBuffers;
+		chunkedScans = builder.chunkedScans;
+		iteratorPool = (builder.iteratorPoolSize > 0 ? new ArrayBlockingQueue<Long>(builder.iteratorPoolSize) : null);
 		long config = builder.config;
 		builder.config = 0;
 		pointer = database_start(builder.engine, config);
 	}
 
 	private final long pointer;
-	private boolean stopped;
+	/*
+	 * Read by iterators closed on other threads, to decide if they may be pooled,
+	 * and by new RequestRings; set together with draining the pool, under its lock
+	 */
+	private volatile boolean stopped;
 
 	// JNI DATABASE METHODS
 	// --------------------------------------------------------------------------------
@@ -1046,14 +4813,10 @@ public class Database<K, V> {
 
 	private native void database_stop(long ptr);
 
-	private native void database_get_keys_buffer(long ptr, KeyCallback<K> cb);
-
-	private native void database_get_keys_above_buffer(long ptr, int kb, ByteBuffer k, KeyCallback<K> cb);
-
-	private native void database_get_keys_below_buffer(long ptr, int kb, ByteBuffer k, KeyCallback<K> cb);
+	private native void database_delete_read_iterator(long iterator_ptr);
 
-	private native void database_get_keys_between_buffer(long ptr, int kb1, ByteBuffer k1, int kb2, ByteBuffer k2,
-			KeyCallback<K> cb);
+	private native void database_get_keys(long ptr, int range, int kb1, ByteBuffer k1, int kb2, ByteBuffer k2,
+			long limit, StoppableKeyCallback<K> cb);
 
 	private native long database_count_all(long ptr);
 
@@ -1063,14 +4826,19 @@ public class Database<K, V> {
 
 	private native long database_count_between_buffer(long ptr, int kb1, ByteBuffer k1, int kb2, ByteBuffer k2);
 
-	private native void database_get_all_buffer(long ptr, KeyValueCallback<K, V> cb);
+	private native long database_count_prefix_buffer(long ptr, int kb, ByteBuffer k);
 
-	private native void database_get_above_buffer(long ptr, int kb, ByteBuffer k, KeyValueCallback<K, V> cb);
+	private native void database_get_records(long ptr, int range, int kb1, ByteBuffer k1, int kb2, ByteBuffer k2,
+			long limit, StoppableKeyValueCallback<K, V> cb);
 
-	private native void database_get_below_buffer(long ptr, int kb, ByteBuffer k, KeyValueCallback<K, V> cb);
+	private native void database_get_views(long ptr, int range, int kb1, ByteBuffer k1, int kb2, ByteBuffer k2,
+			long limit, ViewCallback<K, V> cb);
 
-	private native void database_get_between_buffer(long ptr, int kb1, ByteBuffer k1, int kb2, ByteBuffer k2,
-			KeyValueCallback<K, V> cb);
+	private native void database_get_batched(long ptr, int range, int kb1, ByteBuffer k1, int kb2, ByteBuffer k2,
+			ByteBuffer batch, RecordBatch<K, V> recordBatch, BatchCallback<K, V> cb);
+
+	private native void database_get_multi(long ptr, ByteBuffer keysBuffer, byte[] keysArray, int offset,
+			int length, ByteBuffer batch, RecordBatch<K, V> recordBatch, BatchCallback<K, V> cb);
 
 	private native boolean database_exists_buffer(long ptr, int kb, ByteBuffer k);
 
@@ -1078,7 +4846,22 @@ public class Database<K, V> {
 
 	private native byte[] database_get_bytes(long ptr, int kb, ByteBuffer k);
 
+	private native void database_get_range(long ptr, int kb, ByteBuffer k, long pos, long n, ValueCallback<V> cb);
+
+	private native int database_get_into(long ptr, int kb, ByteBuffer k, ByteBuffer dstBuffer, byte[] dstArray,
+			int offset, int capacity);
+
 	private native void database_put_buffer(long ptr, int kb, ByteBuffer k, int vb, ByteBuffer v);
 
 	private native boolean database_remove_buffer(long ptr, int kb, ByteBuffer k);
+
+	private native void database_write(long ptr, ByteBuffer batch, int length);
+
+	private native void database_put_long(long ptr, long key, long value);
+
+	private native long database_get_long(long ptr, long key, long defaultValue);
+
+	private native boolean database_remove_long(long ptr, long key);
+
+	private native void database_get_long_range(long ptr, long from, long to, LongKeyValueCallback cb);
 }
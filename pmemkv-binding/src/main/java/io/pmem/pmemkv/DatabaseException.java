@@ -1,5 +1,5 @@
 // SPDX-License-Identifier: BSD-3-Clause
-/* Copyright 2017-2020, Intel Corporation */
+/* Copyright 2017-2022, Intel Corporation */
 
 package io.pmem.pmemkv;
 
@@ -17,4 +17,19 @@ public class DatabaseException extends RuntimeException {
 	public DatabaseException(String message) {
 		super(message);
 	}
+
+	/**
+	 * Constructs exception, which may skip filling in its stack trace. It's meant
+	 * for subclasses representing statuses expected in a normal flow of the
+	 * program, for which gathering the stack trace would be a needless cost.
+	 *
+	 * @param message
+	 *            the detail message.
+	 * @param writableStackTrace
+	 *            whether the stack trace should be filled in.
+	 * @since 1.3.0
+	 */
+	protected DatabaseException(String message, boolean writableStackTrace) {
+		super(message, null, true, writableStackTrace);
+	}
 }
@@ -0,0 +1,354 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Pool of direct ByteBuffers, shared by all threads using a Database. Buffers
+ * are allocated in size classes (powers of two, from 64 B to 64 MiB), bigger
+ * ones are allocated with exact size and never pooled.
+ *
+ * Every thread has a small ThreadCache of buffers, which are sized lazily to
+ * the biggest key (or value) used by the thread, up to a per-slot limit. Memory
+ * retained by the pool - free buffers and buffers cached by threads - never
+ * exceeds the pool's limit; buffers which would exceed it are left to the
+ * garbage collector.
+ *
+ * Caches are registered with weak references only. The pool is swept (at most
+ * once per SWEEP_INTERVAL_NANOS, whenever it's used): buffers of caches, which
+ * were garbage collected with their terminated threads, are moved back to the
+ * pool, and buffers of caches unused for IDLE_NANOS are dropped.
+ *
+ * Caches of virtual threads, which may be millions, are limited to small keys
+ * and values (bigger ones use pooled buffers) and don't keep a batch buffer.
+ */
+class DirectBufferPool {
+	private static final int MIN_CLASS_SHIFT = 6;
+	private static final int MAX_CLASS_SHIFT = 26;
+	/* Maximal size of a buffer cached by a virtual thread */
+	private static final int VIRTUAL_THREAD_LIMIT = 4096;
+	/* Minimal time between two sweeps of the thread caches */
+	static final long SWEEP_INTERVAL_NANOS = 1000000000L;
+	/* Time after which buffers of an unused thread cache are dropped */
+	static final long IDLE_NANOS = 10000000000L;
+
+	private final ArrayList<ConcurrentLinkedQueue<ByteBuffer>> free = new ArrayList<>();
+	private final Set<CacheReference> caches = Collections
+			.newSetFromMap(new ConcurrentHashMap<CacheReference, Boolean>());
+	private final ReferenceQueue<ThreadCache> collected = new ReferenceQueue<>();
+	private final AtomicLong retained = new AtomicLong();
+	private final long limit;
+	private volatile long lastSweep = System.nanoTime();
+
+	DirectBufferPool(long limit) {
+		this.limit = limit;
+		for (int shift = MIN_CLASS_SHIFT; shift <= MAX_CLASS_SHIFT; shift++) {
+			free.add(new ConcurrentLinkedQueue<ByteBuffer>());
+		}
+	}
+
+	/* Returns capacity of a buffer allocated for the given size */
+	static int classSize(int size) {
+		if (size <= 1 << MIN_CLASS_SHIFT) {
+			return 1 << MIN_CLASS_SHIFT;
+		}
+		if (size > 1 << MAX_CLASS_SHIFT) {
+			return size;
+		}
+		return Integer.highestOneBit(size - 1) << 1;
+	}
+
+	/* Returns index of a size class, or -1 if capacity is not a class size */
+	private static int classIndex(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			return -1;
+		}
+		int shift = Integer.numberOfTrailingZeros(capacity);
+		if (shift < MIN_CLASS_SHIFT || shift > MAX_CLASS_SHIFT) {
+			return -1;
+		}
+		return shift - MIN_CLASS_SHIFT;
+	}
+
+	/* Takes a buffer of at least the given size from the pool (or allocates it) */
+	ByteBuffer acquire(int size) {
+		boolean swept = sweep();
+		int capacity = classSize(size);
+		int index = classIndex(capacity);
+		if (index >= 0) {
+			ByteBuffer buffer = free.get(index).poll();
+			if (buffer == null && !swept && reclaimCollected()) {
+				buffer = free.get(index).poll();
+			}
+			if (buffer != null) {
+				retained.addAndGet(-capacity);
+				buffer.clear();
+				return buffer;
+			}
+		}
+		return ByteBuffer.allocateDirect(capacity);
+	}
+
+	/* Returns the buffer to the pool; it mustn't be used afterwards */
+	void release(ByteBuffer buffer) {
+		int index = classIndex(buffer.capacity());
+		if (index >= 0 && retain(buffer.capacity())) {
+			free.get(index).offer(buffer);
+		}
+	}
+
+	/* Accounts bytes kept by the pool or a thread cache, if they fit the limit */
+	boolean retain(int bytes) {
+		long current;
+		do {
+			current = retained.get();
+			if (current + bytes > limit) {
+				return false;
+			}
+		} while (!retained.compareAndSet(current, current + bytes));
+		return true;
+	}
+
+	void unretain(int bytes) {
+		retained.addAndGet(-bytes);
+	}
+
+	long retainedBytes() {
+		return retained.get();
+	}
+
+	ThreadCache newThreadCache(int keyLimit, int valueLimit) {
+		boolean virtual = VirtualThreads.isCurrentVirtual();
+		if (virtual) {
+			keyLimit = Math.min(keyLimit, VIRTUAL_THREAD_LIMIT);
+			valueLimit = Math.min(valueLimit, VIRTUAL_THREAD_LIMIT);
+		}
+		ThreadCache cache = new ThreadCache(this, keyLimit, valueLimit, virtual);
+		/* keeps the registry bounded by the number of live caches */
+		if (!sweep()) {
+			reclaimCollected();
+		}
+		caches.add(new CacheReference(cache, collected));
+		return cache;
+	}
+
+	boolean sweep() {
+		return sweep(System.nanoTime());
+	}
+
+	/*
+	 * Sweeps the thread caches, unless the last sweep was less than
+	 * SWEEP_INTERVAL_NANOS before the given time. Returns true if any buffers were
+	 * moved back to the pool.
+	 */
+	boolean sweep(long now) {
+		if (now - lastSweep < SWEEP_INTERVAL_NANOS) {
+			return false;
+		}
+		synchronized (this) {
+			if (now - lastSweep < SWEEP_INTERVAL_NANOS) {
+				return false;
+			}
+			lastSweep = now;
+			boolean reclaimed = reclaimCollected();
+			for (CacheReference reference : caches) {
+				ThreadCache cache = reference.get();
+				if (cache != null) {
+					cache.sweep(now);
+				}
+			}
+			return reclaimed;
+		}
+	}
+
+	/* Moves buffers of garbage collected caches to the pool, if any */
+	private boolean reclaimCollected() {
+		boolean reclaimed = false;
+		CacheReference reference;
+		while ((reference = (CacheReference) collected.poll()) != null) {
+			caches.remove(reference);
+			reclaimed |= drop(reference.buffers, true);
+		}
+		return reclaimed;
+	}
+
+	/*
+	 * Empties the cache's slots. Their buffers are moved to the pool only if the
+	 * cache's owner has terminated, as otherwise they may be still in use by a call
+	 * in progress - then they are left to the garbage collector.
+	 */
+	private boolean drop(AtomicReferenceArray<ByteBuffer> buffers, boolean reuse) {
+		boolean dropped = false;
+		for (int i = 0; i < buffers.length(); i++) {
+			ByteBuffer buffer = buffers.getAndSet(i, null);
+			if (buffer != null) {
+				unretain(buffer.capacity());
+				if (reuse) {
+					release(buffer);
+				}
+				dropped = true;
+			}
+		}
+		return dropped;
+	}
+
+	/*
+	 * Weak reference to a ThreadCache, which keeps the cache's buffers, so they can
+	 * be moved back to the pool once the cache is garbage collected.
+	 */
+	private static class CacheReference extends WeakReference<ThreadCache> {
+		private final AtomicReferenceArray<ByteBuffer> buffers;
+
+		CacheReference(ThreadCache cache, ReferenceQueue<ThreadCache> queue) {
+			super(cache, queue);
+			this.buffers = cache.buffers;
+		}
+	}
+
+	/*
+	 * Buffers of a single thread. A cached buffer is returned for every call (of
+	 * the same slot), so it's valid only until the thread's next call. A slot is
+	 * grown by replacing its buffer with a bigger one. The old buffer is then left
+	 * to the garbage collector, not to the pool, as it may still be in use by an
+	 * outer call (e.g. when a Database method is called from a callback).
+	 *
+	 * Buffers exceeding the slot's limit are taken from the pool for a single call
+	 * and have to be returned with release(). The cached buffers are only read by
+	 * the pool's sweep, which may drop them (atomically) when the cache is idle.
+	 */
+	static class ThreadCache {
+		static final int KEY1_BUFFER = 0;
+		static final int KEY2_BUFFER = 1;
+		static final int VALUE_BUFFER = 2;
+		static final int BATCH_BUFFER_SIZE = 65536;
+		private static final int BATCH_BUFFER = 3;
+
+		private final DirectBufferPool pool;
+		private final AtomicReferenceArray<ByteBuffer> buffers = new AtomicReferenceArray<>(4);
+		private final int[] limits;
+		private final boolean virtual;
+		/* Pooled buffers returned by get(), until they are released */
+		private ArrayList<ByteBuffer> borrowed = null;
+		private ByteBuffer batchBufferInUse = null;
+		/* Set by the pool's sweep and cleared by the owner on every use */
+		private volatile boolean idle = false;
+		private long idleSince;
+
+		private ThreadCache(DirectBufferPool pool, int keyLimit, int valueLimit, boolean virtual) {
+			this.pool = pool;
+			this.limits = new int[]{keyLimit, keyLimit, valueLimit};
+			this.virtual = virtual;
+		}
+
+		/*
+		 * Returns buffer of the slot, with at least the given size, which has to be
+		 * passed to release() when the call completes. If the size exceeds the slot's
+		 * limit (or the pool's limit), the buffer is taken from the pool instead.
+		 */
+		ByteBuffer get(int number, int size) {
+			touch();
+			ByteBuffer buffer = buffers.get(number);
+			if (buffer != null && buffer.capacity() >= size) {
+				return buffer;
+			}
+			if (size > limits[number]) {
+				return borrow(pool.acquire(size));
+			}
+			ByteBuffer grown = pool.acquire(size);
+			if (!pool.retain(grown.capacity())) {
+				return borrow(grown);
+			}
+			ByteBuffer replaced = buffers.getAndSet(number, grown);
+			if (replaced != null) {
+				pool.unretain(replaced.capacity());
+			}
+			return grown;
+		}
+
+		/* Returns buffer taken by get() to the pool; cached buffers stay in place */
+		void release(ByteBuffer buffer) {
+			if (borrowed == null) {
+				return;
+			}
+			/* calls are nested, so the buffer is most likely the last one */
+			for (int i = borrowed.size() - 1; i >= 0; i--) {
+				if (borrowed.get(i) == buffer) {
+					borrowed.remove(i);
+					pool.release(buffer);
+					return;
+				}
+			}
+		}
+
+		private ByteBuffer borrow(ByteBuffer buffer) {
+			if (borrowed == null) {
+				borrowed = new ArrayList<>(2);
+			}
+			borrowed.add(buffer);
+			return buffer;
+		}
+
+		/*
+		 * Batch buffer is passed to callbacks, which may call other Database methods,
+		 * so it can't be used by two calls at once. If it's already in use (by an outer
+		 * call in this thread) or the thread is virtual, a pooled buffer is used.
+		 */
+		ByteBuffer acquireBatchBuffer() {
+			touch();
+			if (batchBufferInUse != null || virtual) {
+				return pool.acquire(BATCH_BUFFER_SIZE);
+			}
+			ByteBuffer buffer = buffers.get(BATCH_BUFFER);
+			if (buffer == null) {
+				buffer = pool.acquire(BATCH_BUFFER_SIZE);
+				if (!pool.retain(buffer.capacity())) {
+					return buffer;
+				}
+				buffers.set(BATCH_BUFFER, buffer);
+			}
+			batchBufferInUse = buffer;
+			return buffer;
+		}
+
+		void releaseBatchBuffer(ByteBuffer buffer) {
+			if (buffer == batchBufferInUse) {
+				batchBufferInUse = null;
+				if (buffer == buffers.get(BATCH_BUFFER)) {
+					return;
+				}
+				/* dropped by the pool's sweep while in use */
+			}
+			pool.release(buffer);
+		}
+
+		private void touch() {
+			if (idle) {
+				idle = false;
+			}
+		}
+
+		/*
+		 * Called by the pool's sweep: marks the cache idle, or drops its buffers, if it
+		 * hasn't been used since it was marked idle, at least IDLE_NANOS ago.
+		 */
+		private void sweep(long now) {
+			if (!idle) {
+				idle = true;
+				idleSince = now;
+			} else if (now - idleSince >= IDLE_NANOS) {
+				pool.drop(buffers, false);
+			}
+		}
+	}
+}
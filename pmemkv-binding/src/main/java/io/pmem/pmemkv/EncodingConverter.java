@@ -0,0 +1,45 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Extension of the Converter interface, which encodes objects directly into a
+ * buffer provided by the {@link io.pmem.pmemkv.Database Database}, instead of
+ * returning a new ByteBuffer. Keys and values are then written straight into
+ * the direct memory passed to the native layer, so no temporary buffer is
+ * allocated and copied per call.
+ * <p>
+ * toByteBuffer() is still used by getMulti(), which packs all keys into a
+ * standalone buffer, so it must produce the same bytes as encodeInto().
+ *
+ * @param <T>
+ *            the type of an object, which will be converted to ByteBuffer and
+ *            stored in the pmemkv datastore.
+ * @since 1.3.0
+ */
+public interface EncodingConverter<T> extends Converter<T> {
+	/**
+	 * Returns number of bytes, which encodeInto() writes for the given object.
+	 *
+	 * @param entry
+	 *            Object of type T, which will be stored in the pmemkv datastore.
+	 * @return size of the encoded object in bytes.
+	 */
+	public int encodedSize(T entry);
+
+	/**
+	 * Writes the encoded object into the target buffer, starting at its position,
+	 * and advances the position by exactly encodedSize(entry) bytes. The target
+	 * (usually a direct buffer) has at least that many bytes remaining; its byte
+	 * order is not specified.
+	 *
+	 * @param entry
+	 *            Object of type T, which will be stored in the pmemkv datastore.
+	 * @param target
+	 *            buffer, into which the object is encoded.
+	 */
+	public void encodeInto(T entry, ByteBuffer target);
+}
@@ -0,0 +1,30 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+/**
+ * Represents callback function, which handles key/value use cases, but gets
+ * values as lazy {@link io.pmem.pmemkv.ValueView ValueView} - only keys are
+ * converted before the call. Such expression may be passed to get*Views()
+ * methods in {@link io.pmem.pmemkv.Database Database} class.
+ *
+ * @param <KeyT>
+ *            the type of a key stored in the pmemkv database
+ * @param <ValueT>
+ *            the type of a value stored in the pmemkv database
+ * @since 1.3.0
+ */
+@FunctionalInterface
+public interface KeyValueViewCallback<KeyT, ValueT> {
+	/**
+	 * It's internally used as a middle layer to run callback function
+	 *
+	 * @param key
+	 *            the key returned by pmemkv engine to the callback function
+	 * @param value
+	 *            view of the value, valid only until the callback returns
+	 */
+	void process(KeyT key, ValueView<ValueT> value);
+
+}
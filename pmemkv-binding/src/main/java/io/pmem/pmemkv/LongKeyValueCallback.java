@@ -0,0 +1,25 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+/**
+ * Represents callback function, which handles records with long keys and
+ * values. Such expression may be passed to
+ * {@link io.pmem.pmemkv.Database#getLongRange(long, long, LongKeyValueCallback)
+ * Database.getLongRange()}. Keys and values are passed as primitives, so no
+ * objects are allocated per record.
+ */
+@FunctionalInterface
+public interface LongKeyValueCallback {
+	/**
+	 * It's called directly by the native layer, for each record
+	 *
+	 * @param key
+	 *            the key returned by pmemkv engine to the callback function
+	 * @param value
+	 *            the value returned by pmemkv engine to the callback function
+	 */
+	void process(long key, long value);
+
+}
@@ -1,10 +1,13 @@
 // SPDX-License-Identifier: BSD-3-Clause
-/* Copyright 2020, Intel Corporation */
+/* Copyright 2020-2022, Intel Corporation */
 
 package io.pmem.pmemkv;
 
 /**
  * Database entry or config item not found.
+ * <p>
+ * Missing entries are expected during a normal use of the datastore, so this
+ * exception does not fill in its stack trace.
  *
  * @see <a href=
  *      "https://pmem.io/pmemkv/master/manpages/libpmemkv.3.html#errors">Pmemkv
@@ -14,6 +17,6 @@ package io.pmem.pmemkv;
 public class NotFoundException extends DatabaseException {
 
 	public NotFoundException(String message) {
-		super(message);
+		super(message, false);
 	}
 }
@@ -0,0 +1,65 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single page of key/value pairs, returned by page() methods of
+ * {@link io.pmem.pmemkv.Database Database} class. Keys and values are copied,
+ * so a page stays valid after it is returned.
+ * <p>
+ * If there are more records in the range, the page holds a continuation token -
+ * an opaque, URL-safe string, which may be passed to
+ * {@link io.pmem.pmemkv.Database#page(String, int) page(String, int)} (also of
+ * another Database object or in another process) to read the next page. No
+ * resources are held between pages.
+ *
+ * @param <K>
+ *            the type of a key stored in the pmemkv database
+ * @param <V>
+ *            the type of a value stored in the pmemkv database
+ * @since 1.3.0
+ */
+public class Page<K, V> {
+	private final List<Map.Entry<K, V>> entries;
+	private final String continuation;
+
+	Page(List<Map.Entry<K, V>> entries, String continuation) {
+		this.entries = Collections.unmodifiableList(entries);
+		this.continuation = continuation;
+	}
+
+	/**
+	 * Returns key/value pairs of this page, in order of reading - ascending or, for
+	 * pages read by pageDescending(), descending order of keys.
+	 *
+	 * @return unmodifiable list of key/value pairs.
+	 */
+	public List<Map.Entry<K, V>> entries() {
+		return entries;
+	}
+
+	/**
+	 * Checks if there are more records in the range, after this page.
+	 *
+	 * @return true if the next page may be read with {@link #continuation()
+	 *         continuation()}.
+	 */
+	public boolean hasMore() {
+		return continuation != null;
+	}
+
+	/**
+	 * Returns token, which resumes reading of the range after the last record of
+	 * this page.
+	 *
+	 * @return continuation token, or null if this is the last page.
+	 */
+	public String continuation() {
+		return continuation;
+	}
+}
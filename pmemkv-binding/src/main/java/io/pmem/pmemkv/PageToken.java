@@ -0,0 +1,77 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/*
+ * Continuation token of a Page. It holds everything needed to read the next
+ * page: the last key already read, the direction of reading and the bound of the
+ * range. It's serialized as: version (1 byte), direction (1 byte), length of the
+ * last key (4 bytes) and its bytes, length of the bound (4 bytes, -1 if there is
+ * no bound) and its bytes - encoded with URL-safe Base64, without padding.
+ */
+class PageToken {
+	private static final byte VERSION = 1;
+
+	static final byte ASCENDING = 0;
+	static final byte DESCENDING = 1;
+
+	final byte direction;
+	final byte[] last;
+	final byte[] bound;
+
+	PageToken(byte direction, byte[] last, byte[] bound) {
+		this.direction = direction;
+		this.last = last;
+		this.bound = bound;
+	}
+
+	String encode() {
+		int size = 2 + 4 + last.length + 4 + (bound != null ? bound.length : 0);
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.put(VERSION).put(direction);
+		buffer.putInt(last.length).put(last);
+		if (bound != null) {
+			buffer.putInt(bound.length).put(bound);
+		} else {
+			buffer.putInt(-1);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+	}
+
+	static PageToken decode(String token) throws IllegalArgumentException {
+		if (token == null) {
+			throw new IllegalArgumentException("Continuation token is null");
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+			byte version = buffer.get();
+			byte direction = buffer.get();
+			if (version != VERSION || (direction != ASCENDING && direction != DESCENDING)) {
+				throw new IllegalArgumentException("Unsupported continuation token");
+			}
+			byte[] last = bytes(buffer, buffer.getInt());
+			int boundLength = buffer.getInt();
+			byte[] bound = (boundLength >= 0 ? bytes(buffer, boundLength) : null);
+			if (buffer.hasRemaining()) {
+				throw new IllegalArgumentException("Malformed continuation token");
+			}
+			return new PageToken(direction, last, bound);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Malformed continuation token");
+		}
+	}
+
+	private static byte[] bytes(ByteBuffer buffer, int length) throws IllegalArgumentException {
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IllegalArgumentException("Malformed continuation token");
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+}
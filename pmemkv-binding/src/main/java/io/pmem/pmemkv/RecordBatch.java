@@ -0,0 +1,140 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Cursor over a batch of key/value pairs packed into a single direct
+ * ByteBuffer. It is passed to {@link io.pmem.pmemkv.BatchCallback
+ * BatchCallback} by get*Batched() methods of {@link io.pmem.pmemkv.Database
+ * Database} class.
+ * <p>
+ * Each record is stored as a key length (4 bytes, native byte order), key
+ * bytes, a value length (4 bytes, native byte order) and value bytes. The same
+ * RecordBatch object (and the same key and value views) is reused for every
+ * batch of a single scan, so none of them may be used after the callback
+ * returns.
+ *
+ * @param <K>
+ *            the type of a key stored in the pmemkv database
+ * @param <V>
+ *            the type of a value stored in the pmemkv database
+ */
+public class RecordBatch<K, V> {
+	private final Database<K, V> db;
+	private ByteBuffer source;
+	private ByteBuffer data;
+	private ByteBuffer keyView;
+	private ByteBuffer valueView;
+	private int count;
+	private int index;
+	private int offset;
+
+	RecordBatch(Database<K, V> db) {
+		this.db = db;
+	}
+
+	/*
+	 * Prepares the cursor for a new batch. Views are created again only if records
+	 * were packed into a different buffer than the previous batch.
+	 */
+	void reset(int count, ByteBuffer buffer) {
+		if (buffer != source) {
+			source = buffer;
+			data = buffer.duplicate().order(ByteOrder.nativeOrder());
+			keyView = buffer.duplicate();
+			valueView = buffer.duplicate();
+		}
+		this.count = count;
+		rewind();
+	}
+
+	private static void setView(ByteBuffer view, int position, int length) {
+		view.clear();
+		view.position(position);
+		view.limit(position + length);
+	}
+
+	/**
+	 * Returns number of records in this batch.
+	 *
+	 * @return number of records.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Moves the cursor back, before the first record of this batch.
+	 */
+	public void rewind() {
+		index = -1;
+		offset = 0;
+	}
+
+	/**
+	 * Moves the cursor to the next record in this batch. It has to be called before
+	 * accessing the first record.
+	 *
+	 * @return true if the cursor was moved to the next record, false if there are
+	 *         no more records in this batch.
+	 */
+	public boolean next() {
+		if (index + 1 >= count) {
+			return false;
+		}
+		index++;
+		int keyLength = data.getInt(offset);
+		int keyOffset = offset + Integer.BYTES;
+		int valueLength = data.getInt(keyOffset + keyLength);
+		int valueOffset = keyOffset + keyLength + Integer.BYTES;
+		setView(keyView, keyOffset, keyLength);
+		setView(valueView, valueOffset, valueLength);
+		offset = valueOffset + valueLength;
+		return true;
+	}
+
+	/**
+	 * Returns a view of the current record's key. The same ByteBuffer object is
+	 * returned for every record, only its position and limit are changed.
+	 *
+	 * @return key of the current record, between position and limit of the returned
+	 *         buffer.
+	 */
+	public ByteBuffer keyBuffer() {
+		return keyView;
+	}
+
+	/**
+	 * Returns a view of the current record's value. The same ByteBuffer object is
+	 * returned for every record, only its position and limit are changed.
+	 *
+	 * @return value of the current record, between position and limit of the
+	 *         returned buffer.
+	 */
+	public ByteBuffer valueBuffer() {
+		return valueView;
+	}
+
+	/**
+	 * Returns the current record's key converted by key converter of the Database.
+	 *
+	 * @return key of type K
+	 */
+	public K key() {
+		return db.keyConverter.fromByteBuffer(keyView.slice());
+	}
+
+	/**
+	 * Returns the current record's value converted by value converter of the
+	 * Database.
+	 *
+	 * @return value of type V
+	 */
+	public V value() {
+		return db.valueConverter.fromByteBuffer(valueView.slice());
+	}
+}
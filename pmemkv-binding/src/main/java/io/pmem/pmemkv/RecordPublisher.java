@@ -0,0 +1,211 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of key/value pairs from a range of keys, which reads records only
+ * as subscribers request them (demand-driven backpressure). It can only be
+ * created using Database method:
+ * {@link io.pmem.pmemkv.Database#publisher(Object, Object, Executor)
+ * publisher()} .
+ * <p>
+ * Publisher, Subscriber and Subscription follow the semantics (and method
+ * signatures) of java.util.concurrent.Flow, which is not available in Java 8,
+ * so they may be adapted to Flow or Reactive Streams by trivial wrappers.
+ * <p>
+ * Records are read in chunks, each chunk by a separate ReadIterator, so no
+ * iterator is held while waiting for demand. All signals to a subscriber are
+ * delivered from the executor given at creation, never concurrently. Every
+ * subscriber gets its own scan of the range.
+ *
+ * @param <K>
+ *            the type of a key stored in the pmemkv database
+ * @param <V>
+ *            the type of a value stored in the pmemkv database
+ */
+public class RecordPublisher<K, V> {
+
+	/**
+	 * Receiver of key/value pairs, as java.util.concurrent.Flow.Subscriber.
+	 *
+	 * @param <T>
+	 *            the type of received items
+	 */
+	public interface Subscriber<T> {
+		/**
+		 * Called before any other method, with subscription used to request items.
+		 *
+		 * @param subscription
+		 *            a new subscription.
+		 */
+		void onSubscribe(Subscription subscription);
+
+		/**
+		 * Called with the next item, only if it was requested.
+		 *
+		 * @param item
+		 *            the item.
+		 */
+		void onNext(T item);
+
+		/**
+		 * Called when the scan failed. No other methods are called afterwards.
+		 *
+		 * @param throwable
+		 *            the exception.
+		 */
+		void onError(Throwable throwable);
+
+		/**
+		 * Called when all items of the range were passed. No other methods are called
+		 * afterwards.
+		 */
+		void onComplete();
+	}
+
+	/**
+	 * Link between the publisher and a subscriber, as
+	 * java.util.concurrent.Flow.Subscription.
+	 */
+	public interface Subscription {
+		/**
+		 * Adds n items to the demand. Non-positive n causes onError() with
+		 * IllegalArgumentException.
+		 *
+		 * @param n
+		 *            number of additionally requested items.
+		 */
+		void request(long n);
+
+		/**
+		 * Stops passing items to the subscriber (possibly after some delay).
+		 */
+		void cancel();
+	}
+
+	private final Database<K, V> db;
+	private final byte[] from;
+	private final byte[] to;
+	private final Executor executor;
+
+	RecordPublisher(Database<K, V> db, byte[] from, byte[] to, Executor executor) {
+		this.db = db;
+		this.from = from;
+		this.to = to;
+		this.executor = executor;
+	}
+
+	/**
+	 * Adds the subscriber, which will receive key/value pairs of the range, in
+	 * order of keys.
+	 *
+	 * @param subscriber
+	 *            the subscriber.
+	 * @throws NullPointerException
+	 *             if subscriber is null.
+	 * @since 1.3.0
+	 */
+	public void subscribe(Subscriber<? super Map.Entry<K, V>> subscriber) throws NullPointerException {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber cannot be null");
+		}
+		RangeSubscription subscription = new RangeSubscription(subscriber, db.entrySpliterator(from, to));
+		subscriber.onSubscribe(subscription);
+	}
+
+	private class RangeSubscription implements Subscription {
+		private final Subscriber<? super Map.Entry<K, V>> subscriber;
+		private final Spliterator<Map.Entry<K, V>> source;
+		private final AtomicLong requested = new AtomicLong();
+		/* Number of drain requests, the one which increments it from 0 drains */
+		private final AtomicInteger pending = new AtomicInteger();
+		private volatile boolean cancelled = false;
+		private volatile Throwable invalidRequest = null;
+		private Map.Entry<K, V> next;
+
+		RangeSubscription(Subscriber<? super Map.Entry<K, V>> subscriber, Spliterator<Map.Entry<K, V>> source) {
+			this.subscriber = subscriber;
+			this.source = source;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Number of requested items must be > 0");
+			} else {
+				long current, updated;
+				do {
+					current = requested.get();
+					updated = current + n;
+					if (updated < 0) {
+						updated = Long.MAX_VALUE; /* unbounded */
+					}
+				} while (!requested.compareAndSet(current, updated));
+			}
+			if (pending.getAndIncrement() == 0) {
+				executor.execute(this::drain);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/* Passes requested items, only one thread at a time runs this loop */
+		private void drain() {
+			int missed = 1;
+			do {
+				long demand = requested.get();
+				long emitted = 0;
+				while (!cancelled) {
+					if (invalidRequest != null) {
+						cancelled = true;
+						subscriber.onError(invalidRequest);
+						return;
+					}
+					if (emitted == demand) {
+						break;
+					}
+					boolean found;
+					try {
+						found = source.tryAdvance((Map.Entry<K, V> entry) -> next = entry);
+					} catch (RuntimeException e) {
+						cancelled = true;
+						subscriber.onError(e);
+						return;
+					}
+					if (!found) {
+						cancelled = true;
+						subscriber.onComplete();
+						return;
+					}
+					Map.Entry<K, V> item = next;
+					next = null;
+					try {
+						subscriber.onNext(item);
+					} catch (RuntimeException e) {
+						/* Subscriber broke the contract, it doesn't get any more signals */
+						cancelled = true;
+						throw e;
+					}
+					emitted++;
+				}
+				if (cancelled) {
+					return;
+				}
+				if (demand != Long.MAX_VALUE) {
+					requested.addAndGet(-emitted);
+				}
+				missed = pending.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
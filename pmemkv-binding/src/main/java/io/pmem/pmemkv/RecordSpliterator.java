@@ -0,0 +1,221 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/*
+ * Spliterator over records of a sorted engine, whose keys are in range [lo, hi)
+ * (compared as unsigned bytes, like in the engine). It's used by Database's
+ * stream() and keyStream() methods.
+ *
+ * No native iterator is held between calls - records are read in batches, each
+ * one by a new (or pooled) ReadIterator, which seeks past the last record read.
+ * Therefore splits traversed by the same thread (e.g. in a ForkJoinPool) never
+ * hold two iterators at once and no engine locks are kept between batches.
+ *
+ * On a virtual thread, the carrier is yielded between batches, so a long scan
+ * doesn't occupy it and pins it only while a batch is read.
+ *
+ * Range is split at the byte-midpoint of its first and last keys, snapped to an
+ * existing key with seekHigherEq. Only the root range is counted (counting is
+ * linear in most engines), estimates of splits are halved.
+ */
+class RecordSpliterator<K, V, T> implements Spliterator<T> {
+	/* Number of records read from the engine at once */
+	private static final int BATCH_SIZE = 256;
+	/* Bytes after the common prefix of keys, used to compute a split point */
+	private static final int MIDPOINT_BYTES = 8;
+
+	private final Database<K, V> db;
+	private final BiFunction<byte[], ByteBuffer, T> mapper;
+	private final ArrayDeque<T> pending = new ArrayDeque<>();
+	private byte[] lo;
+	private final byte[] hi;
+	private byte[] lastRead = null;
+	private boolean exhausted = false;
+	private long estimate;
+
+	/*
+	 * Creates spliterator over records with keys in range [lo, hi), null bound
+	 * means the range is unbounded on this side. Mapper creates an element from key
+	 * and value of a record, value buffer is valid only during the call.
+	 */
+	RecordSpliterator(Database<K, V> db, byte[] lo, byte[] hi, BiFunction<byte[], ByteBuffer, T> mapper) {
+		this(db, lo, hi, mapper, -1);
+	}
+
+	private RecordSpliterator(Database<K, V> db, byte[] lo, byte[] hi, BiFunction<byte[], ByteBuffer, T> mapper,
+			long estimate) {
+		this.db = db;
+		this.lo = lo;
+		this.hi = hi;
+		this.mapper = mapper;
+		this.estimate = estimate;
+	}
+
+	/* Compares keys as unsigned bytes, as std::string::compare does */
+	static int compare(byte[] a, byte[] b) {
+		int n = Math.min(a.length, b.length);
+		for (int i = 0; i < n; i++) {
+			int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return a.length - b.length;
+	}
+
+	/* Compares key between position and limit of the buffer with b */
+	static int compare(ByteBuffer a, byte[] b) {
+		int start = a.position();
+		int length = a.remaining();
+		int n = Math.min(length, b.length);
+		for (int i = 0; i < n; i++) {
+			int diff = (a.get(start + i) & 0xFF) - (b[i] & 0xFF);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return length - b.length;
+	}
+
+	/* Returns key between a and b, treating keys as base-256 fractions */
+	static byte[] midpoint(byte[] a, byte[] b) {
+		int prefix = 0;
+		while (prefix < a.length && prefix < b.length && a[prefix] == b[prefix]) {
+			prefix++;
+		}
+		int n = prefix + MIDPOINT_BYTES;
+		int[] sum = new int[n];
+		int carry = 0;
+		for (int i = n - 1; i >= 0; i--) {
+			int s = digit(a, i) + digit(b, i) + carry;
+			sum[i] = s & 0xFF;
+			carry = s >> 8;
+		}
+		byte[] mid = new byte[n];
+		int rest = carry;
+		for (int i = 0; i < n; i++) {
+			int current = (rest << 8) | sum[i];
+			mid[i] = (byte) (current >> 1);
+			rest = current & 1;
+		}
+		return mid;
+	}
+
+	private static int digit(byte[] key, int i) {
+		return i < key.length ? key[i] & 0xFF : 0;
+	}
+
+	private static byte[] bytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	private boolean inRange(byte[] key) {
+		return hi == null || compare(key, hi) < 0;
+	}
+
+	/* Reads the next batch of records; returns false if there are no more */
+	private boolean fill() {
+		if (exhausted) {
+			return false;
+		}
+		if (lastRead != null && VirtualThreads.isCurrentVirtual()) {
+			Thread.yield();
+		}
+		try (Database<K, V>.ReadIterator it = db.readIterator()) {
+			boolean found;
+			if (lastRead != null) {
+				found = it.seekHigherBytes(lastRead);
+			} else if (lo != null) {
+				found = it.seekHigherEqBytes(lo);
+			} else {
+				found = it.seekToFirst();
+			}
+			if (found) {
+				it.nextBatch(BATCH_SIZE, (RecordBatch<K, V> batch) -> {
+					while (batch.next()) {
+						byte[] key = bytes(batch.keyBuffer());
+						if (!inRange(key)) {
+							exhausted = true;
+							return;
+						}
+						pending.add(mapper.apply(key, batch.valueBuffer()));
+						lastRead = key;
+					}
+				});
+			}
+		}
+		if (pending.isEmpty()) {
+			exhausted = true;
+		}
+		return !pending.isEmpty();
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (pending.isEmpty() && !fill()) {
+			return false;
+		}
+		action.accept(pending.poll());
+		return true;
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		/* Only a range, which was not traversed yet, is split */
+		if (exhausted || lastRead != null) {
+			return null;
+		}
+		byte[] first;
+		byte[] split;
+		try (Database<K, V>.ReadIterator it = db.readIterator()) {
+			boolean found = (lo != null ? it.seekHigherEqBytes(lo) : it.seekToFirst());
+			first = (found ? it.keyBytes() : null);
+			if (first == null || !inRange(first)) {
+				exhausted = true;
+				return null;
+			}
+			found = (hi != null ? it.seekLowerBytes(hi) : it.seekToLast());
+			byte[] last = (found ? it.keyBytes() : null);
+			if (last == null || compare(last, first) <= 0) {
+				return null;
+			}
+			if (!it.seekHigherEqBytes(midpoint(first, last))) {
+				return null;
+			}
+			split = it.keyBytes();
+			if (compare(split, first) <= 0 || compare(split, last) > 0) {
+				return null;
+			}
+		}
+		long size = estimateSize();
+		lo = split;
+		estimate = size - size / 2;
+		return new RecordSpliterator<K, V, T>(db, first, split, mapper, size / 2);
+	}
+
+	@Override
+	public long estimateSize() {
+		if (exhausted) {
+			return 0;
+		}
+		if (estimate < 0) {
+			estimate = db.countRange(lo, hi);
+		}
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | DISTINCT | NONNULL;
+	}
+}
@@ -0,0 +1,27 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+/**
+ * Represents callback function, which handles key-only use cases and may stop
+ * the scan. Such expression may be passed to getKeys*While() methods in
+ * {@link io.pmem.pmemkv.Database Database} class.
+ *
+ * @param <KeyT>
+ *            the type of a key stored in the pmemkv database
+ * @since 1.3.0
+ */
+@FunctionalInterface
+public interface StoppableKeyCallback<KeyT> {
+	/**
+	 * It's internally used as a middle layer to run callback function
+	 *
+	 * @param key
+	 *            the key returned by pmemkv engine to callback function
+	 * @return true to continue the scan, false to stop it - no more keys are read
+	 *         then
+	 */
+	boolean process(KeyT key);
+
+}
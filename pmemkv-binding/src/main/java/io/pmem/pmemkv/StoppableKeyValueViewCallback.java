@@ -0,0 +1,32 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+/**
+ * Represents callback function, which gets values as lazy
+ * {@link io.pmem.pmemkv.ValueView ValueView} and may stop the scan. Such
+ * expression may be passed to get*ViewsWhile() methods in
+ * {@link io.pmem.pmemkv.Database Database} class.
+ *
+ * @param <KeyT>
+ *            the type of a key stored in the pmemkv database
+ * @param <ValueT>
+ *            the type of a value stored in the pmemkv database
+ * @since 1.3.0
+ */
+@FunctionalInterface
+public interface StoppableKeyValueViewCallback<KeyT, ValueT> {
+	/**
+	 * It's internally used as a middle layer to run callback function
+	 *
+	 * @param key
+	 *            the key returned by pmemkv engine to the callback function
+	 * @param value
+	 *            view of the value, valid only until the callback returns
+	 * @return true to continue the scan, false to stop it - no more records are
+	 *         read then
+	 */
+	boolean process(KeyT key, ValueView<ValueT> value);
+
+}
@@ -0,0 +1,89 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lazy view of a record's value, passed to
+ * {@link io.pmem.pmemkv.KeyValueViewCallback KeyValueViewCallback} by
+ * get*Views() methods of {@link io.pmem.pmemkv.Database Database} class. The
+ * value is converted (or copied) only if the callback asks for it, so records
+ * rejected by their keys cost no value conversion.
+ * <p>
+ * The same ValueView object is reused for every record of a single scan and it
+ * can't be used after the callback returns.
+ *
+ * @param <V>
+ *            the type of a value stored in the pmemkv database
+ * @since 1.3.0
+ */
+public class ValueView<V> {
+	private final Converter<V> converter;
+	private ByteBuffer value = null;
+	private V converted = null;
+	private boolean isConverted = false;
+
+	ValueView(Converter<V> converter) {
+		this.converter = converter;
+	}
+
+	/* Points the view to the next record's value, null when the callback returns */
+	void reset(ByteBuffer value) {
+		this.value = value;
+		this.converted = null;
+		this.isConverted = false;
+	}
+
+	private ByteBuffer value() {
+		if (value == null) {
+			throw new IllegalStateException("ValueView used after its callback returned");
+		}
+		return value;
+	}
+
+	/**
+	 * Returns size of the value in bytes, without reading it.
+	 *
+	 * @return size of the value.
+	 */
+	public int size() {
+		return value().remaining();
+	}
+
+	/**
+	 * Returns the value converted by value converter of the Database. It's
+	 * converted on the first call, next calls return the same object.
+	 *
+	 * @return value of type V
+	 */
+	public V get() {
+		if (!isConverted) {
+			converted = converter.fromByteBuffer(value().slice());
+			isConverted = true;
+		}
+		return converted;
+	}
+
+	/**
+	 * Returns a read-only view of the value's bytes, between its position and
+	 * limit. It's valid only until the callback returns.
+	 *
+	 * @return buffer with the value.
+	 */
+	public ByteBuffer buffer() {
+		return value().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Returns a copy of the value's bytes.
+	 *
+	 * @return new array with the value.
+	 */
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[size()];
+		value().duplicate().get(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,43 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/*
+ * Access to virtual threads (Java 21+), which are looked up at runtime, as the
+ * binding is built for Java 8. On older JVMs no thread is virtual.
+ */
+final class VirtualThreads {
+	private static final MethodHandle IS_VIRTUAL = findVirtual(Thread.class, "isVirtual",
+			MethodType.methodType(boolean.class));
+
+	private VirtualThreads() {
+	}
+
+	private static MethodHandle findVirtual(Class<?> cls, String name, MethodType type) {
+		try {
+			return MethodHandles.publicLookup().findVirtual(cls, name, type);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	static boolean isVirtual(Thread thread) {
+		if (IS_VIRTUAL == null) {
+			return false;
+		}
+		try {
+			return (boolean) IS_VIRTUAL.invokeExact(thread);
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+
+	static boolean isCurrentVirtual() {
+		return isVirtual(Thread.currentThread());
+	}
+}
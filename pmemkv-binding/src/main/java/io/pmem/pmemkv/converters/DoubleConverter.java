@@ -0,0 +1,38 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import io.pmem.pmemkv.EncodingConverter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converter of Double objects into 8 bytes, which byte order matches the order
+ * of {@link java.lang.Double#compare(double, double) Double.compare()}: -0.0 is
+ * lower than 0.0 and NaN (stored in its canonical form) is the highest value.
+ *
+ * @since 1.3.0
+ */
+public class DoubleConverter implements EncodingConverter<Double> {
+	public static final int SIZE = Double.BYTES;
+
+	public ByteBuffer toByteBuffer(Double entry) {
+		ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+		encodeInto(entry, buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	public Double fromByteBuffer(ByteBuffer entry) {
+		return Encoding.orderedToDouble(Encoding.getLong(entry, entry.position()));
+	}
+
+	public int encodedSize(Double entry) {
+		return SIZE;
+	}
+
+	public void encodeInto(Double entry, ByteBuffer target) {
+		Encoding.putLong(target, Encoding.doubleToOrdered(entry));
+	}
+}
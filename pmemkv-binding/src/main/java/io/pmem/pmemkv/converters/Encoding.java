@@ -0,0 +1,126 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+ * Order-preserving encodings shared by the converters. Numbers are written
+ * big-endian (regardless of the target's byte order), with the sign bit
+ * flipped, so unsigned byte-wise comparison matches their numeric order.
+ */
+final class Encoding {
+	private Encoding() {
+	}
+
+	static void putLong(ByteBuffer target, long value) {
+		long flipped = value ^ Long.MIN_VALUE;
+		target.putLong(target.order() == ByteOrder.BIG_ENDIAN ? flipped : Long.reverseBytes(flipped));
+	}
+
+	static long getLong(ByteBuffer entry, int index) {
+		long flipped = entry.getLong(index);
+		return (entry.order() == ByteOrder.BIG_ENDIAN ? flipped : Long.reverseBytes(flipped)) ^ Long.MIN_VALUE;
+	}
+
+	static void putInt(ByteBuffer target, int value) {
+		int flipped = value ^ Integer.MIN_VALUE;
+		target.putInt(target.order() == ByteOrder.BIG_ENDIAN ? flipped : Integer.reverseBytes(flipped));
+	}
+
+	static int getInt(ByteBuffer entry, int index) {
+		int flipped = entry.getInt(index);
+		return (entry.order() == ByteOrder.BIG_ENDIAN ? flipped : Integer.reverseBytes(flipped)) ^ Integer.MIN_VALUE;
+	}
+
+	/*
+	 * Doubles are ordered as by Double.compare(): negative numbers have all bits
+	 * inverted, positive ones only the sign bit - then they compare as longs.
+	 */
+	static long doubleToOrdered(double value) {
+		long bits = Double.doubleToLongBits(value);
+		return (bits < 0 ? ~bits ^ Long.MIN_VALUE : bits);
+	}
+
+	static double orderedToDouble(long ordered) {
+		return Double.longBitsToDouble(ordered < 0 ? ~(ordered ^ Long.MIN_VALUE) : ordered);
+	}
+
+	/* Returns number of bytes of the string in UTF-8, as written by putUtf8() */
+	static int utf8Size(String str) {
+		int length = str.length();
+		int size = length;
+		for (int i = 0; i < length; i++) {
+			char c = str.charAt(i);
+			if (c < 0x80) {
+				continue;
+			}
+			if (c < 0x800) {
+				size += 1;
+			} else if (!Character.isSurrogate(c)) {
+				size += 2;
+			} else if (isSurrogatePair(str, i)) {
+				size += 2;
+				i++;
+			}
+			/* unpaired surrogate is replaced with a single '?', as by String.getBytes() */
+		}
+		return size;
+	}
+
+	/*
+	 * Writes the string in UTF-8. If escapeZero is set, every zero byte (U+0000) is
+	 * written as 00 FF, so the encoded string contains no 00 01 terminator.
+	 */
+	static void putUtf8(ByteBuffer target, String str, boolean escapeZero) {
+		int length = str.length();
+		for (int i = 0; i < length; i++) {
+			char c = str.charAt(i);
+			if (c < 0x80) {
+				target.put((byte) c);
+				if (c == 0 && escapeZero) {
+					target.put((byte) 0xff);
+				}
+			} else if (c < 0x800) {
+				target.put((byte) (0xc0 | (c >> 6)));
+				target.put((byte) (0x80 | (c & 0x3f)));
+			} else if (!Character.isSurrogate(c)) {
+				target.put((byte) (0xe0 | (c >> 12)));
+				target.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+				target.put((byte) (0x80 | (c & 0x3f)));
+			} else if (isSurrogatePair(str, i)) {
+				int cp = Character.toCodePoint(c, str.charAt(++i));
+				target.put((byte) (0xf0 | (cp >> 18)));
+				target.put((byte) (0x80 | ((cp >> 12) & 0x3f)));
+				target.put((byte) (0x80 | ((cp >> 6) & 0x3f)));
+				target.put((byte) (0x80 | (cp & 0x3f)));
+			} else {
+				target.put((byte) '?');
+			}
+		}
+	}
+
+	private static boolean isSurrogatePair(String str, int i) {
+		return Character.isHighSurrogate(str.charAt(i)) && i + 1 < str.length()
+				&& Character.isLowSurrogate(str.charAt(i + 1));
+	}
+
+	/*
+	 * Decodes length bytes at the given index, without moving the entry's position
+	 */
+	static String getUtf8(ByteBuffer entry, int index, int length) {
+		if (entry.hasArray()) {
+			return new String(entry.array(), entry.arrayOffset() + index, length, UTF_8);
+		}
+		byte[] bytes = new byte[length];
+		int position = entry.position();
+		entry.position(index);
+		entry.get(bytes);
+		entry.position(position);
+		return new String(bytes, UTF_8);
+	}
+}
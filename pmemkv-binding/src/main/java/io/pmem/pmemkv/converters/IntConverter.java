@@ -0,0 +1,37 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import io.pmem.pmemkv.EncodingConverter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converter of Integer objects into 4 bytes, big-endian, with the sign bit
+ * flipped - so byte order of the encoded keys matches their numeric order.
+ *
+ * @since 1.3.0
+ */
+public class IntConverter implements EncodingConverter<Integer> {
+	public static final int SIZE = Integer.BYTES;
+
+	public ByteBuffer toByteBuffer(Integer entry) {
+		ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+		Encoding.putInt(buffer, entry);
+		buffer.flip();
+		return buffer;
+	}
+
+	public Integer fromByteBuffer(ByteBuffer entry) {
+		return Encoding.getInt(entry, entry.position());
+	}
+
+	public int encodedSize(Integer entry) {
+		return SIZE;
+	}
+
+	public void encodeInto(Integer entry, ByteBuffer target) {
+		Encoding.putInt(target, entry);
+	}
+}
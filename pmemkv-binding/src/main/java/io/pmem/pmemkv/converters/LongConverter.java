@@ -0,0 +1,40 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import io.pmem.pmemkv.EncodingConverter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converter of Long objects into 8 bytes, big-endian, with the sign bit flipped
+ * - so byte order of the encoded keys matches their numeric order and ranges of
+ * keys can be read from sorted engines. It's the same encoding as used for long
+ * keys by {@link io.pmem.pmemkv.Database#putLong(long, long)
+ * Database.putLong()}.
+ *
+ * @since 1.3.0
+ */
+public class LongConverter implements EncodingConverter<Long> {
+	public static final int SIZE = Long.BYTES;
+
+	public ByteBuffer toByteBuffer(Long entry) {
+		ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+		Encoding.putLong(buffer, entry);
+		buffer.flip();
+		return buffer;
+	}
+
+	public Long fromByteBuffer(ByteBuffer entry) {
+		return Encoding.getLong(entry, entry.position());
+	}
+
+	public int encodedSize(Long entry) {
+		return SIZE;
+	}
+
+	public void encodeInto(Long entry, ByteBuffer target) {
+		Encoding.putLong(target, entry);
+	}
+}
@@ -0,0 +1,38 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import io.pmem.pmemkv.EncodingConverter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converter of Strings into UTF-8, encoding them directly into buffers of the
+ * Database (without intermediate byte arrays). Byte order of UTF-8 matches the
+ * order of code points, so strings are sorted as by their code points (which
+ * differs from String.compareTo() only for characters beyond the BMP). Unpaired
+ * surrogates are encoded as '?', as by String.getBytes().
+ *
+ * @since 1.3.0
+ */
+public class StringConverter implements EncodingConverter<String> {
+	public ByteBuffer toByteBuffer(String entry) {
+		ByteBuffer buffer = ByteBuffer.allocate(Encoding.utf8Size(entry));
+		Encoding.putUtf8(buffer, entry, false);
+		buffer.flip();
+		return buffer;
+	}
+
+	public String fromByteBuffer(ByteBuffer entry) {
+		return Encoding.getUtf8(entry, entry.position(), entry.remaining());
+	}
+
+	public int encodedSize(String entry) {
+		return Encoding.utf8Size(entry);
+	}
+
+	public void encodeInto(String entry, ByteBuffer target) {
+		Encoding.putUtf8(target, entry, false);
+	}
+}
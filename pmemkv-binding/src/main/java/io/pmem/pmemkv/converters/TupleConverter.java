@@ -0,0 +1,225 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import io.pmem.pmemkv.EncodingConverter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Converter of tuples (composite keys) - lists of elements of types: null,
+ * byte[], String, Integer, Long, Double and UUID. Byte order of encoded tuples
+ * matches the order of their elements, compared one by one, so e.g. all records
+ * of a user sorted by time may be read with a single getBetween() call, using
+ * tuples (user, time) as keys.
+ * <p>
+ * Every element is preceded by a tag of its type, so elements of different
+ * types are ordered by type first: null, byte[], String, Integer, Long, Double,
+ * UUID. Numbers and UUIDs are encoded as by LongConverter, IntConverter,
+ * DoubleConverter and UuidConverter. Strings (in UTF-8) and byte arrays end
+ * with a terminator (00 01), while zero bytes inside them are escaped (as 00
+ * FF). Therefore encoding of a tuple is a prefix of the encoding of every
+ * longer tuple beginning with the same elements, but it's never a prefix of
+ * e.g. a tuple with a longer string, like ("ab") for ("a").
+ *
+ * @since 1.3.0
+ */
+public class TupleConverter implements EncodingConverter<List<Object>> {
+	private static final byte NULL = 0x00;
+	private static final byte BYTES = 0x01;
+	private static final byte STRING = 0x02;
+	private static final byte INT = 0x03;
+	private static final byte LONG = 0x04;
+	private static final byte DOUBLE = 0x05;
+	private static final byte UUID_TAG = 0x06;
+
+	private static final byte ESCAPE = (byte) 0xff;
+	private static final byte TERMINATOR = 0x01;
+
+	public ByteBuffer toByteBuffer(List<Object> entry) {
+		ByteBuffer buffer = ByteBuffer.allocate(encodedSize(entry));
+		encodeInto(entry, buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Decodes the tuple into a new list. Elements are of the types, which were
+	 * encoded.
+	 *
+	 * @param entry
+	 *            ByteBuffer stored in pmemkv.
+	 * @return decoded tuple.
+	 * @throws IllegalArgumentException
+	 *             if the entry is not a valid tuple.
+	 */
+	public List<Object> fromByteBuffer(ByteBuffer entry) {
+		List<Object> tuple = new ArrayList<>();
+		int pos = entry.position();
+		int end = entry.limit();
+		while (pos < end) {
+			byte tag = entry.get(pos++);
+			switch (tag) {
+				case NULL :
+					tuple.add(null);
+					break;
+				case BYTES :
+				case STRING :
+					int length = unescapedLength(entry, pos, end);
+					byte[] bytes = new byte[length];
+					pos = unescape(entry, pos, bytes);
+					tuple.add(tag == BYTES ? bytes : Encoding.getUtf8(ByteBuffer.wrap(bytes), 0, length));
+					break;
+				case INT :
+					checkRemaining(pos, Integer.BYTES, end);
+					tuple.add(Encoding.getInt(entry, pos));
+					pos += Integer.BYTES;
+					break;
+				case LONG :
+					checkRemaining(pos, Long.BYTES, end);
+					tuple.add(Encoding.getLong(entry, pos));
+					pos += Long.BYTES;
+					break;
+				case DOUBLE :
+					checkRemaining(pos, Long.BYTES, end);
+					tuple.add(Encoding.orderedToDouble(Encoding.getLong(entry, pos)));
+					pos += Long.BYTES;
+					break;
+				case UUID_TAG :
+					checkRemaining(pos, UuidConverter.SIZE, end);
+					tuple.add(new UUID(UuidConverter.getLong(entry, pos),
+							UuidConverter.getLong(entry, pos + Long.BYTES)));
+					pos += UuidConverter.SIZE;
+					break;
+				default :
+					throw new IllegalArgumentException("Unknown tuple element type: " + tag);
+			}
+		}
+		return tuple;
+	}
+
+	/**
+	 * Returns size of the encoded tuple.
+	 *
+	 * @param entry
+	 *            tuple, which will be stored in the pmemkv datastore.
+	 * @return size of the encoded tuple in bytes.
+	 * @throws IllegalArgumentException
+	 *             if an element is of unsupported type.
+	 */
+	public int encodedSize(List<Object> entry) {
+		int size = entry.size();
+		for (Object element : entry) {
+			if (element == null) {
+				continue;
+			} else if (element instanceof byte[]) {
+				byte[] bytes = (byte[]) element;
+				size += bytes.length + 2;
+				for (byte b : bytes) {
+					if (b == 0) {
+						size++;
+					}
+				}
+			} else if (element instanceof String) {
+				String str = (String) element;
+				size += Encoding.utf8Size(str) + 2;
+				for (int i = 0; i < str.length(); i++) {
+					if (str.charAt(i) == 0) {
+						size++;
+					}
+				}
+			} else if (element instanceof Integer) {
+				size += Integer.BYTES;
+			} else if (element instanceof Long || element instanceof Double) {
+				size += Long.BYTES;
+			} else if (element instanceof UUID) {
+				size += UuidConverter.SIZE;
+			} else {
+				throw new IllegalArgumentException("Unsupported tuple element type: " + element.getClass().getName());
+			}
+		}
+		return size;
+	}
+
+	public void encodeInto(List<Object> entry, ByteBuffer target) {
+		for (Object element : entry) {
+			if (element == null) {
+				target.put(NULL);
+			} else if (element instanceof byte[]) {
+				target.put(BYTES);
+				for (byte b : (byte[]) element) {
+					target.put(b);
+					if (b == 0) {
+						target.put(ESCAPE);
+					}
+				}
+				target.put((byte) 0).put(TERMINATOR);
+			} else if (element instanceof String) {
+				target.put(STRING);
+				Encoding.putUtf8(target, (String) element, true);
+				target.put((byte) 0).put(TERMINATOR);
+			} else if (element instanceof Integer) {
+				target.put(INT);
+				Encoding.putInt(target, (Integer) element);
+			} else if (element instanceof Long) {
+				target.put(LONG);
+				Encoding.putLong(target, (Long) element);
+			} else if (element instanceof Double) {
+				target.put(DOUBLE);
+				Encoding.putLong(target, Encoding.doubleToOrdered((Double) element));
+			} else if (element instanceof UUID) {
+				target.put(UUID_TAG);
+				UuidConverter.putLong(target, ((UUID) element).getMostSignificantBits());
+				UuidConverter.putLong(target, ((UUID) element).getLeastSignificantBits());
+			} else {
+				throw new IllegalArgumentException("Unsupported tuple element type: " + element.getClass().getName());
+			}
+		}
+	}
+
+	private static void checkRemaining(int pos, int size, int end) {
+		if (end - pos < size) {
+			throw new IllegalArgumentException("Truncated tuple element");
+		}
+	}
+
+	/* Returns length of the escaped element beginning at pos, after unescaping */
+	private static int unescapedLength(ByteBuffer entry, int pos, int end) {
+		int length = 0;
+		while (pos < end) {
+			byte b = entry.get(pos++);
+			if (b == 0) {
+				if (pos == end) {
+					break;
+				}
+				byte next = entry.get(pos++);
+				if (next == TERMINATOR) {
+					return length;
+				}
+				if (next != ESCAPE) {
+					break;
+				}
+			}
+			length++;
+		}
+		throw new IllegalArgumentException("Malformed tuple element");
+	}
+
+	/*
+	 * Copies the unescaped element into dst, returns position after its terminator
+	 */
+	private static int unescape(ByteBuffer entry, int pos, byte[] dst) {
+		for (int i = 0; i < dst.length; i++) {
+			byte b = entry.get(pos++);
+			if (b == 0) {
+				pos++;
+			}
+			dst[i] = b;
+		}
+		return pos + 2;
+	}
+}
@@ -0,0 +1,52 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import io.pmem.pmemkv.EncodingConverter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+/**
+ * Converter of UUIDs into their 16 bytes, big-endian. Encoded keys are ordered
+ * as unsigned numbers - the same as their textual representation (which is not
+ * the order of {@link java.util.UUID#compareTo(UUID) UUID.compareTo()}, as it
+ * compares signed halves).
+ *
+ * @since 1.3.0
+ */
+public class UuidConverter implements EncodingConverter<UUID> {
+	public static final int SIZE = 2 * Long.BYTES;
+
+	public ByteBuffer toByteBuffer(UUID entry) {
+		ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+		encodeInto(entry, buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	public UUID fromByteBuffer(ByteBuffer entry) {
+		return new UUID(getLong(entry, entry.position()), getLong(entry, entry.position() + Long.BYTES));
+	}
+
+	public int encodedSize(UUID entry) {
+		return SIZE;
+	}
+
+	public void encodeInto(UUID entry, ByteBuffer target) {
+		putLong(target, entry.getMostSignificantBits());
+		putLong(target, entry.getLeastSignificantBits());
+	}
+
+	/* Halves of UUID are unsigned, so their sign bits are not flipped */
+	static void putLong(ByteBuffer target, long value) {
+		target.putLong(target.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value));
+	}
+
+	static long getLong(ByteBuffer entry, int index) {
+		long value = entry.getLong(index);
+		return (entry.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value));
+	}
+}
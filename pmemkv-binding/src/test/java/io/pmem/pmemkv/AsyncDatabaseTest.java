@@ -0,0 +1,61 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static io.pmem.pmemkv.TestUtils.*;
+
+public class AsyncDatabaseTest {
+
+	private final String ENGINE = "vsmap";
+	private String DB_DIR = "";
+
+	@Rule
+	public TemporaryFolder testDir = new TemporaryFolder(DEFAULT_DB_DIR);
+
+	@Before
+	public void init() {
+		DB_DIR = testDir.getRoot().toString();
+		assertTrue(DB_DIR != null && !DB_DIR.isEmpty());
+	}
+
+	@Test
+	public void putGetRemoveTest() throws InterruptedException, ExecutionException {
+		Database<String, String> db = openDB(ENGINE, DB_DIR, new StringConverter());
+		try (AsyncDatabase<String, String> async = new AsyncDatabase<>(db)) {
+			List<CompletableFuture<Void>> puts = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				puts.add(async.putAsync("key" + i, "value" + i));
+			}
+			CompletableFuture.allOf(puts.toArray(new CompletableFuture<?>[0])).get();
+			assertEquals(db.countAll(), 1000);
+
+			/* writes are applied in order of submission */
+			async.putAsync("key1", "new");
+			CompletableFuture<Boolean> removed = async.removeAsync("key1");
+			CompletableFuture<Boolean> notRemoved = async.removeAsync("key1");
+			assertTrue(removed.get());
+			assertFalse(notRemoved.get());
+
+			assertEquals(async.getAsync("key42").get(), "value42");
+			assertNull(async.getAsync("key1").get());
+
+			List<String> keys = new ArrayList<>();
+			async.getBetweenAsync("key10", "key12", (String k, String v) -> keys.add(k)).get();
+			assertEquals(keys.size(), 21);
+			assertEquals(keys.get(0), "key100");
+		}
+		db.stop();
+	}
+}
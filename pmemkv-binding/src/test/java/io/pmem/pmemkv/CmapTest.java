@@ -5,6 +5,7 @@ package io.pmem.pmemkv;
 
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -223,4 +224,117 @@ public class CmapTest {
 		it.close();
 		db.stop();
 	}
+
+	/* cmap doesn't support transactions */
+	@Test
+	public void testTransactionExceptionWithCmap() {
+		Database<ByteBuffer, ByteBuffer> db = createDB(ENGINE, DB_PATH, new ByteBufferConverter());
+
+		assertThrows(NotSupportedException.class, () -> {
+			db.transaction();
+			assertTrue(false);
+		});
+		db.stop();
+	}
+
+	@Test
+	public void testRequestRing() {
+		Database<String, String> db = createDB(ENGINE, DB_PATH, new StringConverter(), 190, 190);
+		Map<Long, String> results = new TreeMap<>();
+
+		try (Database<String, String>.RequestRing ring = db.requestRing(4)) {
+			for (int i = 0; i < 10000; i++) {
+				ring.put("key" + i, "value" + i);
+			}
+			/* full submission buffer was submitted on the way, only the rest is left */
+			assertTrue(ring.submit() < 10000);
+			assertEquals(ring.inFlight(), 10000);
+			int completed = 0;
+			while (ring.inFlight() > 0) {
+				completed += ring.await(1000,
+						(long id, String value, DatabaseException error) -> assertNull(error));
+			}
+			assertEquals(completed, 10000);
+			assertEquals(db.countAll(), 10000);
+
+			long found = ring.get("key42");
+			long missing = ring.get("nokey");
+			ring.remove("key1");
+			ring.submit();
+			while (ring.inFlight() > 0) {
+				ring.await(1000, (long id, String value, DatabaseException error) -> {
+					assertNull(error);
+					results.put(id, value);
+				});
+			}
+			assertEquals(results.size(), 3);
+			assertEquals(results.get(found), "value42");
+			assertNull(results.get(missing));
+		}
+		assertFalse(db.exists("key1"));
+
+		/* closing again has no effect, other use fails cleanly */
+		Database<String, String>.RequestRing closed = db.requestRing(1);
+		closed.close();
+		closed.close();
+		assertThrows(IllegalStateException.class, () -> {
+			closed.put("key1", "value1");
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			closed.poll((long id, String value, DatabaseException error) -> fail());
+		});
+
+		/* rings left open are closed by stop(), after running submitted requests */
+		Database<String, String>.RequestRing open = db.requestRing(2);
+		open.put("key2", "value2");
+		open.submit();
+		db.stop();
+		assertThrows(IllegalStateException.class, () -> {
+			open.submit();
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			db.requestRing(1);
+		});
+	}
+
+	@Test
+	public void testRequestRingWithEncodingConverter() {
+		Database<String, String> db = createDB(ENGINE, DB_PATH, new io.pmem.pmemkv.converters.StringConverter());
+		Map<Long, String> results = new TreeMap<>();
+
+		/* keys and values are encoded straight into the submission buffer */
+		try (Database<String, String>.RequestRing ring = db.requestRing(1)) {
+			ring.put("klucz", "warto\u015b\u0107");
+			long found = ring.get("klucz");
+			ring.submit();
+			while (ring.inFlight() > 0) {
+				ring.await(1000, (long id, String value, DatabaseException error) -> {
+					assertNull(error);
+					results.put(id, value);
+				});
+			}
+			assertEquals(results.get(found), "warto\u015b\u0107");
+		}
+		assertEquals(db.getCopy("klucz"), "warto\u015b\u0107");
+		db.stop();
+	}
+
+	@Test
+	public void testPrefixScans() {
+		Database<ByteBuffer, ByteBuffer> db = createDB(ENGINE, DB_PATH, new ByteBufferConverter());
+		for (int i = 0; i < 100; i++) {
+			db.put(stringToByteBuffer("tenant" + (i % 3) + "/key" + i), stringToByteBuffer("value" + i));
+		}
+
+		/* an unsorted engine is scanned whole, only matching records are passed */
+		AtomicInteger found = new AtomicInteger();
+		db.getByPrefix(stringToByteBuffer("tenant1/"), (ByteBuffer k, ByteBuffer v) -> {
+			assertTrue(byteBufferToString(k).startsWith("tenant1/"));
+			found.incrementAndGet();
+		});
+		assertEquals(found.get(), 33);
+		assertEquals(db.countByPrefix(stringToByteBuffer("tenant2/")), 33);
+		assertEquals(db.countByPrefix(stringToByteBuffer("tenant3/")), 0);
+		db.stop();
+	}
 }
@@ -4,6 +4,8 @@
 package io.pmem.pmemkv;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.TreeMap;
 import org.junit.Before;
@@ -95,6 +97,98 @@ public class DatabaseIteratorTest {
 		db.stop();
 	}
 
+	@Test
+	public void readAllEntriesInBatchesTest() {
+		TreeMap<String, String> hs = buildHashMapWithGaps(1024);
+		Database<ByteBuffer, ByteBuffer> db = new Database.Builder<ByteBuffer, ByteBuffer>(ENGINE)
+				.setSize(TestUtils.DEFAULT_DB_SIZE)
+				.setPath(DB_DIR)
+				.setKeyConverter(new ByteBufferConverter())
+				.setValueConverter(new ByteBufferConverter())
+				.setIteratorPoolSize(1)
+				.build();
+
+		for (Map.Entry<String, String> entry : hs.entrySet()) {
+			db.put(TestUtils.stringToByteBuffer(entry.getKey()), TestUtils.stringToByteBuffer(entry.getValue()));
+		}
+		/* a record larger than the batch buffer is passed in a temporary one */
+		String large = new String(new char[100]).replace('\0', 'x');
+		db.put(TestUtils.stringToByteBuffer("zzz"), TestUtils.stringToByteBuffer(large));
+		hs.put("zzz", large);
+
+		/* iterator is closed (and pooled) after every loop */
+		for (int loop = 0; loop < 3; loop++) {
+			TreeMap<String, String> read = new TreeMap<String, String>();
+			ByteBuffer batchBuffer = ByteBuffer.allocateDirect(64);
+			try (Database<ByteBuffer, ByteBuffer>.ReadIterator it = db.readIterator()) {
+				int count;
+				do {
+					count = it.nextBatch(5, batchBuffer, (RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+						assertTrue(batch.size() <= 5);
+						while (batch.next()) {
+							read.put(TestUtils.byteBufferToString(batch.key()),
+									TestUtils.byteBufferToString(batch.value()));
+						}
+					});
+				} while (count > 0);
+				assertEquals(it.nextBatch(5, (RecordBatch<ByteBuffer, ByteBuffer> batch) -> fail()), 0);
+
+				/* iteration may be continued from any position */
+				assertTrue(it.seekHigherEq(TestUtils.stringToByteBuffer("key99")));
+				ArrayList<String> keys = new ArrayList<>();
+				assertEquals(it.nextBatch(2, (RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+					while (batch.next()) {
+						keys.add(TestUtils.byteBufferToString(batch.key()));
+					}
+				}), 2);
+				assertEquals(keys, Arrays.asList("key99", "key990"));
+			}
+			assertEquals(read, hs);
+		}
+		db.stop();
+	}
+
+	@Test
+	public void readEntriesBackwardTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		for (int i = 0; i < 10; i++) {
+			db.put(TestUtils.stringToByteBuffer("key" + i), TestUtils.stringToByteBuffer("value" + i));
+		}
+
+		try (Database<ByteBuffer, ByteBuffer>.ReadIterator it = db.readIterator()) {
+			assertTrue(it.seekToLast());
+			assertTrue(it.prev());
+			assertEquals(TestUtils.byteBufferToString(it.key()), "key8");
+			assertTrue(it.seekToFirst());
+			assertFalse(it.prev());
+
+			/* batches are read from the current record down to the first one */
+			assertTrue(it.seekLower(TestUtils.stringToByteBuffer("key5")));
+			ArrayList<String> keys = new ArrayList<>();
+			int count;
+			do {
+				count = it.prevBatch(3, (RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+					while (batch.next()) {
+						keys.add(TestUtils.byteBufferToString(batch.key()));
+					}
+				});
+			} while (count > 0);
+			assertEquals(keys, Arrays.asList("key4", "key3", "key2", "key1", "key0"));
+		}
+
+		/* not moved iterator reads from the last record */
+		try (Database<ByteBuffer, ByteBuffer>.ReadIterator it = db.readIterator()) {
+			ArrayList<String> keys = new ArrayList<>();
+			assertEquals(it.prevBatch(2, (RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+				while (batch.next()) {
+					keys.add(TestUtils.byteBufferToString(batch.value()));
+				}
+			}), 2);
+			assertEquals(keys, Arrays.asList("value9", "value8"));
+		}
+		db.stop();
+	}
+
 	@Test
 	public void seekAndReadKeyTest() {
 		TreeMap<String, String> hs = buildHashMapWithGaps(10);
@@ -337,4 +431,65 @@ public class DatabaseIteratorTest {
 		}
 		db.stop();
 	}
+
+	@Test
+	public void readRangeTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(TestUtils.stringToByteBuffer("key1"), TestUtils.stringToByteBuffer("0123456789"));
+
+		try (Database<ByteBuffer, ByteBuffer>.ReadIterator it = db.readIterator()) {
+			assertTrue(it.seek(TestUtils.stringToByteBuffer("key1")));
+			assertEquals(TestUtils.byteBufferToString(it.value(2, 3)), "234");
+			assertEquals(TestUtils.byteBufferToString(it.value(8, 100)), "89");
+			assertEquals(TestUtils.byteBufferToString(it.value(0, Long.MAX_VALUE)), "0123456789");
+		}
+		db.stop();
+	}
+
+	@Test
+	public void writeRangeTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(TestUtils.stringToByteBuffer("key1"), TestUtils.stringToByteBuffer("0123456789"));
+		db.put(TestUtils.stringToByteBuffer("key2"), TestUtils.stringToByteBuffer("0123456789"));
+
+		try (Database<ByteBuffer, ByteBuffer>.WriteIterator it = db.writeIterator()) {
+			assertTrue(it.seek(TestUtils.stringToByteBuffer("key1")));
+			ByteBuffer range = it.writeRange(2, 3);
+			assertEquals(range.capacity(), 3);
+			assertEquals(TestUtils.byteBufferToString(range), "234");
+			range.rewind();
+			range.put("abc".getBytes());
+			/* changes are not visible before commit */
+			assertEquals(TestUtils.byteBufferToString(it.value()), "0123456789");
+			it.commit();
+			assertEquals(TestUtils.byteBufferToString(it.value()), "01abc56789");
+
+			assertTrue(it.seek(TestUtils.stringToByteBuffer("key2")));
+			it.writeRange(0, 100).put("xyz".getBytes());
+			it.abort();
+			assertEquals(TestUtils.byteBufferToString(it.value()), "0123456789");
+		}
+		assertEquals(TestUtils.byteBufferToString(db.getCopy(TestUtils.stringToByteBuffer("key1"))), "01abc56789");
+		assertEquals(TestUtils.byteBufferToString(db.getCopy(TestUtils.stringToByteBuffer("key2"))), "0123456789");
+		db.stop();
+	}
+
+	@Test
+	public void closedWriteIteratorTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(TestUtils.stringToByteBuffer("key1"), TestUtils.stringToByteBuffer("value1"));
+
+		Database<ByteBuffer, ByteBuffer>.WriteIterator it = db.writeIterator();
+		assertTrue(it.seekToFirst());
+		it.close();
+		/* closing again has no effect, other use fails cleanly */
+		it.close();
+		assertThrows(IllegalStateException.class, () -> {
+			it.seekToFirst();
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			it.commit();
+		});
+		db.stop();
+	}
 }
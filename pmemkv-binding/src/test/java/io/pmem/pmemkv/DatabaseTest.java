@@ -4,7 +4,17 @@
 package io.pmem.pmemkv;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -13,6 +23,7 @@ import org.junit.rules.TemporaryFolder;
 import static io.pmem.pmemkv.TestUtils.*;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 public class DatabaseTest {
 
@@ -108,6 +119,34 @@ public class DatabaseTest {
 		db.stop();
 	}
 
+	@Test
+	public void getsIntoBufferTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(stringToByteBuffer("key1"), stringToByteBuffer("value1"));
+		db.put(stringToByteBuffer("key2"), stringToByteBuffer(""));
+
+		ByteBuffer heap = ByteBuffer.allocate(16);
+		heap.put((byte) 'x');
+		assertEquals(db.getInto(stringToByteBuffer("key1"), heap), 6);
+		assertEquals(heap.position(), 7);
+		heap.flip();
+		assertEquals(UTF_8.decode(heap).toString(), "xvalue1");
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(6);
+		assertEquals(db.getInto(stringToByteBuffer("key1"), direct), 6);
+		direct.flip();
+		assertEquals(UTF_8.decode(direct).toString(), "value1");
+
+		/* value doesn't fit into the buffer */
+		ByteBuffer small = ByteBuffer.allocateDirect(4);
+		assertEquals(db.getInto(stringToByteBuffer("key1"), small), -6);
+		assertEquals(small.position(), 0);
+
+		assertEquals(db.getInto(stringToByteBuffer("key2"), small), 0);
+		assertEquals(db.getInto(stringToByteBuffer("key3"), small), Database.NOT_FOUND);
+		db.stop();
+	}
+
 	@Test
 	public void putsEmptyKeyTest() {
 		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
@@ -421,6 +460,292 @@ public class DatabaseTest {
 		db.stop();
 	}
 
+	@Test
+	public void usesGetAllBatchedTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(stringToByteBuffer("1"), stringToByteBuffer("one"));
+		db.put(stringToByteBuffer("2"), stringToByteBuffer("two"));
+		db.put(stringToByteBuffer("3"), stringToByteBuffer("a value bigger than the whole batch buffer"));
+		db.put(stringToByteBuffer("记!"), stringToByteBuffer("RR"));
+
+		/* Only two small records fit into the buffer at once */
+		ByteBuffer batchBuffer = ByteBuffer.allocateDirect(24);
+		StringBuilder x = new StringBuilder();
+		AtomicInteger batches = new AtomicInteger(0);
+		db.getAllBatched(batchBuffer, (RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+			batches.incrementAndGet();
+			while (batch.next()) {
+				x.append("<").append(UTF_8.decode(batch.keyBuffer()).toString()).append(">,<")
+						.append(UTF_8.decode(batch.value()).toString()).append(">|");
+			}
+		});
+		assertEquals(x.toString(),
+				"<1>,<one>|<2>,<two>|<3>,<a value bigger than the whole batch buffer>|<记!>,<RR>|");
+		assertEquals(batches.intValue(), 3);
+
+		db.stop();
+	}
+
+	@Test
+	public void usesGetBetweenBatchedTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(stringToByteBuffer("A"), stringToByteBuffer("1"));
+		db.put(stringToByteBuffer("AB"), stringToByteBuffer("2"));
+		db.put(stringToByteBuffer("AC"), stringToByteBuffer("3"));
+		db.put(stringToByteBuffer("B"), stringToByteBuffer("4"));
+		db.put(stringToByteBuffer("BB"), stringToByteBuffer("5"));
+
+		ByteBuffer batchBuffer = ByteBuffer.allocateDirect(4096);
+		StringBuilder x = new StringBuilder();
+		db.getBetweenBatched(stringToByteBuffer("A"), stringToByteBuffer("B"), batchBuffer,
+				(RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+					assertEquals(batch.size(), 2);
+					while (batch.next()) {
+						x.append(UTF_8.decode(batch.key()).toString()).append(",")
+								.append(UTF_8.decode(batch.valueBuffer()).toString()).append("|");
+					}
+				});
+		assertEquals(x.toString(), "AB,2|AC,3|");
+
+		StringBuilder x2 = new StringBuilder();
+		db.getAboveBatched(stringToByteBuffer("B"), batchBuffer,
+				(RecordBatch<ByteBuffer, ByteBuffer> batch) -> x2.append(batch.size()));
+		db.getBelowBatched(stringToByteBuffer("A"), batchBuffer,
+				(RecordBatch<ByteBuffer, ByteBuffer> batch) -> x2.append(batch.size()));
+		assertEquals(x2.toString(), "1");
+
+		db.stop();
+	}
+
+	@Test
+	public void usesGetMultiTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(stringToByteBuffer("A"), stringToByteBuffer("1"));
+		db.put(stringToByteBuffer("B"), stringToByteBuffer("2"));
+		db.put(stringToByteBuffer("C"), stringToByteBuffer("3"));
+
+		StringBuilder x = new StringBuilder();
+		db.getMulti(Arrays.asList(stringToByteBuffer("C"), stringToByteBuffer("missing"), stringToByteBuffer("A")),
+				(ByteBuffer k, ByteBuffer v) -> x.append(byteBufferToString(k)).append(",")
+						.append(byteBufferToString(v)).append("|"));
+		assertEquals(x.toString(), "C,3|A,1|");
+
+		ByteBuffer packedKeys = ByteBuffer.allocateDirect(64).order(ByteOrder.nativeOrder());
+		packedKeys.putInt(1).put("B".getBytes());
+		packedKeys.putInt(1).put("D".getBytes());
+		packedKeys.putInt(1).put("C".getBytes());
+		StringBuilder x2 = new StringBuilder();
+		db.getMulti(packedKeys, ByteBuffer.allocateDirect(64), (RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+			while (batch.next()) {
+				x2.append(UTF_8.decode(batch.keyBuffer()).toString()).append("|");
+			}
+		});
+		assertEquals(x2.toString(), "B|C|");
+
+		db.stop();
+	}
+
+	@Test
+	public void usesGetRangeTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(stringToByteBuffer("key1"), stringToByteBuffer("0123456789"));
+
+		ArrayList<String> ranges = new ArrayList<>();
+		db.getRange(stringToByteBuffer("key1"), 2, 3, (ByteBuffer v) -> ranges.add(byteBufferToString(v)));
+		db.getRange(stringToByteBuffer("key1"), 8, 100, (ByteBuffer v) -> ranges.add(byteBufferToString(v)));
+		db.getRange(stringToByteBuffer("key1"), 0, 0, (ByteBuffer v) -> ranges.add(byteBufferToString(v)));
+		assertEquals(ranges, Arrays.asList("234", "89", ""));
+
+		assertThrows(NotFoundException.class, () -> {
+			db.getRange(stringToByteBuffer("key2"), 0, 1, (ByteBuffer v) -> fail());
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			db.getRange(stringToByteBuffer("key1"), -1, 1, (ByteBuffer v) -> fail());
+		});
+
+		db.stop();
+	}
+
+	@Test
+	public void usesStreamTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		TreeMap<String, String> expected = new TreeMap<>();
+		for (int i = 0; i < 5000; i++) {
+			String key = String.format("key%05d", i);
+			expected.put(key, "value" + i);
+			db.put(stringToByteBuffer(key), stringToByteBuffer("value" + i));
+		}
+
+		List<String> keys = db.keyStream().map(TestUtils::byteBufferToString).collect(Collectors.toList());
+		assertEquals(keys, new ArrayList<>(expected.keySet()));
+
+		/* from is inclusive, to is exclusive */
+		Map<String, String> range = db.stream(stringToByteBuffer("key00100"), stringToByteBuffer("key04000"))
+				.collect(Collectors.toMap(e -> byteBufferToString(e.getKey()), e -> byteBufferToString(e.getValue())));
+		assertEquals(range, expected.subMap("key00100", "key04000"));
+
+		/* parallel stream reads the range in splits, but keeps the order */
+		keys = db.keyStream(stringToByteBuffer("key00100"), null).parallel().map(TestUtils::byteBufferToString)
+				.collect(Collectors.toList());
+		assertEquals(keys, new ArrayList<>(expected.tailMap("key00100").keySet()));
+		assertEquals(db.stream().parallel().count(), 5000);
+		assertEquals(db.stream(stringToByteBuffer("x"), null).count(), 0);
+
+		db.stop();
+	}
+
+	@Test
+	public void usesScansOnVirtualThreadsTest() throws Exception {
+		ExecutorService executor = newVirtualThreadExecutor();
+		assumeTrue(executor != null);
+		Database<ByteBuffer, ByteBuffer> db = new Database.Builder<ByteBuffer, ByteBuffer>(ENGINE)
+				.setSize(DEFAULT_DB_SIZE)
+				.setPath(DB_DIR)
+				.setKeyConverter(new ByteBufferConverter())
+				.setValueConverter(new ByteBufferConverter())
+				.setChunkedScansOnVirtualThreads(true)
+				.build();
+		for (int i = 0; i < 2000; i++) {
+			db.put(stringToByteBuffer(String.format("key%04d", i)), stringToByteBuffer("value" + i));
+		}
+
+		/* scans on a platform thread are run by a single native call */
+		List<String> expected = new ArrayList<>();
+		db.getAll((ByteBuffer k, ByteBuffer v) -> expected.add(byteBufferToString(k) + byteBufferToString(v)));
+		db.getAbove(stringToByteBuffer("key0100"), (ByteBuffer k, ByteBuffer v) -> expected.add(byteBufferToString(k)));
+		db.getBetween(stringToByteBuffer("key0100"), stringToByteBuffer("key1500"),
+				(ByteBuffer k, ByteBuffer v) -> expected.add(byteBufferToString(k)));
+		db.getKeysBelow(stringToByteBuffer("key1500"), (ByteBuffer k) -> expected.add(byteBufferToString(k)));
+		db.getByPrefix(stringToByteBuffer("key01"),
+				(ByteBuffer k, ByteBuffer v) -> expected.add(byteBufferToString(k)));
+		db.getAbove(stringToByteBuffer("key0100"), 5,
+				(ByteBuffer k, ByteBuffer v) -> expected.add(byteBufferToString(k)));
+
+		/*
+		 * on a virtual thread, they are read in chunks (if enabled), with the same
+		 * result
+		 */
+		List<String> actual = new ArrayList<>();
+		executor.submit(() -> {
+			db.getAll((ByteBuffer k, ByteBuffer v) -> actual.add(byteBufferToString(k) + byteBufferToString(v)));
+			db.getAbove(stringToByteBuffer("key0100"),
+					(ByteBuffer k, ByteBuffer v) -> actual.add(byteBufferToString(k)));
+			db.getBetween(stringToByteBuffer("key0100"), stringToByteBuffer("key1500"),
+					(ByteBuffer k, ByteBuffer v) -> actual.add(byteBufferToString(k)));
+			db.getKeysBelow(stringToByteBuffer("key1500"), (ByteBuffer k) -> actual.add(byteBufferToString(k)));
+			db.getByPrefix(stringToByteBuffer("key01"),
+					(ByteBuffer k, ByteBuffer v) -> actual.add(byteBufferToString(k)));
+			db.getAbove(stringToByteBuffer("key0100"), 5,
+					(ByteBuffer k, ByteBuffer v) -> actual.add(byteBufferToString(k)));
+		}).get();
+		executor.shutdown();
+		assertEquals(actual, expected);
+
+		db.stop();
+	}
+
+	@Test
+	public void usesPublisherTest() throws InterruptedException {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		for (int i = 0; i < 1000; i++) {
+			db.put(stringToByteBuffer(String.format("key%04d", i)), stringToByteBuffer("value" + i));
+		}
+
+		ArrayList<String> received = new ArrayList<>();
+		CountDownLatch completed = new CountDownLatch(1);
+		AtomicInteger outstanding = new AtomicInteger();
+		db.publisher(stringToByteBuffer("key0100"), stringToByteBuffer("key0900"))
+				.subscribe(new RecordPublisher.Subscriber<Map.Entry<ByteBuffer, ByteBuffer>>() {
+					private RecordPublisher.Subscription subscription;
+
+					public void onSubscribe(RecordPublisher.Subscription s) {
+						subscription = s;
+						outstanding.set(10);
+						s.request(10);
+					}
+
+					public void onNext(Map.Entry<ByteBuffer, ByteBuffer> item) {
+						/* items are passed only on demand */
+						assertTrue(outstanding.decrementAndGet() >= 0);
+						received.add(byteBufferToString(item.getKey()));
+						if (outstanding.get() == 0) {
+							outstanding.set(10);
+							subscription.request(10);
+						}
+					}
+
+					public void onError(Throwable throwable) {
+						fail();
+					}
+
+					public void onComplete() {
+						completed.countDown();
+					}
+				});
+		assertTrue(completed.await(60, TimeUnit.SECONDS));
+		assertEquals(received.size(), 800);
+		assertEquals(received.get(0), "key0100");
+		assertEquals(received.get(799), "key0899");
+
+		/* cancelled subscription gets no more items */
+		ArrayList<String> first = new ArrayList<>();
+		db.publisher(null, null, Runnable::run)
+				.subscribe(new RecordPublisher.Subscriber<Map.Entry<ByteBuffer, ByteBuffer>>() {
+					private RecordPublisher.Subscription subscription;
+
+					public void onSubscribe(RecordPublisher.Subscription s) {
+						subscription = s;
+						s.request(Long.MAX_VALUE);
+					}
+
+					public void onNext(Map.Entry<ByteBuffer, ByteBuffer> item) {
+						first.add(byteBufferToString(item.getKey()));
+						subscription.cancel();
+					}
+
+					public void onError(Throwable throwable) {
+						fail();
+					}
+
+					public void onComplete() {
+						fail();
+					}
+				});
+		assertEquals(first, Arrays.asList("key0000"));
+
+		db.stop();
+	}
+
+	@Test
+	public void usesWriteBatchTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		db.put(stringToByteBuffer("A"), stringToByteBuffer("old"));
+
+		Database<ByteBuffer, ByteBuffer>.WriteBatch batch = db.writeBatch();
+		/* enough records to grow the initial buffer */
+		for (int i = 0; i < 1000; i++) {
+			batch.put(stringToByteBuffer("key" + i), stringToByteBuffer("value" + i));
+		}
+		batch.put(stringToByteBuffer("A"), stringToByteBuffer("new")).remove(stringToByteBuffer("key7"))
+				.remove(stringToByteBuffer("missing"));
+		assertEquals(batch.size(), 1003);
+		assertEquals(db.countAll(), 1);
+
+		db.write(batch);
+		assertEquals(db.countAll(), 1000);
+		assertEquals(byteBufferToString(db.getCopy(stringToByteBuffer("A"))), "new");
+		assertEquals(byteBufferToString(db.getCopy(stringToByteBuffer("key999"))), "value999");
+		assertFalse(db.exists(stringToByteBuffer("key7")));
+
+		batch.clear();
+		assertEquals(batch.size(), 0);
+		batch.remove(stringToByteBuffer("A"));
+		db.write(batch);
+		assertFalse(db.exists(stringToByteBuffer("A")));
+
+		db.stop();
+	}
+
 	@Test
 	public void usesBuffersTest() {
 		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
@@ -538,6 +863,38 @@ public class DatabaseTest {
 		db.stop();
 	}
 
+	@Test
+	public void usesReusedCallbackBuffersTest() {
+		Database<ByteBuffer, ByteBuffer> db = new Database.Builder<ByteBuffer, ByteBuffer>(ENGINE)
+				.setSize(DEFAULT_DB_SIZE)
+				.setPath(DB_DIR)
+				.setKeyConverter(new ByteBufferConverter())
+				.setValueConverter(new ByteBufferConverter())
+				.setReuseCallbackBuffers(true)
+				.build();
+		db.put(stringToByteBuffer("A"), stringToByteBuffer("1"));
+		db.put(stringToByteBuffer("BB"), stringToByteBuffer("22"));
+		db.put(stringToByteBuffer("CCC"), stringToByteBuffer("333"));
+
+		StringBuilder x = new StringBuilder();
+		ArrayList<ByteBuffer> keys = new ArrayList<>();
+		db.getAll((ByteBuffer k, ByteBuffer v) -> {
+			keys.add(k);
+			assertEquals(k.capacity(), v.capacity());
+			x.append(byteBufferToString(k)).append(",").append(byteBufferToString(v)).append("|");
+		});
+		assertEquals(x.toString(), "A,1|BB,22|CCC,333|");
+		/* the same key buffer is passed for every record */
+		assertEquals(keys.size(), 3);
+		assertSame(keys.get(0), keys.get(2));
+
+		StringBuilder x2 = new StringBuilder();
+		db.getKeysAbove(stringToByteBuffer("A"), (ByteBuffer k) -> x2.append(byteBufferToString(k)).append("|"));
+		assertEquals(x2.toString(), "BB|CCC|");
+
+		db.stop();
+	}
+
 	/* Test DB with non default cache buffers */
 	@Test
 	public void usesNotDefaultCacheBuffersTest() {
@@ -606,4 +963,346 @@ public class DatabaseTest {
 		}
 		assertFalse(exception_caught);
 	}
+
+	@Test
+	public void usesLongKeysTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		long[] keys = {Long.MIN_VALUE, -1000, -1, 0, 1, 42, Long.MAX_VALUE};
+		for (long key : keys) {
+			db.putLong(key, key * 2);
+		}
+		/* a longer key, beginning with the key 0 - it's not a long key */
+		db.put(ByteBuffer.wrap(new byte[]{(byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 1}), stringToByteBuffer("x"));
+
+		assertEquals(db.getLong(-1000, 7), -2000);
+		assertEquals(db.getLong(Long.MAX_VALUE, 7), Long.MAX_VALUE * 2);
+		assertEquals(db.getLong(5, 7), 7);
+
+		/* keys are stored big-endian, with the sign bit flipped; values big-endian */
+		ByteBuffer value = db.getCopy(ByteBuffer.allocate(8).putLong(0, 42 ^ Long.MIN_VALUE));
+		assertEquals(value.getLong(), 84);
+
+		List<Long> found = new ArrayList<>();
+		db.getLongRange(Long.MIN_VALUE, Long.MAX_VALUE, (k, v) -> {
+			assertEquals(v, k * 2);
+			found.add(k);
+		});
+		assertEquals(found, Arrays.asList(Long.MIN_VALUE, -1000L, -1L, 0L, 1L, 42L, Long.MAX_VALUE));
+
+		found.clear();
+		db.getLongRange(-1, 42, (k, v) -> found.add(k));
+		assertEquals(found, Arrays.asList(-1L, 0L, 1L, 42L));
+
+		found.clear();
+		db.getLongRange(42, Long.MAX_VALUE, (k, v) -> found.add(k));
+		assertEquals(found, Arrays.asList(42L, Long.MAX_VALUE));
+
+		found.clear();
+		db.getLongRange(Long.MIN_VALUE, Long.MIN_VALUE, (k, v) -> found.add(k));
+		assertEquals(found, Arrays.asList(Long.MIN_VALUE));
+
+		found.clear();
+		db.getLongRange(42, -1, (k, v) -> found.add(k));
+		assertTrue(found.isEmpty());
+
+		assertTrue(db.removeLong(0));
+		assertFalse(db.removeLong(0));
+		assertEquals(db.getLong(0, 7), 7);
+
+		/* values which aren't longs are reported */
+		db.put(ByteBuffer.allocate(8).putLong(0, 3 ^ Long.MIN_VALUE), stringToByteBuffer("abc"));
+		boolean exception_caught = false;
+		try {
+			db.getLong(3, 0);
+		} catch (DatabaseException e) {
+			exception_caught = true;
+		}
+		assertTrue(exception_caught);
+		db.stop();
+	}
+
+	@Test
+	public void usesEncodingConverterTest() {
+		/* UTF-8 converter, encoding strings directly into buffers of the Database */
+		EncodingConverter<String> converter = new io.pmem.pmemkv.converters.StringConverter();
+		String[] strings = {"", "key", "zażółć", "€", "😀", "\ud83d"};
+		for (String str : strings) {
+			/* encoded bytes are the same as converted ones */
+			ByteBuffer encoded = ByteBuffer.allocate(converter.encodedSize(str));
+			converter.encodeInto(str, encoded);
+			assertFalse(encoded.hasRemaining());
+			assertArrayEquals(encoded.array(), str.getBytes(UTF_8));
+		}
+
+		Database<String, String> db = openDB(ENGINE, DB_DIR, converter);
+		db.put("key1", "value1");
+		db.put("€2", "zażółć");
+		db.write(db.writeBatch().put("key3", "value3").put("key4", "value4").remove("key1"));
+		assertEquals(db.getCopy("€2"), "zażółć");
+		assertNull(db.getCopy("key1"));
+		assertEquals(db.countBetween("key2", "key4"), 1);
+
+		List<String> keys = new ArrayList<>();
+		db.getAbove("key3", (k, v) -> keys.add(k));
+		assertEquals(keys, Arrays.asList("key4", "€2"));
+		db.stop();
+	}
+
+	@Test
+	public void detectsWrongEncodedSizeTest() {
+		EncodingConverter<String> wrong = new io.pmem.pmemkv.converters.StringConverter() {
+			@Override
+			public int encodedSize(String entry) {
+				return super.encodedSize(entry) - 1;
+			}
+		};
+		Database<String, String> db = openDB(ENGINE, DB_DIR, wrong);
+		boolean exception_caught = false;
+		try {
+			db.put("key1", "value1");
+		} catch (IllegalStateException e) {
+			exception_caught = true;
+		}
+		assertTrue(exception_caught);
+		assertEquals(db.countAll(), 0);
+
+		/* the batch is left unchanged */
+		Database<String, String>.WriteBatch batch = db.writeBatch();
+		exception_caught = false;
+		try {
+			batch.remove("key1");
+		} catch (IllegalStateException e) {
+			exception_caught = true;
+		}
+		assertTrue(exception_caught);
+		assertEquals(batch.size(), 0);
+		db.write(batch);
+		db.stop();
+	}
+
+	@Test
+	public void usesValueViewsTest() {
+		AtomicInteger conversions = new AtomicInteger();
+		Converter<String> counting = new StringConverter() {
+			@Override
+			public String fromByteBuffer(ByteBuffer entry) {
+				conversions.incrementAndGet();
+				return super.fromByteBuffer(entry);
+			}
+		};
+		Database<String, String> db = new Database.Builder<String, String>(ENGINE).setSize(DEFAULT_DB_SIZE)
+				.setPath(DB_DIR).setKeyConverter(new StringConverter()).setValueConverter(counting).build();
+		for (int i = 0; i < 100; i++) {
+			db.put("key" + i, "value" + i);
+		}
+
+		/* only values of accepted keys are converted */
+		List<String> values = new ArrayList<>();
+		List<ValueView<String>> views = new ArrayList<>();
+		db.getAllViews((k, v) -> {
+			assertEquals(v.size(), k.length() + 2);
+			if (k.endsWith("7")) {
+				values.add(v.get());
+				assertSame(v.get(), values.get(values.size() - 1));
+			}
+			views.add(v);
+		});
+		assertEquals(values.size(), 10);
+		assertEquals(conversions.get(), 10);
+
+		values.clear();
+		db.getBetweenViews("key1", "key2", (k, v) -> values.add(new String(v.toByteArray(), UTF_8)));
+		assertEquals(values.size(), 10);
+		assertEquals(values.get(0), "value10");
+		assertEquals(conversions.get(), 10);
+
+		/* a view can't be used after its callback returns */
+		boolean exception_caught = false;
+		try {
+			views.get(0).get();
+		} catch (IllegalStateException e) {
+			exception_caught = true;
+		}
+		assertTrue(exception_caught);
+		db.stop();
+	}
+
+	@Test
+	public void usesPrefixScansTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		byte[][] keys = {{0x00, (byte) 0xFF}, {0x01}, {0x01, (byte) 0xFF}, {0x01, (byte) 0xFF, 0x00},
+				{0x01, (byte) 0xFF, (byte) 0xFF, 0x05}, {0x02}, {(byte) 0xFF, (byte) 0xFF, 0x01}};
+		for (byte[] key : keys) {
+			db.put(ByteBuffer.wrap(key), stringToByteBuffer("value"));
+		}
+
+		/* prefixes ending with 0xFF are handled, as no successor key is computed */
+		List<ByteBuffer> found = new ArrayList<>();
+		db.getByPrefix(ByteBuffer.wrap(new byte[]{0x01, (byte) 0xFF}), (ByteBuffer k, ByteBuffer v) -> {
+			assertEquals(byteBufferToString(v), "value");
+			found.add(copyBuffer(k));
+		});
+		assertEquals(found,
+				Arrays.asList(ByteBuffer.wrap(keys[2]), ByteBuffer.wrap(keys[3]), ByteBuffer.wrap(keys[4])));
+
+		found.clear();
+		db.getKeysByPrefix(ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF}),
+				(ByteBuffer k) -> found.add(copyBuffer(k)));
+		assertEquals(found, Arrays.asList(ByteBuffer.wrap(keys[6])));
+
+		assertEquals(db.countByPrefix(ByteBuffer.wrap(new byte[]{0x01})), 4);
+		assertEquals(db.countByPrefix(ByteBuffer.wrap(new byte[0])), keys.length);
+		assertEquals(db.countByPrefix(ByteBuffer.wrap(new byte[]{0x03})), 0);
+		db.stop();
+	}
+
+	@Test
+	public void stopsScansByCallbackTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		for (int i = 0; i < 100; i++) {
+			db.put(stringToByteBuffer(String.format("key%03d", i)), stringToByteBuffer("value" + i));
+		}
+
+		/* a false return ends the scan, without an exception */
+		List<String> found = new ArrayList<>();
+		db.getAllWhile((ByteBuffer k, ByteBuffer v) -> {
+			found.add(byteBufferToString(k));
+			return found.size() < 3;
+		});
+		assertEquals(found, Arrays.asList("key000", "key001", "key002"));
+
+		found.clear();
+		db.getKeysBetweenWhile(stringToByteBuffer("key010"), stringToByteBuffer("key050"), (ByteBuffer k) -> {
+			found.add(byteBufferToString(k));
+			return !byteBufferToString(k).equals("key012");
+		});
+		assertEquals(found, Arrays.asList("key011", "key012"));
+
+		found.clear();
+		db.getKeysByPrefixWhile(stringToByteBuffer("key09"), (ByteBuffer k) -> found.add(byteBufferToString(k)));
+		assertEquals(found.size(), 10);
+
+		/* limits */
+		found.clear();
+		db.getAbove(stringToByteBuffer("key090"), 4, (ByteBuffer k, ByteBuffer v) -> found.add(byteBufferToString(k)));
+		assertEquals(found, Arrays.asList("key091", "key092", "key093", "key094"));
+
+		found.clear();
+		db.getKeysBelow(stringToByteBuffer("key005"), 100, (ByteBuffer k) -> found.add(byteBufferToString(k)));
+		assertEquals(found.size(), 5);
+
+		found.clear();
+		db.getBelowViews(stringToByteBuffer("key050"), 2,
+				(ByteBuffer k, ValueView<ByteBuffer> v) -> found.add(byteBufferToString(k)));
+		db.getAboveViewsWhile(stringToByteBuffer("key097"), (ByteBuffer k, ValueView<ByteBuffer> v) -> {
+			found.add(new String(v.toByteArray()));
+			return false;
+		});
+		assertEquals(found, Arrays.asList("key000", "key001", "value98"));
+
+		found.clear();
+		db.getKeys(0, (ByteBuffer k) -> found.add(byteBufferToString(k)));
+		db.getByPrefix(stringToByteBuffer("key"), 0, (ByteBuffer k, ByteBuffer v) -> fail());
+		assertEquals(found.size(), 0);
+		assertThrows(IllegalArgumentException.class, () -> {
+			db.getAll(-1, (ByteBuffer k, ByteBuffer v) -> fail());
+		});
+		db.stop();
+	}
+
+	@Test
+	public void usesPagesTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		for (int i = 0; i < 30; i++) {
+			db.put(stringToByteBuffer(String.format("key%03d", i)), stringToByteBuffer("value" + i));
+		}
+
+		List<String> read = new ArrayList<>();
+		List<Integer> sizes = new ArrayList<>();
+		Page<ByteBuffer, ByteBuffer> page = db.page(stringToByteBuffer("key005"), stringToByteBuffer("key020"), 4);
+		while (true) {
+			sizes.add(page.entries().size());
+			for (Map.Entry<ByteBuffer, ByteBuffer> entry : page.entries()) {
+				read.add(byteBufferToString(entry.getKey()) + "=" + byteBufferToString(entry.getValue()));
+			}
+			if (!page.hasMore()) {
+				break;
+			}
+			/* the token is a plain string, resumed after the last key read */
+			page = db.page(page.continuation(), 4);
+		}
+		assertEquals(sizes, Arrays.asList(4, 4, 4, 3));
+		assertEquals(read.size(), 15);
+		assertEquals(read.get(0), "key005=value5");
+		assertEquals(read.get(14), "key019=value19");
+
+		/* a page filling the range exactly is the last one */
+		page = db.page(stringToByteBuffer("key025"), null, 5);
+		assertEquals(page.entries().size(), 5);
+		assertFalse(page.hasMore());
+		assertNull(page.continuation());
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			db.page(null, null, 0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			db.page("not a token", 10);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			db.page("AQA", 10);
+		});
+		db.stop();
+	}
+
+	@Test
+	public void usesDescendingScansTest() {
+		Database<ByteBuffer, ByteBuffer> db = buildDB(ENGINE);
+		for (int i = 0; i < 30; i++) {
+			db.put(stringToByteBuffer(String.format("key%03d", i)), stringToByteBuffer("value" + i));
+		}
+
+		/* the latest records below a key are read first */
+		List<String> found = new ArrayList<>();
+		db.getBelowDescending(stringToByteBuffer("key020"), 3,
+				(ByteBuffer k, ByteBuffer v) -> found.add(byteBufferToString(k)));
+		assertEquals(found, Arrays.asList("key019", "key018", "key017"));
+
+		found.clear();
+		db.getAboveDescending(stringToByteBuffer("key025"),
+				(ByteBuffer k, ByteBuffer v) -> found.add(byteBufferToString(v)));
+		assertEquals(found, Arrays.asList("value29", "value28", "value27", "value26"));
+
+		found.clear();
+		db.getBetweenDescendingBatched(stringToByteBuffer("key003"), stringToByteBuffer("key010"),
+				ByteBuffer.allocateDirect(64), (RecordBatch<ByteBuffer, ByteBuffer> batch) -> {
+					while (batch.next()) {
+						found.add(byteBufferToString(batch.key()));
+					}
+				});
+		assertEquals(found, Arrays.asList("key009", "key008", "key007", "key006", "key005", "key004"));
+
+		found.clear();
+		db.getAllDescending((ByteBuffer k, ByteBuffer v) -> found.add(byteBufferToString(k)));
+		assertEquals(found.size(), 30);
+		assertEquals(found.get(0), "key029");
+
+		/* descending pages */
+		found.clear();
+		Page<ByteBuffer, ByteBuffer> page = db.pageDescending(stringToByteBuffer("key010"),
+				stringToByteBuffer("key020"),
+				4);
+		while (true) {
+			for (Map.Entry<ByteBuffer, ByteBuffer> entry : page.entries()) {
+				found.add(byteBufferToString(entry.getKey()));
+			}
+			if (!page.hasMore()) {
+				break;
+			}
+			page = db.page(page.continuation(), 4);
+		}
+		assertEquals(found.size(), 10);
+		assertEquals(found.get(0), "key019");
+		assertEquals(found.get(9), "key010");
+		db.stop();
+	}
 }
@@ -0,0 +1,102 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import io.pmem.pmemkv.DirectBufferPool.ThreadCache;
+
+public class DirectBufferPoolTest {
+
+	@Test
+	public void sizeClassesTest() {
+		assertEquals(DirectBufferPool.classSize(1), 64);
+		assertEquals(DirectBufferPool.classSize(64), 64);
+		assertEquals(DirectBufferPool.classSize(65), 128);
+		assertEquals(DirectBufferPool.classSize(65536), 65536);
+		assertEquals(DirectBufferPool.classSize((1 << 26) + 1), (1 << 26) + 1);
+	}
+
+	@Test
+	public void reusesReleasedBuffersTest() {
+		DirectBufferPool pool = new DirectBufferPool(1024);
+		ByteBuffer buffer = pool.acquire(100);
+		assertTrue(buffer.isDirect());
+		assertEquals(buffer.capacity(), 128);
+
+		pool.release(buffer);
+		assertEquals(pool.retainedBytes(), 128);
+		assertSame(pool.acquire(120), buffer);
+		assertEquals(pool.retainedBytes(), 0);
+
+		/* buffers exceeding the limit are not kept */
+		pool.release(pool.acquire(2048));
+		assertEquals(pool.retainedBytes(), 0);
+	}
+
+	@Test
+	public void threadCacheGrowsLazilyTest() {
+		DirectBufferPool pool = new DirectBufferPool(1 << 20);
+		ThreadCache cache = pool.newThreadCache(256, 4096);
+		assertEquals(pool.retainedBytes(), 0);
+
+		ByteBuffer key = cache.get(ThreadCache.KEY1_BUFFER, 10);
+		assertEquals(key.capacity(), 64);
+		assertSame(cache.get(ThreadCache.KEY1_BUFFER, 60), key);
+		assertEquals(cache.get(ThreadCache.KEY1_BUFFER, 200).capacity(), 256);
+		assertEquals(pool.retainedBytes(), 256);
+
+		/* keys over the limit are not cached */
+		ByteBuffer big = cache.get(ThreadCache.KEY1_BUFFER, 1000);
+		assertNotSame(cache.get(ThreadCache.KEY1_BUFFER, 1000), big);
+		assertEquals(pool.retainedBytes(), 256);
+
+		/* values over the limit are taken from the pool and returned to it */
+		ByteBuffer value = cache.get(ThreadCache.VALUE_BUFFER, 10000);
+		cache.release(value);
+		assertSame(cache.get(ThreadCache.VALUE_BUFFER, 10000), value);
+	}
+
+	@Test
+	public void borrowedKeysReturnToPoolTest() {
+		DirectBufferPool pool = new DirectBufferPool(1 << 20);
+		ThreadCache cache = pool.newThreadCache(256, 4096);
+
+		ByteBuffer big = cache.get(ThreadCache.KEY1_BUFFER, 1000);
+		cache.release(big);
+		assertEquals(pool.retainedBytes(), 1024);
+		assertSame(cache.get(ThreadCache.KEY2_BUFFER, 1000), big);
+
+		/* cached buffers and foreign ones are not released */
+		ByteBuffer key = cache.get(ThreadCache.KEY1_BUFFER, 10);
+		cache.release(key);
+		cache.release(ByteBuffer.allocateDirect(1024));
+		assertEquals(pool.retainedBytes(), 64);
+		assertSame(cache.get(ThreadCache.KEY1_BUFFER, 10), key);
+	}
+
+	@Test
+	public void sweepDropsIdleCachesTest() {
+		DirectBufferPool pool = new DirectBufferPool(1 << 20);
+		ThreadCache idle = pool.newThreadCache(256, 4096);
+		ThreadCache used = pool.newThreadCache(256, 4096);
+		idle.get(ThreadCache.KEY1_BUFFER, 100);
+		ByteBuffer key = used.get(ThreadCache.KEY1_BUFFER, 100);
+		assertEquals(pool.retainedBytes(), 256);
+
+		long now = System.nanoTime() + DirectBufferPool.SWEEP_INTERVAL_NANOS;
+		pool.sweep(now);
+		assertEquals(pool.retainedBytes(), 256);
+
+		/* the second cache is used in the meantime, so it's kept */
+		assertSame(used.get(ThreadCache.KEY1_BUFFER, 100), key);
+		pool.sweep(now + DirectBufferPool.IDLE_NANOS);
+		assertEquals(pool.retainedBytes(), 128);
+		assertSame(used.get(ThreadCache.KEY1_BUFFER, 100), key);
+		assertNotSame(idle.get(ThreadCache.KEY1_BUFFER, 100), key);
+	}
+}
@@ -225,6 +225,19 @@ public class ExceptionTest {
 		assertEquals(exception.getMessage(), exception_message);
 	}
 
+	@Test
+	public void notFoundInGet() {
+		ByteBuffer key = ByteBuffer.allocateDirect(256);
+		key.putInt(0x1FF);
+		NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+			db.get(key, (ByteBuffer v) -> {
+			});
+		});
+		/* Missing key is an expected status, stack trace is not gathered */
+		assertEquals(exception.getStackTrace().length, 0);
+		assertNull(db.getCopy(key));
+	}
+
 	/* Other exceptions */
 
 	@Test(expected = RuntimeException.class)
@@ -0,0 +1,93 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static io.pmem.pmemkv.TestUtils.*;
+
+public class RadixTest {
+
+	private final String ENGINE = "radix";
+	private String DB_PATH = "";
+
+	@Rule
+	public TemporaryFolder testDir = new TemporaryFolder(DEFAULT_DB_DIR);
+
+	@Before
+	public void init() {
+		DB_PATH = testDir.getRoot() + File.separator + "testfile";
+		assertTrue(DB_PATH != null && !DB_PATH.isEmpty());
+	}
+
+	@Test
+	public void testTransactionCommit() {
+		Database<ByteBuffer, ByteBuffer> db = createDB(ENGINE, DB_PATH, new ByteBufferConverter());
+		db.put(stringToByteBuffer("key0"), stringToByteBuffer("value0"));
+
+		try (Database<ByteBuffer, ByteBuffer>.Transaction tx = db.transaction()) {
+			for (int i = 1; i < 100; i++) {
+				tx.put(stringToByteBuffer("key" + i), stringToByteBuffer("value" + i));
+			}
+			tx.remove(stringToByteBuffer("key0"));
+			/* nothing is visible before commit */
+			assertEquals(db.countAll(), 1);
+
+			tx.commit();
+			assertEquals(db.countAll(), 99);
+			assertFalse(db.exists(stringToByteBuffer("key0")));
+			assertEquals(byteBufferToString(db.getCopy(stringToByteBuffer("key42"))), "value42");
+
+			/* transaction may be reused after commit */
+			Database<ByteBuffer, ByteBuffer>.WriteBatch batch = db.writeBatch();
+			batch.put(stringToByteBuffer("key1"), stringToByteBuffer("new")).remove(stringToByteBuffer("key2"));
+			tx.write(batch);
+			tx.commit();
+			assertEquals(byteBufferToString(db.getCopy(stringToByteBuffer("key1"))), "new");
+			assertFalse(db.exists(stringToByteBuffer("key2")));
+		}
+		db.stop();
+	}
+
+	@Test
+	public void testTransactionAbort() {
+		Database<ByteBuffer, ByteBuffer> db = createDB(ENGINE, DB_PATH, new ByteBufferConverter());
+
+		try (Database<ByteBuffer, ByteBuffer>.Transaction tx = db.transaction()) {
+			tx.put(stringToByteBuffer("key1"), stringToByteBuffer("value1"));
+			tx.abort();
+			tx.commit();
+			assertEquals(db.countAll(), 0);
+
+			/* uncommitted changes are discarded on close */
+			tx.put(stringToByteBuffer("key2"), stringToByteBuffer("value2"));
+		}
+		assertEquals(db.countAll(), 0);
+		db.stop();
+	}
+
+	@Test
+	public void testTransactionClose() {
+		Database<ByteBuffer, ByteBuffer> db = createDB(ENGINE, DB_PATH, new ByteBufferConverter());
+
+		Database<ByteBuffer, ByteBuffer>.Transaction tx = db.transaction();
+		tx.close();
+		/* closing again has no effect, other use fails cleanly */
+		tx.close();
+		assertThrows(IllegalStateException.class, () -> {
+			tx.put(stringToByteBuffer("key1"), stringToByteBuffer("value1"));
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			tx.commit();
+		});
+		db.stop();
+	}
+}
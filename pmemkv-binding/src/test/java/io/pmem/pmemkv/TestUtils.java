@@ -8,6 +8,8 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 interface Callback {
 	void call();
@@ -36,6 +38,26 @@ class TestUtils {
 		return ByteBuffer.wrap(msg.getBytes());
 	}
 
+	/* Returns a heap copy of the buffer's remaining content */
+	public static ByteBuffer copyBuffer(ByteBuffer buffer) {
+		ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+		copy.put(buffer.duplicate());
+		copy.flip();
+		return copy;
+	}
+
+	/*
+	 * Returns executor starting a virtual thread per task (Java 21+, looked up at
+	 * runtime), or null if virtual threads are not supported
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
 	public static String byteBufferToString(ByteBuffer buffer) {
 		byte[] bytes;
 		bytes = new byte[buffer.capacity()];
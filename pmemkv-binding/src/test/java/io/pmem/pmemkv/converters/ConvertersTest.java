@@ -0,0 +1,150 @@
+// SPDX-License-Identifier: BSD-3-Clause
+/* Copyright 2022, Intel Corporation */
+
+package io.pmem.pmemkv.converters;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import io.pmem.pmemkv.EncodingConverter;
+
+public class ConvertersTest {
+	private final Random random = new Random(1);
+
+	/* Compares buffers as pmemkv's sorted engines do - as unsigned bytes */
+	private static int compareBytes(ByteBuffer a, ByteBuffer b) {
+		int n = Math.min(a.remaining(), b.remaining());
+		for (int i = 0; i < n; i++) {
+			int cmp = Integer.compare(a.get(a.position() + i) & 0xff, b.get(b.position() + i) & 0xff);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return Integer.compare(a.remaining(), b.remaining());
+	}
+
+	/*
+	 * Checks that entries are decoded back, encodeInto() writes the same bytes as
+	 * toByteBuffer() (into a direct little-endian buffer) and byte order of the
+	 * encoded entries matches the given order.
+	 */
+	private static <T> void checkConverter(EncodingConverter<T> converter, List<T> entries, Comparator<T> order) {
+		for (T entry : entries) {
+			ByteBuffer converted = converter.toByteBuffer(entry);
+			assertEquals(converter.encodedSize(entry), converted.remaining());
+			assertEquals(entry, converter.fromByteBuffer(converted));
+
+			ByteBuffer target = ByteBuffer.allocateDirect(converted.remaining() + 1).order(ByteOrder.LITTLE_ENDIAN);
+			target.put((byte) 7);
+			converter.encodeInto(entry, target);
+			assertFalse(target.hasRemaining());
+			target.position(1);
+			assertEquals(converted, target);
+			assertEquals(entry, converter.fromByteBuffer(target));
+		}
+		for (int i = 1; i < entries.size(); i++) {
+			T a = entries.get(i - 1);
+			T b = entries.get(i);
+			assertEquals(Integer.signum(order.compare(a, b)),
+					Integer.signum(compareBytes(converter.toByteBuffer(a), converter.toByteBuffer(b))));
+		}
+	}
+
+	@Test
+	public void numbersAreOrderedTest() {
+		List<Long> longs = new ArrayList<>(Arrays.asList(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE));
+		List<Integer> ints = new ArrayList<>(Arrays.asList(Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE));
+		List<Double> doubles = new ArrayList<>(Arrays.asList(Double.NEGATIVE_INFINITY, -1.5, -Double.MIN_VALUE, -0.0,
+				0.0, Double.MIN_VALUE, 1e300, Double.POSITIVE_INFINITY, Double.NaN));
+		for (int i = 0; i < 1000; i++) {
+			longs.add(random.nextLong());
+			ints.add(random.nextInt());
+			doubles.add(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+		}
+		checkConverter(new LongConverter(), longs, Comparator.naturalOrder());
+		checkConverter(new IntConverter(), ints, Comparator.naturalOrder());
+		checkConverter(new DoubleConverter(), doubles, Comparator.naturalOrder());
+	}
+
+	@Test
+	public void uuidsAreOrderedAsTextTest() {
+		List<UUID> uuids = new ArrayList<>(
+				Arrays.asList(new UUID(0, 0), new UUID(-1, -1), new UUID(Long.MIN_VALUE, 1)));
+		for (int i = 0; i < 1000; i++) {
+			uuids.add(UUID.randomUUID());
+		}
+		checkConverter(new UuidConverter(), uuids, Comparator.comparing(UUID::toString));
+	}
+
+	@Test
+	public void stringsAreUtf8Test() {
+		List<String> strings = new ArrayList<>(Arrays.asList("", "a", "a\u0000", "ab", "é", "€", "￿",
+				"😀", "\ud83d", "x\udc00y"));
+		StringConverter converter = new StringConverter();
+		for (String str : strings) {
+			ByteBuffer converted = converter.toByteBuffer(str);
+			byte[] bytes = new byte[converted.remaining()];
+			converted.get(bytes);
+			assertArrayEquals(str.getBytes(java.nio.charset.StandardCharsets.UTF_8), bytes);
+		}
+		/*
+		 * byte order matches order of code points (unpaired surrogates aren't decoded
+		 * back)
+		 */
+		List<String> valid = strings.subList(0, 8);
+		checkConverter(converter, valid, Comparator.comparing(str -> str.codePoints().toArray(), (a, b) -> {
+			for (int i = 0; i < Math.min(a.length, b.length); i++) {
+				if (a[i] != b[i]) {
+					return Integer.compare(a[i], b[i]);
+				}
+			}
+			return Integer.compare(a.length, b.length);
+		}));
+	}
+
+	@Test
+	public void tuplesAreOrderedByElementsTest() {
+		TupleConverter converter = new TupleConverter();
+		List<List<Object>> tuples = Arrays.asList(Arrays.<Object>asList(), Arrays.<Object>asList((Object) null),
+				Arrays.<Object>asList(new byte[]{0, 1}), Arrays.<Object>asList("a"), Arrays.<Object>asList("a", -5L),
+				Arrays.<Object>asList("a", 3L), Arrays.<Object>asList("a", 3L, "x"), Arrays.<Object>asList("a", 4L),
+				Arrays.<Object>asList("a\u0000"), Arrays.<Object>asList("a\u0000b"), Arrays.<Object>asList("ab"),
+				Arrays.<Object>asList(7), Arrays.<Object>asList(-1.5), Arrays.<Object>asList(new UUID(1, 2)));
+		for (int i = 1; i < tuples.size(); i++) {
+			ByteBuffer a = converter.toByteBuffer(tuples.get(i - 1));
+			ByteBuffer b = converter.toByteBuffer(tuples.get(i));
+			assertTrue(tuples.get(i - 1) + " < " + tuples.get(i), compareBytes(a, b) < 0);
+		}
+		for (List<Object> tuple : tuples) {
+			List<Object> decoded = converter.fromByteBuffer(converter.toByteBuffer(tuple));
+			assertEquals(tuple.size(), decoded.size());
+			for (int i = 0; i < tuple.size(); i++) {
+				if (tuple.get(i) instanceof byte[]) {
+					assertArrayEquals((byte[]) tuple.get(i), (byte[]) decoded.get(i));
+				} else {
+					assertEquals(tuple.get(i), decoded.get(i));
+				}
+			}
+		}
+
+		/* a tuple is a byte prefix of longer tuples beginning with its elements */
+		ByteBuffer prefix = converter.toByteBuffer(Arrays.<Object>asList("a", 3L));
+		ByteBuffer longer = converter.toByteBuffer(Arrays.<Object>asList("a", 3L, "x"));
+		longer.limit(prefix.remaining());
+		assertEquals(prefix, longer);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnsupportedTupleElementTest() {
+		new TupleConverter().toByteBuffer(Arrays.<Object>asList("a", new Object()));
+	}
+}